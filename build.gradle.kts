@@ -2,6 +2,7 @@ plugins {
     id("java")
     id("org.jetbrains.kotlin.jvm") version "2.1.0"
     id("org.jetbrains.intellij.platform") version "2.7.1"
+    id("me.champeau.jmh") version "0.7.2"
 }
 
 group = "org.dinataing"
@@ -51,6 +52,28 @@ tasks {
     }
 }
 
+// JMH benchmarks for the gaze hot paths (src/jmh/java): ./gradlew jmh
+// Results (ops/s + allocation rate from -prof gc) land in build/results/jmh/results.json.
+// Run a subset with e.g. ./gradlew jmh -Pjmh.includes=DecodeBenchmark
+sourceSets {
+    named("jmh") {
+        // benchmarks run plugin code that links against platform classes (Logger, LogicalPosition, ...)
+        compileClasspath += sourceSets.main.get().compileClasspath
+        runtimeClasspath += sourceSets.main.get().compileClasspath
+    }
+}
+
+jmh {
+    jmhVersion.set("1.37")
+    warmupIterations.set(3)
+    iterations.set(5)
+    fork.set(1)
+    profilers.add("gc")
+    resultFormat.set("JSON")
+    jvmArgs.add("-Djava.awt.headless=true")
+    (findProperty("jmh.includes") as String?)?.let { includes.add(it) }
+}
+
 kotlin {
     compilerOptions {
         jvmTarget.set(org.jetbrains.kotlin.gradle.dsl.JvmTarget.JVM_21)
@@ -0,0 +1,73 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import org.json.JSONObject;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tracker stdout line → GazeSample: the decoder alone, the full
+ * {@link PythonJsonStreamParser#handleLine} path, and the old JSONObject parse for reference.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DecodeBenchmark {
+
+    private String[] lines;
+    private int next;
+
+    private final GazeFrameDecoder decoder = new GazeFrameDecoder();
+    private final GazeSample sample = new GazeSample();
+
+    private PythonJsonStreamParser parser;
+    private double sink;
+
+    @Setup
+    public void setUp() {
+        lines = GazeLines.generate(4096, 42);
+        parser = new PythonJsonStreamParser(new PythonMessageListener() {
+            @Override
+            public void onGaze(double x, double y, double timestamp, GazeSample s) {
+                sink += x;
+            }
+
+            @Override
+            public void onStatus(String status, JSONObject rawJson) {}
+
+            @Override
+            public void onError(String errorType, JSONObject rawJson) {}
+        });
+    }
+
+    private String nextLine() {
+        String line = lines[next];
+        next = (next + 1) & (lines.length - 1);
+        return line;
+    }
+
+    @Benchmark
+    public double decode() {
+        decoder.decode(nextLine(), sample);
+        return sample.gx;
+    }
+
+    @Benchmark
+    public double handleLine() {
+        parser.handleLine(nextLine());
+        return sink;
+    }
+
+    @Benchmark
+    public double jsonObject() {
+        JSONObject obj = new JSONObject(nextLine());
+        return obj.optDouble("leftX") + obj.optDouble("rightX") +
+                obj.optDouble("leftY") + obj.optDouble("rightY");
+    }
+}
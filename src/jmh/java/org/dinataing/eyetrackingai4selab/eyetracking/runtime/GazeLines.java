@@ -0,0 +1,53 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * Synthetic eyetracker.py output for benchmarks: gaze lines in the exact
+ * {@code json.dumps} shape, drifting across the screen with some invalid samples.
+ */
+public final class GazeLines {
+
+    private GazeLines() {}
+
+    /** {@code count} gaze lines (power of two, so callers can index with a mask). */
+    public static String[] generate(int count, long seed) {
+        if (Integer.bitCount(count) != 1) {
+            throw new IllegalArgumentException("count must be a power of two: " + count);
+        }
+        Random random = new Random(seed);
+        String[] lines = new String[count];
+        long timestamp = 1764655830347L;
+        double x = 0.3;
+        double y = 0.2;
+
+        for (int i = 0; i < count; i++) {
+            x = clamp(x + random.nextGaussian() * 0.01);
+            y = clamp(y + random.nextGaussian() * 0.005);
+            boolean blink = random.nextInt(50) == 0;
+            timestamp += random.nextInt(4);
+            lines[i] = line(timestamp, x, y, blink);
+        }
+        return lines;
+    }
+
+    static String line(long timestamp, double x, double y, boolean blink) {
+        if (blink) {
+            return "{\"type\": \"gaze\", \"timestamp\": " + timestamp +
+                    ", \"leftX\": NaN, \"leftY\": NaN, \"leftValidity\": 0, \"leftPupil\": NaN, \"leftPupilValidity\": 0" +
+                    ", \"rightX\": NaN, \"rightY\": NaN, \"rightValidity\": 0, \"rightPupil\": NaN, \"rightPupilValidity\": 0}";
+        }
+        return String.format(Locale.ROOT,
+                "{\"type\": \"gaze\", \"timestamp\": %d" +
+                        ", \"leftX\": %.16f, \"leftY\": %.16f, \"leftValidity\": 1, \"leftPupil\": %.16f, \"leftPupilValidity\": 1" +
+                        ", \"rightX\": %.16f, \"rightY\": %.16f, \"rightValidity\": 1, \"rightPupil\": %.16f, \"rightPupilValidity\": 1}",
+                timestamp,
+                x - 0.004, y + 0.002, 3.1 + x,
+                x + 0.004, y - 0.002, 3.0 + y);
+    }
+
+    private static double clamp(double v) {
+        return Math.max(0.0, Math.min(1.0, v));
+    }
+}
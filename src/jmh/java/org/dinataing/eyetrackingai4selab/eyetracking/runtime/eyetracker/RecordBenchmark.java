@@ -0,0 +1,85 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeFrameDecoder;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeLines;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.GazeFixtures;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.GazeHit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@code <gaze>} DOM building and recording, streamed to a temp directory.
+ * {@code processRawJson} has no project here, so it covers decode + the unmapped
+ * element; {@code recordHit} covers the full location / ast_structure element.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecordBenchmark {
+
+    @Param({"xml", "xml+binary"})
+    public String output;
+
+    private String[] lines;
+    private int next;
+
+    private final GazeFrameDecoder decoder = new GazeFrameDecoder();
+    private final GazeSample sample = new GazeSample();
+    private GazeHit hit;
+
+    private Path dir;
+    private EyeTracker eyeTracker;
+
+    @Setup(Level.Trial)
+    public void setUpTrial() {
+        lines = GazeLines.generate(4096, 11);
+        hit = GazeFixtures.typicalHit();
+    }
+
+    @Setup(Level.Iteration)
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("ai4se-jmh");
+        eyeTracker = new EyeTracker();
+        eyeTracker.setStreamingOutput(true);
+        eyeTracker.setBinaryOutput(output.contains("binary"));
+        eyeTracker.start(null, dir.toString(), dir.resolve("Main.java").toString(), dir.toString());
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws Exception {
+        eyeTracker.stop().join();
+        try (var files = Files.walk(dir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    private String nextLine() {
+        String line = lines[next];
+        next = (next + 1) & (lines.length - 1);
+        return line;
+    }
+
+    @Benchmark
+    public void processRawJson() {
+        eyeTracker.processRawJson(null, nextLine());
+    }
+
+    @Benchmark
+    public void recordHit() {
+        decoder.decode(nextLine(), sample);
+        eyeTracker.recordHit(sample, hit);
+    }
+}
@@ -0,0 +1,46 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.openapi.editor.LogicalPosition;
+
+import java.awt.*;
+
+/** Editor-free {@link GazeHit}s for benchmarks of the recording path. */
+public final class GazeFixtures {
+
+    private GazeFixtures() {}
+
+    /** A hit on an identifier inside a method call, with a typical 9-level PSI chain. */
+    public static GazeHit typicalHit() {
+        String[] tags = {
+                "PsiIdentifier:println",
+                "PsiReferenceExpression:System.out.println",
+                "PsiMethodCallExpression:System.out.println(\"hello\")",
+                "PsiExpressionStatement",
+                "PsiCodeBlock",
+                "PsiMethod:main",
+                "PsiClass:Main",
+                "PsiImportList",
+                "PsiJavaFile:Main.java"
+        };
+        PsiAncestorChain.Level[] levels = new PsiAncestorChain.Level[tags.length];
+        for (int i = 0; i < tags.length; i++) {
+            int start = 120 - i * 12;
+            int end = 140 + i * 30;
+            levels[i] = new PsiAncestorChain.Level(tags[i], start, end, 5 - i / 3, 8, 5 + i, 1);
+        }
+        PsiAncestorChain chain = new PsiAncestorChain("println", "IDENTIFIER", levels);
+
+        return new GazeHit(
+                0.31, 0.22,
+                new Point(794, 317),
+                new Point(312, 140),
+                new Point(482, 177),
+                124,
+                new LogicalPosition(5, 23),
+                'p',
+                "println",
+                null,
+                chain
+        );
+    }
+}
@@ -0,0 +1,75 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Normalized gaze → screen point on a fixed (headless) two-monitor layout, and the
+ * screen point → editor lookup of {@link VisibleEditorIndex} for a split main frame plus
+ * a detached editor window on the second monitor.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ScreenMappingBenchmark {
+
+    private final double[] xs = new double[1024];
+    private final double[] ys = new double[1024];
+    private int next;
+    private ScreenRectIndex<String> editors;
+
+    @Setup
+    public void setUp() {
+        DisplayTopology.install(new Rectangle(0, 0, 2560, 1440), new Rectangle(2560, 0, 1920, 1080));
+        DisplayTopology.setMonitorIndex(0);
+
+        editors = ScreenRectIndex.build(
+                Arrays.asList(
+                        new Rectangle(3000, 200, 1200, 700),  // detached window, on top
+                        new Rectangle(340, 120, 1100, 1250),  // left split
+                        new Rectangle(1450, 120, 1100, 1250), // right split
+                        new Rectangle(2600, 100, 1800, 900)   // second project frame
+                ),
+                Arrays.asList("detached", "left", "right", "other"));
+
+        Random random = new Random(7);
+        for (int i = 0; i < xs.length; i++) {
+            xs[i] = random.nextDouble();
+            ys[i] = random.nextDouble();
+        }
+    }
+
+    @Benchmark
+    public Point gazeToScreenPoint() {
+        int i = next;
+        next = (i + 1) & (xs.length - 1);
+        return GazeMapper.gazeToScreenPoint(xs[i], ys[i]);
+    }
+
+    /** The same transform without the Point, as the editor mapper uses it. */
+    @Benchmark
+    public int displayTransform() {
+        int i = next;
+        next = (i + 1) & (xs.length - 1);
+        DisplayTopology.DisplayTransform display = DisplayTopology.getActive();
+        return display.toScreenX(xs[i]) + display.toScreenY(ys[i]);
+    }
+
+    /** Screen point → editor under it, as done for every mapped sample. */
+    @Benchmark
+    public String editorLookup() {
+        int i = next;
+        next = (i + 1) & (xs.length - 1);
+        return editors.find((int) (xs[i] * 4480), (int) (ys[i] * 1440));
+    }
+}
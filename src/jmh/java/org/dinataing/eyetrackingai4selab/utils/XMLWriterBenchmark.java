@@ -0,0 +1,99 @@
+package org.dinataing.eyetrackingai4selab.utils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/** Writing a session of {@code gazes} elements: DOM + Transformer vs {@link StreamingXMLWriter}. */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class XMLWriterBenchmark {
+
+    @Param({"10000"})
+    public int gazes;
+
+    private Document doc;
+    private Element setting;
+    private Element[] gazeElements;
+    private Path dir;
+
+    @Setup
+    public void setUp() throws Exception {
+        dir = Files.createTempDirectory("ai4se-jmh-xml");
+        doc = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+
+        Element root = doc.createElement("eye_tracking");
+        setting = doc.createElement("setting");
+        setting.setAttribute("project_path", "/tmp/project");
+        setting.setAttribute("ide", "IntelliJ");
+        Element container = doc.createElement("gazes");
+        doc.appendChild(root);
+        root.appendChild(setting);
+        root.appendChild(container);
+
+        gazeElements = new Element[gazes];
+        for (int i = 0; i < gazes; i++) {
+            Element gaze = doc.createElement("gaze");
+            gaze.setAttribute("timestamp", String.valueOf(1764655830347L + i * 3L));
+            gaze.setAttribute("gx", String.valueOf(0.3 + (i % 100) / 1000.0));
+            gaze.setAttribute("gy", String.valueOf(0.2 + (i % 37) / 1000.0));
+
+            Element location = doc.createElement("location");
+            location.setAttribute("line", String.valueOf(i % 80));
+            location.setAttribute("column", String.valueOf(i % 40));
+            location.setAttribute("word", "println");
+            gaze.appendChild(location);
+
+            Element ast = doc.createElement("ast_structure");
+            ast.setAttribute("token", "println");
+            ast.setAttribute("type", "IDENTIFIER");
+            for (int level = 0; level < 6; level++) {
+                Element l = doc.createElement("level");
+                l.setAttribute("tag", "PsiElement" + level);
+                l.setAttribute("start", String.valueOf(level * 10));
+                l.setAttribute("end", String.valueOf(level * 10 + 50));
+                ast.appendChild(l);
+            }
+            gaze.appendChild(ast);
+
+            container.appendChild(gaze);
+            gazeElements[i] = gaze;
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        try (var files = Files.walk(dir)) {
+            files.sorted((a, b) -> b.compareTo(a)).forEach(p -> p.toFile().delete());
+        }
+    }
+
+    @Benchmark
+    public void domTransformer() {
+        XMLWriter.writeToXML(doc, dir.resolve("dom.xml").toString());
+    }
+
+    @Benchmark
+    public void streaming() throws Exception {
+        try (StreamingXMLWriter writer = new StreamingXMLWriter(
+                dir.resolve("stream.xml").toString(), "eye_tracking", setting, "gazes")) {
+            for (Element gaze : gazeElements) {
+                writer.write(gaze);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package org.dinataing.eyetrackingai4selab.actions;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.Presentation;
+import com.intellij.openapi.fileChooser.FileChooser;
+import com.intellij.openapi.fileChooser.FileChooserDescriptorFactory;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeTrackingService;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.replay.SessionReplayer;
+import org.jetbrains.annotations.NotNull;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Replays a recorded session ({@code raw_gaze.jsonl} or {@code eye_tracking.xml}) through
+ * the gaze pipeline and records it like a live one into
+ * {@code .ai4se-data/replay-<time>/}. Speed comes from {@code -Dai4se.replay.speed}
+ * (1 = real time, N = N×, 0 = as fast as possible). Invoking it again stops the replay.
+ * Disabled while tracking: the replay would reset and feed the live session's {@code GazeMetrics}.
+ */
+public class ReplaySessionAction extends AnAction {
+
+    private volatile SessionReplayer active;
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent e) {
+        Project project = e.getProject();
+        if (project == null) return;
+
+        SessionReplayer running = active;
+        if (running != null) {
+            running.cancel();
+            return;
+        }
+        if (GazeTrackingService.getInstance().isRunning()) {
+            System.out.println("[AI4SE] Stop tracking before replaying a session");
+            return;
+        }
+
+        String projectPath = project.getBasePath();
+        if (projectPath == null) {
+            System.out.println("[AI4SE] Project base path is null");
+            return;
+        }
+
+        VirtualFile chosen = FileChooser.chooseFile(
+                FileChooserDescriptorFactory.createSingleFileDescriptor()
+                        .withTitle("Replay Gaze Session")
+                        .withDescription("Raw capture (raw_gaze.jsonl), eye_tracking.xml or one of its segments"),
+                project, null);
+        if (chosen == null) return;
+
+        Path recording = Paths.get(chosen.getPath());
+        double speed = TrackingOptions.replaySpeed();
+
+        try {
+            String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            Path dataDir = Paths.get(projectPath, ".ai4se-data", "replay-" + stamp);
+            Files.createDirectories(dataDir);
+
+            EyeTracker eyeTracker = new EyeTracker();
+            eyeTracker.setStreamingOutput(true);
+            eyeTracker.setBinaryOutput(true);
+            eyeTracker.setSegmentPolicy(TrackingOptions.sessionSegments());
+            eyeTracker.setFixationMapping(TrackingOptions.fixationMapping());
+            eyeTracker.setRecordFixations(TrackingOptions.recordFixations());
+            eyeTracker.setHeatmap(TrackingOptions.heatmap());
+            eyeTracker.start(project, projectPath, recording.toString(), dataDir.toString());
+
+            SessionReplayer replayer = new SessionReplayer(project, eyeTracker, recording, speed);
+            active = replayer;
+
+            ProgressManager.getInstance().run(
+                    new Task.Backgroundable(project, "AI4SE: Replaying Gaze Session", false) {
+                        @Override
+                        public void run(@NotNull ProgressIndicator indicator) {
+                            indicator.setIndeterminate(true);
+                            indicator.setText(recording.getFileName() + " (" + speedText(speed) + ")");
+                            try {
+                                eyeTracker.awaitOutputs();
+                                replayer.run();
+                            } catch (Exception ex) {
+                                ex.printStackTrace();
+                                System.err.println("[AI4SE] Replay failed: " + ex.getMessage());
+                            } finally {
+                                try {
+                                    eyeTracker.stop();
+                                } catch (Exception ex) {
+                                    ex.printStackTrace();
+                                }
+                                active = null;
+                            }
+                        }
+                    }
+            );
+        } catch (Exception ex) {
+            active = null;
+            ex.printStackTrace();
+        }
+    }
+
+    private static String speedText(double speed) {
+        return speed > 0 ? speed + "x" : "max speed";
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent e) {
+        final Presentation presentation = e.getPresentation();
+        if (e.getProject() == null) {
+            presentation.setEnabledAndVisible(false);
+            return;
+        }
+
+        if (active != null) {
+            presentation.setText("Stop Replay");
+            presentation.setDescription("Stop replaying the gaze session");
+            presentation.setIcon(AllIcons.Actions.Suspend);
+        } else {
+            presentation.setText("Replay Gaze Session...");
+            presentation.setDescription("Replay a recorded gaze session through the tracking pipeline");
+            presentation.setIcon(AllIcons.Actions.Execute);
+        }
+        presentation.setVisible(true);
+        presentation.setEnabled(active != null || !GazeTrackingService.getInstance().isRunning());
+    }
+}
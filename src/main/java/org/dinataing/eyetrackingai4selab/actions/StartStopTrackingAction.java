@@ -4,11 +4,13 @@ import com.intellij.icons.AllIcons;
 import com.intellij.openapi.actionSystem.AnAction;
 import com.intellij.openapi.actionSystem.AnActionEvent;
 import com.intellij.openapi.actionSystem.Presentation;
-import com.intellij.openapi.components.ServiceManager;
 import com.intellij.openapi.project.Project;
-import org.dinataing.eyetrackingai4selab.eyetracking.runtime.DockerManager;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeTrackingService;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
 import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
 import org.jetbrains.annotations.NotNull;
+import org.w3c.dom.Node;
 
 public class StartStopTrackingAction extends AnAction {
 
@@ -17,7 +19,7 @@ public class StartStopTrackingAction extends AnAction {
         var project = e.getProject();
         if (project == null) return;
 
-        DockerManager mgr = ServiceManager.getService(DockerManager.class);
+        GazeTrackingService mgr = GazeTrackingService.getInstance();
         if (mgr == null) return;
 
         if (!mgr.isRunning()) {
@@ -48,23 +50,25 @@ public class StartStopTrackingAction extends AnAction {
 
                 // Create + start XML eye tracker
                 EyeTracker eyeTracker = new EyeTracker();
+                eyeTracker.setStreamingOutput(true); // keep heap flat on long sessions
+                eyeTracker.setBinaryOutput(true);    // compact eye_tracking.ai4se alongside
+                eyeTracker.setSegmentPolicy(TrackingOptions.sessionSegments());
+                eyeTracker.setFixationMapping(TrackingOptions.fixationMapping());
+                eyeTracker.setRecordFixations(TrackingOptions.recordFixations());
+                eyeTracker.setHeatmap(TrackingOptions.heatmap());
                 eyeTracker.start(project, projectPath, filePath, dataDir.toString());
                 eyeTracker.setRealTime(true);
                 eyeTracker.setGazeHandler(element -> {
-                    String ts = element.getAttribute("timestamp");
-                    String word = element
-                            .getElementsByTagName("location")
-                            .item(0)
-                            .getAttributes()
-                            .getNamedItem("word")
-                            .getNodeValue();
-                    System.out.println("[AI4SE][RT] t=" + ts + " word=" + word);
+                    // once per mapped sample: diagnostics only, and gaze off any text has no location
+                    if (!Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) return;
+                    Node location = element.getElementsByTagName("location").item(0);
+                    Node word = location != null ? location.getAttributes().getNamedItem("word") : null;
+                    Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE][RT] t=" + element.getAttribute("timestamp")
+                            + " word=" + (word != null ? word.getNodeValue() : "-"));
                 });
 
-                mgr.attachEyeTracker(eyeTracker);
-
-                // Start Docker tracker
-                mgr.startOrBuildAndStartAsync(project);
+                // Cheapest available gaze source (local Python, Docker, ...) into the shared pipeline
+                mgr.startAsync(project, eyeTracker);
 
             } catch (Exception ex) {
                 ex.printStackTrace();
@@ -85,7 +89,7 @@ public class StartStopTrackingAction extends AnAction {
             return;
         }
 
-        DockerManager mgr = project.getService(DockerManager.class);
+        GazeTrackingService mgr = GazeTrackingService.getInstance();
         if (mgr == null) {
             presentation.setEnabledAndVisible(false);
             return;
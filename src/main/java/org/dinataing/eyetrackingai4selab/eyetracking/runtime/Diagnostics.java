@@ -0,0 +1,151 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import com.intellij.openapi.application.PathManager;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-sample diagnostic output of the gaze pipeline (mapping details, PSI chains, raw
+ * tracker lines). Off by default.
+ *
+ * Callers check the level before building a message:
+ * <pre>
+ *   if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+ *       Diagnostics.log(Diagnostics.Level.TRACE, "[AI4SE][MAP] ...");
+ *   }
+ * </pre>
+ * so a disabled level costs one volatile read. Enabled messages go into a bounded
+ * queue and are written to the log file by a background thread; if the writer falls
+ * behind, new messages are dropped (and counted) rather than blocking the caller.
+ *
+ * Configured with {@code -Dai4se.diag.level=OFF|INFO|DEBUG|TRACE} and
+ * {@code -Dai4se.diag.file=...} (default {@code ai4se-diagnostics.log} in the IDE log dir).
+ * Session-level messages (start / stop / errors) keep using the console and the IDE log.
+ */
+public final class Diagnostics {
+
+    public enum Level {
+        OFF,
+        /** Per-session summaries. */
+        INFO,
+        /** One line per mapped sample and mapping failures. */
+        DEBUG,
+        /** Everything, including raw tracker lines and PSI levels. */
+        TRACE
+    }
+
+    private static final int QUEUE_CAPACITY = 8192;
+
+    private static volatile int level = TrackingOptions.enumProperty("ai4se.diag.level", Level.OFF).ordinal();
+
+    private static final ArrayBlockingQueue<String> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private static final AtomicLong dropped = new AtomicLong();
+    private static Thread writerThread;
+
+    private Diagnostics() {}
+
+    public static boolean isEnabled(Level l) {
+        return l.ordinal() <= level;
+    }
+
+    public static Level getLevel() {
+        return Level.values()[level];
+    }
+
+    public static void setLevel(Level l) {
+        level = l.ordinal();
+    }
+
+    /** Queue {@code message} if {@code l} is enabled. Never blocks. */
+    public static void log(Level l, String message) {
+        if (l == Level.OFF || !isEnabled(l)) return;
+        ensureWriter();
+        if (!queue.offer(System.currentTimeMillis() + " " + l + " " + message)) {
+            dropped.incrementAndGet();
+        }
+    }
+
+    /** Formatting variant; still check {@link #isEnabled} first to avoid the varargs array. */
+    public static void logf(Level l, String format, Object... args) {
+        if (l == Level.OFF || !isEnabled(l)) return;
+        log(l, String.format(format, args));
+    }
+
+    public static long getDroppedCount() {
+        return dropped.get();
+    }
+
+    private static synchronized void ensureWriter() {
+        if (writerThread != null) return;
+        writerThread = new Thread(Diagnostics::runWriter, "AI4SE Diagnostics Writer");
+        writerThread.setDaemon(true);
+        writerThread.start();
+    }
+
+    private static Path logFile() {
+        String configured = System.getProperty("ai4se.diag.file");
+        if (configured != null && !configured.isBlank()) {
+            return Paths.get(configured);
+        }
+        return Paths.get(PathManager.getLogPath(), "ai4se-diagnostics.log");
+    }
+
+    private static void runWriter() {
+        Path file = logFile();
+        List<String> batch = new ArrayList<>(256);
+        long reportedDrops = 0;
+
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+        } catch (IOException ignored) {
+            // surfaces when opening the file below
+        }
+
+        try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+            System.out.println("[AI4SE] Diagnostics (" + getLevel() + ") written to: " + file);
+
+            while (true) {
+                String first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, 255);
+
+                long drops = dropped.get();
+                if (drops != reportedDrops) {
+                    out.write("... " + (drops - reportedDrops) + " diagnostic messages dropped");
+                    out.newLine();
+                    reportedDrops = drops;
+                }
+                for (int i = 0; i < batch.size(); i++) {
+                    out.write(batch.get(i));
+                    out.newLine();
+                }
+                batch.clear();
+
+                if (queue.isEmpty()) {
+                    out.flush();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            System.err.println("[AI4SE] Diagnostics log unavailable (" + file + "): " + e.getMessage());
+            level = Level.OFF.ordinal();
+            queue.clear();
+        }
+    }
+}
@@ -7,78 +7,89 @@ import com.intellij.openapi.Disposable;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.components.Service;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.openapi.progress.ProgressIndicator;
-import com.intellij.openapi.progress.ProgressManager;
-import com.intellij.openapi.progress.Task;
-import com.intellij.openapi.project.Project;
-import com.intellij.openapi.util.Computable;
 import com.intellij.openapi.util.Key;
-import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
-import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.EditorGazeMapper;
 import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.JsonEyeTrackerMapper;
-import org.jetbrains.annotations.NotNull;
-import org.json.JSONObject;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.StartupTimings;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.TrackerLifecycleEvent;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSource;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport.GazeSocketReader;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport.TrackerTransport;
 
-import javax.swing.*;
+import java.io.BufferedReader;
 import java.io.IOException;
+import java.io.InputStreamReader;
 import java.net.ServerSocket;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
-
+import java.util.concurrent.TimeoutException;
+import java.util.regex.Pattern;
+
+/**
+ * The Docker {@link GazeSource}: builds the bundled tracker image when its content changed,
+ * runs eyetracker.py in a container and follows its output. Application service, so the
+ * image check, warm container and prebuild survive across tracking sessions.
+ */
 @Service
-public final class DockerManager implements Disposable {
+public final class DockerManager implements GazeSource, Disposable {
     private static final Logger LOG = Logger.getInstance(DockerManager.class);
 
     private static final String IMAGE_BASE = "ai4se/eyetracking";
     private static final String CONTAINER_NAME = "ai4se-tracker";
     private static final int CONTAINER_PORT = 5000; // inside the container
-    private EyeTracker eyeTracker;
+    private static final String WARM_CONTAINER_NAME = "ai4se-tracker-warm";
+    private static final long STOP_TIMEOUT_SECONDS = 10;
+    private static final long WARM_STATUS_TIMEOUT_SECONDS = 60; // first SDK import can be slow
     private Process runProcess;
     private OSProcessHandler runHandler;
     private String imageTag;
     private int hostPort = -1; // chosen dynamically at start
-
-    private Project project;   // needed for editor mapping
-
-    // -------------------- Public helpers (EDT-safe) --------------------
-
-    /** Non-blocking start/build; safe to call from actions (EDT). */
-    public void startOrBuildAndStartAsync(Project project) {
-        this.project = project;
-        ProgressManager.getInstance().run(
-                new Task.Backgroundable(project, "AI4SE: Starting Tracker", false) {
-                    @Override
-                    public void run(@NotNull ProgressIndicator indicator) {
-                        indicator.setIndeterminate(true);
-                        try {
-                            startOrBuildAndStart(); // runs off-EDT here
-                        } catch (Exception ex) {
-                            LOG.warn("AI4SE start failed", ex);
-                            System.err.println("[AI4SE] Start failed: " + ex.getMessage());
-                        }
-                    }
-                }
-        );
+    private String containerName = CONTAINER_NAME; // the warm one after a resume
+
+    // Startup work done once per IDE session instead of on every start
+    private final Object prepareLock = new Object(); // image build, warm container; before this monitor
+    private volatile boolean dockerChecked;
+    private String readyImage;             // tag known to exist locally
+    private boolean staleContainer = true; // a container of ours may still exist
+    private String warmConfig;             // image + options of the paused warm container, if any
+    private int warmPort = -1;
+    private volatile boolean disposed;
+    private Boolean dockerAvailable;       // probed once, see isAvailable()
+
+    private TrackerOutputHandler output;   // of the running session
+    private volatile Runnable onEnd;       // cleared by stop(), so only an unexpected exit runs it
+    private GazeSocketReader socketReader; // gaze frames with -Dai4se.transport=TCP
+
+    public static DockerManager getInstance() {
+        return ApplicationManager.getApplication().getService(DockerManager.class);
     }
-    public void attachEyeTracker(EyeTracker eyeTracker) {
-        this.eyeTracker = eyeTracker;
+
+    @Override
+    public String getName() {
+        return "Docker";
     }
 
-    /** Non-blocking stop; safe to call from actions (EDT). */
-    public void stopAsync(Project project) {
-        ProgressManager.getInstance().run(
-                new Task.Backgroundable(project, "AI4SE: Stopping Tracker", false) {
-                    @Override
-                    public void run(@NotNull ProgressIndicator indicator) {
-                        indicator.setIndeterminate(true);
-                        stop(); // runs off-EDT here
-                    }
-                }
-        );
+    /** Whether the Docker CLI works; checked once per IDE session. */
+    @Override
+    public synchronized boolean isAvailable() {
+        if (dockerAvailable == null) {
+            try {
+                ensureDockerInstalled();
+                dockerAvailable = dockerChecked = true;
+            } catch (IOException e) {
+                LOG.info("[AI4SE] Docker not available: " + e.getMessage());
+                dockerAvailable = false;
+            }
+        }
+        return dockerAvailable;
     }
 
+    @Override
     public synchronized boolean isRunning() {
         return runProcess != null && runProcess.isAlive();
     }
@@ -88,84 +99,111 @@ public final class DockerManager implements Disposable {
 
     // -------------------- Core (blocking) logic; call off-EDT --------------------
 
-    public synchronized void startOrBuildAndStart() throws Exception {
-        ensureDockerInstalled();
-
-        // Stage the embedded Docker context from resources
-        Path ctx = ResourceExtractor.stageDockerContext(DockerManager.class);
-
-        // IMPORTANT: include the actual staged file names in the content hash.
-        String contentHash = ResourceExtractor
-                .sha256(ctx, List.of("Dockerfile", "requirements.txt", "eyetracker.py"))
-                .substring(0, 12);
-        imageTag = IMAGE_BASE + ":" + contentHash;
+    /**
+     * Everything before the tracker itself: Docker check, image (built only when the
+     * bundled context changed), stale container cleanup and, with
+     * {@code -Dai4se.docker.warm=true}, a paused warm container. Called in the background
+     * at IDE startup so the first start only has to run the container.
+     *
+     * A build or the warm container's startup can take a minute; they only hold
+     * {@code prepareLock}, so a start waits for them but {@link #isAvailable},
+     * {@link #isRunning} and {@link #stop} don't.
+     */
+    public void prepare() throws Exception {
+        synchronized (prepareLock) {
+            ensureImage();
+            synchronized (this) {
+                if (isRunning()) return;
+                removeStaleContainer();
+            }
+            if (TrackingOptions.warmContainer()) {
+                ensureWarmContainer();
+            }
+        }
+    }
 
-        // Build image if missing
-        if (!imageExists(imageTag)) {
-            LOG.info("[AI4SE] building image " + imageTag);
-            System.out.println("[AI4SE] Building Docker image: " + imageTag);
-            runAndCheckWithLogs(
-                    new ProcessBuilder("docker", "build", "-t", imageTag, ctx.toString()),
-                    "[AI4SE Build] "
-            );
-        } else {
-            LOG.info("[AI4SE] image already present: " + imageTag);
-            System.out.println("[AI4SE] Image already present: " + imageTag);
+    /** Image, then the container (resumed if warm); its output goes to {@code output}. */
+    @Override
+    public void start(TrackerOutputHandler output, Runnable onEnd) throws Exception {
+        StartupTimings timings = new StartupTimings();
+        synchronized (prepareLock) {
+            ensureImage();
+            timings.mark("image");
+            startContainer(output, onEnd, timings);
         }
+    }
 
+    private synchronized void startContainer(TrackerOutputHandler output, Runnable onEnd, StartupTimings timings)
+            throws IOException {
         if (isRunning()) {
             LOG.info("[AI4SE] container already running.");
             System.out.println("[AI4SE] Container already running.");
             return;
         }
 
-        // Best-effort cleanup of any stale container
-        try {
-            new ProcessBuilder("docker", "rm", "-f", CONTAINER_NAME)
-                    .redirectErrorStream(true)
-                    .start()
-                    .waitFor(3, TimeUnit.SECONDS);
-        } catch (Exception ignored) {}
-
-        // Decide how to run Docker based on OS (Linux vs others)
-        String os = System.getProperty("os.name").toLowerCase();
-        List<String> cmd;
-
-        if (os.contains("linux")) {
-            // On Linux: host networking helps Tobii discovery
-            cmd = Arrays.asList(
-                    "docker", "run", "--rm",
-                    "--name", CONTAINER_NAME,
-                    "--network=host",
-                    imageTag
-            );
-            hostPort = CONTAINER_PORT;
-            System.out.println("[AI4SE] Starting tracker with --network=host on Linux");
+        TrackerTransport transport = TrackingOptions.transport();
+        List<String> env = trackerEnv(transport);
+        this.output = output;
+        this.onEnd = onEnd;
+        String commandLine;
+
+        if (resumeWarmContainer(env)) {
+            timings.mark("resume");
+            // the container runs detached; follow its output like an attached run
+            List<String> cmd = Arrays.asList("docker", "logs", "-f", containerName);
+            commandLine = String.join(" ", cmd);
+            runProcess = new ProcessBuilder(cmd).redirectErrorStream(true).start();
+            System.out.println("[AI4SE] Resumed warm container " + containerName + " on port " + hostPort);
         } else {
-            hostPort = findFreePort();
-            cmd = Arrays.asList(
-                    "docker", "run", "--rm",
-                    "--name", CONTAINER_NAME,
-                    "-p", hostPort + ":" + CONTAINER_PORT,
-                    imageTag
-            );
-            System.out.println("[AI4SE] Starting tracker with -p " + hostPort + ":" + CONTAINER_PORT);
+            discardWarmContainer();
+            removeStaleContainer();
+            timings.mark("cleanup");
+
+            List<String> cmd = new ArrayList<>(Arrays.asList("docker", "run", "--rm", "--name", CONTAINER_NAME));
+            hostPort = addNetworkOptions(cmd);
+            cmd.addAll(env);
+            cmd.add(imageTag);
+            containerName = CONTAINER_NAME;
+
+            commandLine = String.join(" ", cmd);
+            ProcessBuilder pb = new ProcessBuilder(cmd);
+            pb.redirectErrorStream(true);
+            TrackerLifecycleEvent start = new TrackerLifecycleEvent();
+            start.begin();
+            runProcess = pb.start();
+            commitLifecycle(start, "start", 0);
+            staleContainer = true;
+            timings.mark("run");
+
+            System.out.println("[AI4SE] Container starting with: " + commandLine);
         }
-
-        String commandLine = String.join(" ", cmd);
-        ProcessBuilder pb = new ProcessBuilder(cmd);
-        pb.redirectErrorStream(true);
-        runProcess = pb.start();
-
-        System.out.println("[AI4SE] Container starting with: " + commandLine);
         System.out.println("[AI4SE] Tracker mapped to http://localhost:" + hostPort);
 
+        output.setFirstSampleListener(() -> {
+            timings.mark("first sample");
+            LOG.info("[AI4SE] Tracker startup: " + timings);
+            System.out.println("[AI4SE] Tracker startup: " + timings);
+        });
+
         // Capture logs and JSON messages safely
-        startWithHandler(runProcess, commandLine, "[AI4SE Docker] ");
+        startWithHandler(runProcess, commandLine);
+
+        if (transport == TrackerTransport.TCP) {
+            socketReader = new GazeSocketReader("127.0.0.1", hostPort, output);
+            socketReader.start();
+        }
     }
 
+    @Override
     public synchronized void stop() {
+        onEnd = null;
+        TrackerLifecycleEvent stopEvent = new TrackerLifecycleEvent();
+        stopEvent.begin();
         stopHandlerIfAny();
+        if (socketReader != null) {
+            socketReader.stop();
+            socketReader = null;
+        }
 
         if (isRunning()) {
             runProcess.destroy();
@@ -174,19 +212,24 @@ public final class DockerManager implements Disposable {
             } catch (InterruptedException ignored) {}
             runProcess = null;
         }
-        try {
-            new ProcessBuilder("docker", "stop", CONTAINER_NAME).start();
-        } catch (IOException ignored) {}
+        if (staleContainer) {
+            // eyetracker.py exits on SIGTERM within a second; --rm removes the container
+            staleContainer = !runQuietly(STOP_TIMEOUT_SECONDS, "docker", "stop", containerName);
+        }
         hostPort = -1;
-        System.out.println("[AI4SE] Tracker stopped.");
-
-        // 👇 NEW: flush XML and cleanup eye tracker
-        if (eyeTracker != null) {
-            try {
-                eyeTracker.stop();
-            } catch (Exception e) {
-                LOG.warn("[AI4SE] Failed to stop EyeTracker", e);
-            }
+        output = null;
+        commitLifecycle(stopEvent, "stop", 0);
+        System.out.println("[AI4SE] Docker tracker stopped.");
+
+        if (!disposed && TrackingOptions.warmContainer()) {
+            // have the next session's container ready; waits for this monitor, so after stop() returns
+            ApplicationManager.getApplication().executeOnPooledThread(() -> {
+                try {
+                    prepare();
+                } catch (Exception e) {
+                    LOG.info("[AI4SE] Could not prepare warm container", e);
+                }
+            });
         }
     }
 
@@ -218,133 +261,24 @@ public final class DockerManager implements Disposable {
         }
     }
 
-    private void startWithHandler(Process process, String commandLine, String prefix) {
+    private void startWithHandler(Process process, String commandLine) {
         stopHandlerIfAny(); // safety
-        runHandler = new OSProcessHandler(process, commandLine);
-
-        runHandler.addProcessListener(new ProcessAdapter() {
-            @Override
-            public void onTextAvailable(ProcessEvent event, Key outputType) {
-                String raw = event.getText();
-                if (raw == null) return;
-                String line = raw.trim();
-
-                // Always echo raw line to console so you SEE something
-                System.out.println("[AI4SE Python RAW] " + line);
-
-                // Detect JSON messages from Python stdout
-                if (line.startsWith("{") && line.endsWith("}")) {
-                    try {
-                        JSONObject obj = new JSONObject(line);
-                        String type = obj.optString("type", "");
-
-                        switch (type) {
-                            case "gaze": {
-                                double leftX  = obj.optDouble("leftX", Double.NaN);
-                                double leftY  = obj.optDouble("leftY", Double.NaN);
-                                double rightX = obj.optDouble("rightX", Double.NaN);
-                                double rightY = obj.optDouble("rightY", Double.NaN);
-
-                                int leftValidity  = obj.optInt("leftValidity", -1);
-                                int rightValidity = obj.optInt("rightValidity", -1);
-
-                                boolean leftValid  =
-                                        leftValidity == 1 && !Double.isNaN(leftX) && !Double.isNaN(leftY);
-                                boolean rightValid =
-                                        rightValidity == 1 && !Double.isNaN(rightX) && !Double.isNaN(rightY);
-
-                                double gx = Double.NaN;
-                                double gy = Double.NaN;
-
-                                if (leftValid && rightValid) {
-                                    gx = (leftX + rightX) / 2.0;
-                                    gy = (leftY + rightY) / 2.0;
-                                } else if (leftValid) {
-                                    gx = leftX;
-                                    gy = leftY;
-                                } else if (rightValid) {
-                                    gx = rightX;
-                                    gy = rightY;
-                                }
-
-                                double ts = obj.optDouble("timestamp", Double.NaN);
-
-                                LOG.info(String.format(
-                                        "[AI4SE] Gaze frame ts=%.0f left=(%.3f, %.3f, v=%d) right=(%.3f, %.3f, v=%d) -> avg=(%.3f, %.3f)",
-                                        ts, leftX, leftY, leftValidity, rightX, rightY, rightValidity, gx, gy
-                                ));
-
-                                double finalGx = gx;
-                                double finalGy = gy;
-                                boolean finalLeftValid = leftValid;
-                                boolean finalRightValid = rightValid;
-
-                                SwingUtilities.invokeLater(() -> {
-                                    if (project == null) {
-                                        return;
-                                    }
-
-                                    if (eyeTracker != null) {
-                                        ApplicationManager.getApplication().runReadAction(
-                                                (Computable<Void>) () -> {
-                                                    eyeTracker.processRawJson(project, obj.toString());
-                                                    return null;
-                                                }
-                                        );
-                                    } else {
-                                        ApplicationManager.getApplication().runReadAction(
-                                                (Computable<Void>) () -> {
-                                                    EditorGazeMapper.mapGazeToEditor(project, finalGx, finalGy);
-                                                    return null;
-                                                }
-                                        );
-                                    }
-                                });
-
-
-                                break;
-                            }
-
-                            case "status": {
-                                String status = obj.optString("status", "unknown");
-                                LOG.info("[AI4SE] Status from Python: " + status + " -> " + obj);
-                                System.out.println("[AI4SE] Status: " + status + " -> " + obj);
-                                break;
-                            }
-
-                            case "error": {
-                                String errorType = obj.optString("errorType", "unknown_error");
-                                String msg = obj.optString("message", "");
-                                LOG.warn("[AI4SE] Error from Python: " + errorType + " -> " + obj);
-                                System.err.println("[AI4SE] Python error: " + errorType + " -> " + msg);
-                                break;
-                            }
-
-                            default: {
-                                LOG.info("[AI4SE] Unknown JSON type: " + type + " -> " + obj);
-                                System.out.println("[AI4SE] Unknown JSON type: " + type + " -> " + obj);
-                                break;
-                            }
-                        }
-                    } catch (Exception e) {
-                        LOG.debug("Failed to parse JSON line: " + line, e);
-                        System.err.println("[AI4SE] Failed to parse JSON: " + line);
-                    }
-                } else {
-                    // Non-JSON output from container
-                    LOG.info(prefix + line);
-                    System.out.println(prefix + line);
-                }
-            }
-
-            @Override
-            public void processTerminated(ProcessEvent event) {
-                LOG.info(prefix + "terminated with exit code " + event.getExitCode());
-                System.out.println(prefix + "terminated with exit code " + event.getExitCode());
-            }
+        runHandler = output.follow(process, commandLine, exitCode -> {
+            TrackerLifecycleEvent exit = new TrackerLifecycleEvent();
+            commitLifecycle(exit, "exit", exitCode);
+            Runnable end = onEnd;
+            onEnd = null;
+            if (end != null) end.run(); // container died or tracker quit on its own
         });
+    }
 
-        runHandler.startNotify();
+    private void commitLifecycle(TrackerLifecycleEvent event, String phase, int exitCode) {
+        if (event.shouldCommit()) {
+            event.phase = phase;
+            event.image = imageTag;
+            event.exitCode = exitCode;
+            event.commit();
+        }
     }
 
     private void stopHandlerIfAny() {
@@ -370,13 +304,201 @@ public final class DockerManager implements Disposable {
         }
     }
 
+    /**
+     * Docker checked once per IDE session; image tag from the bundled context, inspected once
+     * per tag. Under {@code prepareLock}.
+     */
+    private void ensureImage() throws Exception {
+        if (!dockerChecked) {
+            ensureDockerInstalled();
+            dockerChecked = true;
+        }
+        imageTag = IMAGE_BASE + ":" + ResourceExtractor.dockerContextHash(DockerManager.class).substring(0, 12);
+        if (imageTag.equals(readyImage)) return;
+
+        if (!imageExists(imageTag)) {
+            Path ctx = ResourceExtractor.persistentDockerContext(DockerManager.class);
+            LOG.info("[AI4SE] building image " + imageTag);
+            System.out.println("[AI4SE] Building Docker image: " + imageTag);
+            TrackerLifecycleEvent build = new TrackerLifecycleEvent();
+            build.begin();
+            runAndCheckWithLogs(
+                    new ProcessBuilder("docker", "build", "-t", imageTag, ctx.toString()),
+                    "[AI4SE Build] "
+            );
+            commitLifecycle(build, "build", 0);
+        } else {
+            LOG.info("[AI4SE] image already present: " + imageTag);
+            System.out.println("[AI4SE] Image already present: " + imageTag);
+        }
+        readyImage = imageTag;
+    }
+
+    /** Best-effort removal of a container left behind by a crashed IDE or a failed stop. */
+    private void removeStaleContainer() {
+        if (!staleContainer) return;
+        runQuietly(3, "docker", "rm", "-f", CONTAINER_NAME, WARM_CONTAINER_NAME);
+        staleContainer = false;
+    }
+
+    /** {@code -e} options for eyetracker.py; part of the warm container's identity. */
+    private static List<String> trackerEnv(TrackerTransport transport) {
+        List<String> env = new ArrayList<>();
+        TrackingOptions.trackerEnvironment(transport, CONTAINER_PORT)
+                .forEach((key, value) -> env.addAll(Arrays.asList("-e", key + "=" + value)));
+        return env;
+    }
+
+    /** Host networking or a port mapping, depending on the OS; returns the host port. */
+    private static int addNetworkOptions(List<String> cmd) throws IOException {
+        String os = System.getProperty("os.name").toLowerCase();
+        if (os.contains("linux")) {
+            // On Linux: host networking helps Tobii discovery
+            cmd.add("--network=host");
+            return CONTAINER_PORT;
+        }
+        int port = findFreePort();
+        cmd.addAll(Arrays.asList("-p", port + ":" + CONTAINER_PORT));
+        return port;
+    }
+
+    // -------------------- Warm container --------------------
+
+    /**
+     * Start the tracker container detached with {@code AI4SE_WARM=1} and pause it once
+     * eyetracker.py reports {@code "warm"}: the interpreter and the Tobii SDK are loaded,
+     * its SIGUSR1 handler is installed, device discovery waits for SIGUSR1. If the status
+     * doesn't arrive, the container is removed and the next start is a cold one.
+     *
+     * Under {@code prepareLock}, so no session starts meanwhile; the monitor is only held to
+     * read and publish {@link #warmConfig}, and a container that comes up after
+     * {@link #dispose} is removed again.
+     */
+    private void ensureWarmContainer() {
+        List<String> env = trackerEnv(TrackingOptions.transport());
+        String config = imageTag + " " + env;
+        synchronized (this) {
+            if (disposed || config.equals(warmConfig)) return;
+            discardWarmContainer();
+        }
+
+        try {
+            List<String> cmd = new ArrayList<>(Arrays.asList(
+                    "docker", "run", "-d", "--rm", "--name", WARM_CONTAINER_NAME, "-e", "AI4SE_WARM=1"));
+            int port = addNetworkOptions(cmd);
+            cmd.addAll(env);
+            cmd.add(imageTag);
+            boolean ready = runQuietly(30, cmd.toArray(new String[0]))
+                    && awaitStatus(WARM_CONTAINER_NAME, "warm", WARM_STATUS_TIMEOUT_SECONDS)
+                    && runQuietly(10, "docker", "pause", WARM_CONTAINER_NAME);
+            synchronized (this) {
+                if (ready && !disposed) {
+                    warmConfig = config;
+                    warmPort = port;
+                    System.out.println("[AI4SE] Warm tracker container ready: " + WARM_CONTAINER_NAME);
+                    return;
+                }
+            }
+            if (!disposed) {
+                System.out.println("[AI4SE] Warm tracker container did not come up; tracking will start cold");
+            }
+            runQuietly(10, "docker", "rm", "-f", WARM_CONTAINER_NAME);
+        } catch (IOException e) {
+            LOG.info("[AI4SE] Could not start warm container", e);
+        }
+    }
+
+    /** Take over the warm container if it was started with the same image and options. */
+    private boolean resumeWarmContainer(List<String> env) {
+        if (warmConfig == null || !warmConfig.equals(imageTag + " " + env)) return false;
+        warmConfig = null;
+        if (!runQuietly(10, "docker", "unpause", WARM_CONTAINER_NAME)
+                || !runQuietly(10, "docker", "kill", "--signal=USR1", WARM_CONTAINER_NAME)) {
+            runQuietly(10, "docker", "rm", "-f", WARM_CONTAINER_NAME);
+            return false;
+        }
+        containerName = WARM_CONTAINER_NAME;
+        hostPort = warmPort;
+        staleContainer = true;
+        return true;
+    }
+
+    private void discardWarmContainer() {
+        if (warmConfig == null) return;
+        warmConfig = null;
+        runQuietly(10, "docker", "rm", "-f", WARM_CONTAINER_NAME);
+    }
+
+    /**
+     * Follow the container's output until eyetracker.py reports {@code status}; false if it
+     * exits first or nothing arrives within the timeout.
+     */
+    private static boolean awaitStatus(String container, String status, long timeoutSeconds) {
+        Pattern expected = Pattern.compile("\"status\"\\s*:\\s*\"" + Pattern.quote(status) + "\"");
+        Process p;
+        try {
+            p = new ProcessBuilder("docker", "logs", "-f", container).redirectErrorStream(true).start();
+        } catch (IOException e) {
+            return false;
+        }
+
+        CompletableFuture<Boolean> seen = new CompletableFuture<>();
+        Thread reader = new Thread(() -> {
+            try (BufferedReader r = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+                String line;
+                while ((line = r.readLine()) != null) {
+                    if (expected.matcher(line).find()) {
+                        seen.complete(true);
+                        return;
+                    }
+                }
+            } catch (IOException ignored) {
+                // destroyed below after a timeout
+            }
+            seen.complete(false);
+        }, "AI4SE Warm Status");
+        reader.setDaemon(true);
+        reader.start();
+
+        try {
+            return seen.get(timeoutSeconds, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        } finally {
+            p.destroy();
+        }
+    }
+
+    /** Run a docker command, discarding its output; true if it exited with 0 within the timeout. */
+    private static boolean runQuietly(long timeoutSeconds, String... command) {
+        try {
+            Process p = new ProcessBuilder(command)
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!p.waitFor(timeoutSeconds, TimeUnit.SECONDS)) {
+                p.destroy();
+                return false;
+            }
+            return p.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
     private static boolean imageExists(String tag) throws IOException, InterruptedException {
         Process p = new ProcessBuilder("docker", "image", "inspect", tag).start();
         return p.waitFor() == 0;
     }
 
     /** Find an available ephemeral host port. */
-    private static int findFreePort() throws IOException {
+    static int findFreePort() throws IOException {
         try (ServerSocket s = new ServerSocket(0)) {
             s.setReuseAddress(true);
             return s.getLocalPort();
@@ -395,7 +517,9 @@ public final class DockerManager implements Disposable {
     // -------------------- Disposable --------------------
 
     @Override
-    public void dispose() {
+    public synchronized void dispose() {
+        disposed = true;
         try { stop(); } catch (Exception ignored) {}
+        discardWarmContainer();
     }
 }
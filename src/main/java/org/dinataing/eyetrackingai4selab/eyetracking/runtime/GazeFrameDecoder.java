@@ -0,0 +1,413 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+/**
+ * Single-pass decoder for the flat gaze objects printed by eyetracker.py:
+ * <pre>
+ * {"type": "gaze", "timestamp": 1764655830347, "leftX": 0.19, "leftY": 0.13, "leftValidity": 1, ...}
+ * </pre>
+ * The line is scanned once, straight into a reusable {@link GazeSample}: no boxing,
+ * no intermediate maps or strings. Anything that is not a gaze frame (status / error
+ * messages, unexpected shapes) is reported as {@link #OTHER} so the caller can fall back
+ * to a generic JSON parser for those rare lines.
+ *
+ * Numbers are parsed without going through {@link Double#parseDouble}; values with more
+ * than ~15 significant digits may differ from it in the last ulp.
+ *
+ * eyetracker.py can also batch frames into one line, {@code [{...}, {...}]}; iterate
+ * those with {@link #beginBatch} / {@link #nextInBatch}.
+ *
+ * Instances keep a cursor and are not thread-safe; use one per reading thread.
+ */
+public final class GazeFrameDecoder {
+
+    /** The line is not a JSON object (plain log output). */
+    public static final int NOT_JSON = 0;
+    /** A gaze frame was decoded into the sample. */
+    public static final int GAZE = 1;
+    /** A JSON object that is not a gaze frame, or one this decoder does not understand. */
+    public static final int OTHER = 2;
+
+    private static final String[] KEYS = {
+            "type",
+            "timestamp",
+            "leftX", "leftY", "leftValidity", "leftPupil", "leftPupilValidity",
+            "rightX", "rightY", "rightValidity", "rightPupil", "rightPupilValidity",
+    };
+    private static final int TYPE = 0;
+    private static final int TIMESTAMP = 1;
+    private static final int LEFT_X = 2;
+    private static final int LEFT_Y = 3;
+    private static final int LEFT_VALIDITY = 4;
+    private static final int LEFT_PUPIL = 5;
+    private static final int LEFT_PUPIL_VALIDITY = 6;
+    private static final int RIGHT_X = 7;
+    private static final int RIGHT_Y = 8;
+    private static final int RIGHT_VALIDITY = 9;
+    private static final int RIGHT_PUPIL = 10;
+    private static final int RIGHT_PUPIL_VALIDITY = 11;
+
+    private static final double[] POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private String s;
+    private int pos;
+    private int end;
+
+    // batch cursor: [batchPos, batchEnd) is what is left of the array's content
+    private String batch;
+    private int batchPos;
+    private int batchEnd;
+    private int objectStart;
+    private int objectEnd;
+
+    // last number parsed by parseNumber()
+    private double number;
+    private long integer;
+    private boolean integral;
+
+    /**
+     * Decode one stdout line.
+     *
+     * @return {@link #GAZE} if {@code out} now holds the frame (with
+     *         {@link GazeSample#computeGazePoint()} applied), otherwise {@link #NOT_JSON}
+     *         or {@link #OTHER}; {@code out} is unspecified in those cases.
+     */
+    public int decode(String line, GazeSample out) {
+        if (line == null) return NOT_JSON;
+
+        int start = 0;
+        int stop = line.length();
+        while (start < stop && isWhitespace(line.charAt(start))) start++;
+        while (stop > start && isWhitespace(line.charAt(stop - 1))) stop--;
+        if (stop - start < 2 || line.charAt(start) != '{' || line.charAt(stop - 1) != '}') {
+            return NOT_JSON;
+        }
+
+        try {
+            return decodeObject(line, start, stop, out);
+        } finally {
+            s = null;
+        }
+    }
+
+    /**
+     * Decode the object spanning {@code [start, stop)} of {@code text}, which must start
+     * with '{'. Used for frames embedded in a larger line, e.g. a batch array.
+     */
+    public int decodeObject(String text, int start, int stop, GazeSample out) {
+        s = text;
+        pos = start + 1;
+        end = stop;
+        out.reset();
+
+        boolean isGaze = false;
+
+        skipWhitespace();
+        if (peek() == '}') return OTHER;
+
+        while (true) {
+            skipWhitespace();
+            if (peek() != '"') return OTHER;
+            int keyStart = ++pos;
+            if (!skipStringBody()) return OTHER;
+            int keyEnd = pos - 1;
+
+            skipWhitespace();
+            if (peek() != ':') return OTHER;
+            pos++;
+            skipWhitespace();
+
+            int field = matchKey(keyStart, keyEnd);
+            if (field == TYPE) {
+                if (!matchStringValue("gaze")) return OTHER;
+                isGaze = true;
+            } else if (field >= 0) {
+                if (!parseNumber()) return OTHER;
+                assign(out, field);
+            } else {
+                if (!skipValue()) return OTHER;
+            }
+
+            skipWhitespace();
+            char c = peek();
+            pos++;
+            if (c == ',') continue;
+            if (c == '}') break;
+            return OTHER;
+        }
+
+        if (!isGaze) return OTHER;
+        out.computeGazePoint();
+        return GAZE;
+    }
+
+    /**
+     * Start iterating a batch line ({@code [{...}, {...}]}).
+     *
+     * @return false if the line is not a JSON array; use {@link #decode} then
+     */
+    public boolean beginBatch(String line) {
+        batch = null;
+        if (line == null) return false;
+
+        int start = 0;
+        int stop = line.length();
+        while (start < stop && isWhitespace(line.charAt(start))) start++;
+        while (stop > start && isWhitespace(line.charAt(stop - 1))) stop--;
+        if (stop - start < 2 || line.charAt(start) != '[' || line.charAt(stop - 1) != ']') {
+            return false;
+        }
+        batch = line;
+        batchPos = start + 1;
+        batchEnd = stop - 1;
+        return true;
+    }
+
+    /**
+     * Decode the next object of the batch started with {@link #beginBatch}.
+     *
+     * @return {@link #GAZE} with {@code out} filled, {@link #OTHER} for any other object
+     *         (see {@link #batchObject()}), or {@link #NOT_JSON} when the batch is exhausted
+     *         or the rest of it is malformed
+     */
+    public int nextInBatch(GazeSample out) {
+        if (batch == null) return NOT_JSON;
+
+        String text = batch;
+        int p = batchPos;
+        while (p < batchEnd && (isWhitespace(text.charAt(p)) || text.charAt(p) == ',')) p++;
+        if (p >= batchEnd || text.charAt(p) != '{') {
+            batch = null;
+            s = null;
+            return NOT_JSON;
+        }
+
+        objectStart = p;
+        int kind = decodeObject(text, p, batchEnd, out);
+        if (kind != GAZE) {
+            // the object's end is unknown after a failed decode: skip it structurally
+            pos = p;
+            end = batchEnd;
+            if (!skipValue()) {
+                batch = null;
+                s = null;
+                return NOT_JSON;
+            }
+        }
+        objectEnd = pos;
+        batchPos = pos;
+        return kind;
+    }
+
+    /** Text of the object last returned by {@link #nextInBatch}, for the generic parser. */
+    public String batchObject() {
+        return batch == null ? "" : batch.substring(objectStart, objectEnd);
+    }
+
+    /** Position right after the last decoded object; valid after {@link #decodeObject}. */
+    public int position() {
+        return pos;
+    }
+
+    // -------------------- Field handling --------------------
+
+    private void assign(GazeSample out, int field) {
+        switch (field) {
+            case TIMESTAMP -> out.timestamp = integral ? integer : (long) number;
+            case LEFT_X -> out.leftX = number;
+            case LEFT_Y -> out.leftY = number;
+            case LEFT_VALIDITY -> out.leftValidity = asInt(-1);
+            case LEFT_PUPIL -> out.leftPupil = number;
+            case LEFT_PUPIL_VALIDITY -> out.leftPupilValidity = asInt(-1);
+            case RIGHT_X -> out.rightX = number;
+            case RIGHT_Y -> out.rightY = number;
+            case RIGHT_VALIDITY -> out.rightValidity = asInt(-1);
+            case RIGHT_PUPIL -> out.rightPupil = number;
+            case RIGHT_PUPIL_VALIDITY -> out.rightPupilValidity = asInt(-1);
+            default -> { }
+        }
+    }
+
+    private int asInt(int fallback) {
+        if (integral) return (int) integer;
+        return Double.isNaN(number) ? fallback : (int) number;
+    }
+
+    private int matchKey(int from, int to) {
+        int len = to - from;
+        for (int k = 0; k < KEYS.length; k++) {
+            String key = KEYS[k];
+            if (key.length() == len && s.regionMatches(from, key, 0, len)) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    private boolean matchStringValue(String expected) {
+        if (peek() != '"') return false;
+        int valueStart = ++pos;
+        if (!skipStringBody()) return false;
+        int len = pos - 1 - valueStart;
+        return len == expected.length() && s.regionMatches(valueStart, expected, 0, len);
+    }
+
+    // -------------------- Scanning --------------------
+
+    /** Parse a JSON number (or NaN / Infinity / null / true / false as Python emits them). */
+    private boolean parseNumber() {
+        integral = false;
+        char c = peek();
+
+        if (c == 'N') return literal("NaN", Double.NaN);
+        if (c == 'n') return literal("null", Double.NaN);
+        if (c == 'I') return literal("Infinity", Double.POSITIVE_INFINITY);
+        if (c == 't') { integral = literal("true", 1); integer = 1; return integral; }
+        if (c == 'f') { integral = literal("false", 0); integer = 0; return integral; }
+
+        boolean negative = false;
+        if (c == '-') {
+            negative = true;
+            pos++;
+            if (peek() == 'I') return literal("Infinity", Double.NEGATIVE_INFINITY);
+        }
+
+        long mantissa = 0;
+        int digits = 0;
+        int exponent = 0;
+        boolean any = false;
+
+        while (pos < end && isDigit(c = s.charAt(pos))) {
+            any = true;
+            if (digits < 18) {
+                mantissa = mantissa * 10 + (c - '0');
+                if (mantissa != 0) digits++;
+            } else {
+                exponent++;
+            }
+            pos++;
+        }
+        boolean hasFraction = false;
+        if (pos < end && s.charAt(pos) == '.') {
+            hasFraction = true;
+            pos++;
+            while (pos < end && isDigit(c = s.charAt(pos))) {
+                any = true;
+                if (digits < 18) {
+                    mantissa = mantissa * 10 + (c - '0');
+                    if (mantissa != 0) digits++;
+                    exponent--;
+                }
+                pos++;
+            }
+        }
+        if (!any) return false;
+
+        boolean hasExponent = false;
+        if (pos < end && ((c = s.charAt(pos)) == 'e' || c == 'E')) {
+            hasExponent = true;
+            pos++;
+            boolean expNegative = false;
+            if (pos < end && ((c = s.charAt(pos)) == '+' || c == '-')) {
+                expNegative = c == '-';
+                pos++;
+            }
+            int e = 0;
+            boolean expDigits = false;
+            while (pos < end && isDigit(c = s.charAt(pos))) {
+                expDigits = true;
+                if (e < 10_000) e = e * 10 + (c - '0');
+                pos++;
+            }
+            if (!expDigits) return false;
+            exponent += expNegative ? -e : e;
+        }
+
+        double value;
+        if (exponent == 0) {
+            value = mantissa;
+        } else if (exponent > 0 && exponent < POW10.length) {
+            value = mantissa * POW10[exponent];
+        } else if (exponent < 0 && -exponent < POW10.length) {
+            value = mantissa / POW10[-exponent];
+        } else {
+            value = mantissa * Math.pow(10, exponent);
+        }
+        number = negative ? -value : value;
+
+        if (!hasFraction && !hasExponent && exponent == 0) {
+            integral = true;
+            integer = negative ? -mantissa : mantissa;
+        }
+        return true;
+    }
+
+    private boolean literal(String word, double value) {
+        if (!s.regionMatches(pos, word, 0, word.length())) return false;
+        pos += word.length();
+        number = value;
+        return true;
+    }
+
+    /** Skip any JSON value starting at pos. */
+    private boolean skipValue() {
+        char c = peek();
+        if (c == '"') {
+            pos++;
+            return skipStringBody();
+        }
+        if (c == '{' || c == '[') {
+            int depth = 0;
+            while (pos < end) {
+                c = s.charAt(pos++);
+                if (c == '"') {
+                    if (!skipStringBody()) return false;
+                } else if (c == '{' || c == '[') {
+                    depth++;
+                } else if (c == '}' || c == ']') {
+                    if (--depth == 0) return true;
+                }
+            }
+            return false;
+        }
+        // number or literal
+        int from = pos;
+        while (pos < end) {
+            c = s.charAt(pos);
+            if (c == ',' || c == '}' || c == ']' || isWhitespace(c)) break;
+            pos++;
+        }
+        return pos > from;
+    }
+
+    /** pos is just after an opening quote; leaves pos just after the closing quote. */
+    private boolean skipStringBody() {
+        while (pos < end) {
+            char c = s.charAt(pos++);
+            if (c == '\\') {
+                pos++;
+            } else if (c == '"') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void skipWhitespace() {
+        while (pos < end && isWhitespace(s.charAt(pos))) pos++;
+    }
+
+    private char peek() {
+        return pos < end ? s.charAt(pos) : '\0';
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,150 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+/**
+ * One gaze frame from eyetracker.py, held in primitive fields so it can be
+ * decoded into and reused without allocation.
+ *
+ * Filled by {@link GazeFrameDecoder}. Instances are mutable and usually owned by one
+ * stage of the pipeline; use {@link #copyFrom} to hand a frame to another thread.
+ */
+public final class GazeSample {
+
+    /** Milliseconds since epoch, as stamped by eyetracker.py. */
+    public long timestamp;
+
+    // Left eye (normalized display area, 0..1)
+    public double leftX;
+    public double leftY;
+    public int leftValidity;
+    public double leftPupil;
+    public int leftPupilValidity;
+
+    // Right eye
+    public double rightX;
+    public double rightY;
+    public int rightValidity;
+    public double rightPupil;
+    public int rightPupilValidity;
+
+    // Derived by computeGazePoint()
+    public boolean leftValid;
+    public boolean rightValid;
+    public double gx;
+    public double gy;
+
+    // Point used for mapping: gx/gy, or the smoothed point if the pipeline filters
+    public double sx;
+    public double sy;
+
+    // System.nanoTime() when the frame was read from the tracker (0 = unknown / metrics off)
+    public long receivedNanos;
+
+    // Set by the pipeline's FixationDetector; -1 = not classified, 0 = no fixation (saccade / gap)
+    public int fixationId;
+    public double fixationX; // running fixation centroid, NaN outside fixations
+    public double fixationY;
+    // fixationId 0, but still in a run that may yet be confirmed as a fixation (not a saccade)
+    public boolean fixationCandidate;
+
+    public GazeSample() {
+        reset();
+    }
+
+    public void reset() {
+        timestamp = 0;
+        leftX = leftY = rightX = rightY = Double.NaN;
+        leftPupil = rightPupil = Double.NaN;
+        leftValidity = rightValidity = -1;
+        leftPupilValidity = rightPupilValidity = -1;
+        leftValid = rightValid = false;
+        gx = gy = Double.NaN;
+        sx = sy = Double.NaN;
+        receivedNanos = 0;
+        fixationId = -1;
+        fixationX = fixationY = Double.NaN;
+        fixationCandidate = false;
+    }
+
+    /**
+     * Average the valid eyes into {@link #gx}/{@link #gy}.
+     * Tobii validity: 1 = valid, 0 = invalid. Both NaN if neither eye is valid.
+     * This is the point that gets mapped; the {@code gx}/{@code gy} recorded in
+     * eye_tracking.xml stay the plain mean of both eyes (see EyeTracker).
+     */
+    public void computeGazePoint() {
+        leftValid = leftValidity == 1 && !Double.isNaN(leftX) && !Double.isNaN(leftY);
+        rightValid = rightValidity == 1 && !Double.isNaN(rightX) && !Double.isNaN(rightY);
+
+        if (leftValid && rightValid) {
+            gx = (leftX + rightX) / 2.0;
+            gy = (leftY + rightY) / 2.0;
+        } else if (leftValid) {
+            gx = leftX;
+            gy = leftY;
+        } else if (rightValid) {
+            gx = rightX;
+            gy = rightY;
+        } else {
+            gx = Double.NaN;
+            gy = Double.NaN;
+        }
+        sx = gx;
+        sy = gy;
+    }
+
+    public void copyFrom(GazeSample o) {
+        timestamp = o.timestamp;
+        leftX = o.leftX;
+        leftY = o.leftY;
+        leftValidity = o.leftValidity;
+        leftPupil = o.leftPupil;
+        leftPupilValidity = o.leftPupilValidity;
+        rightX = o.rightX;
+        rightY = o.rightY;
+        rightValidity = o.rightValidity;
+        rightPupil = o.rightPupil;
+        rightPupilValidity = o.rightPupilValidity;
+        leftValid = o.leftValid;
+        rightValid = o.rightValid;
+        gx = o.gx;
+        gy = o.gy;
+        sx = o.sx;
+        sy = o.sy;
+        receivedNanos = o.receivedNanos;
+        fixationId = o.fixationId;
+        fixationCandidate = o.fixationCandidate;
+        fixationX = o.fixationX;
+        fixationY = o.fixationY;
+    }
+
+    public GazeSample copy() {
+        GazeSample s = new GazeSample();
+        s.copyFrom(this);
+        return s;
+    }
+
+    /** The raw frame as eyetracker.py prints it ({@code json.dumps} key order and spacing). */
+    public void appendJson(StringBuilder out) {
+        out.append("{\"type\": \"gaze\", \"timestamp\": ").append(timestamp);
+        out.append(", \"leftX\": ").append(leftX);
+        out.append(", \"leftY\": ").append(leftY);
+        out.append(", \"leftValidity\": ").append(leftValidity);
+        out.append(", \"leftPupil\": ").append(leftPupil);
+        out.append(", \"leftPupilValidity\": ").append(leftPupilValidity);
+        out.append(", \"rightX\": ").append(rightX);
+        out.append(", \"rightY\": ").append(rightY);
+        out.append(", \"rightValidity\": ").append(rightValidity);
+        out.append(", \"rightPupil\": ").append(rightPupil);
+        out.append(", \"rightPupilValidity\": ").append(rightPupilValidity);
+        out.append('}');
+    }
+
+    @Override
+    public String toString() {
+        return "GazeSample{ts=" + timestamp +
+                ", L=(" + leftX + ", " + leftY + ", v=" + leftValidity + ")" +
+                ", R=(" + rightX + ", " + rightY + ", v=" + rightValidity + ")" +
+                ", avg=(" + gx + ", " + gy + ")" +
+                (fixationId > 0 ? ", fixation=" + fixationId : "") + "}";
+    }
+}
@@ -0,0 +1,181 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazePipeline;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSource;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSources;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The tracking session: one {@link GazeSource} feeding the shared pipeline
+ * (decode → ring → dispatcher → EDT mapping / recording into the {@link EyeTracker}).
+ * Whichever source runs, everything after its output is the same.
+ */
+@Service
+public final class GazeTrackingService implements Disposable {
+    private static final Logger LOG = Logger.getInstance(GazeTrackingService.class);
+    private static final long FINALIZE_TIMEOUT_SECONDS = 30;
+
+    private volatile GazeSource source;
+    private volatile boolean starting;
+    private EyeTracker eyeTracker;
+    private TrackerOutputHandler output;
+    private GazePipeline pipeline;
+    private volatile CompletableFuture<Void> finalizing; // files of the last stopped session
+
+    public static GazeTrackingService getInstance() {
+        return ApplicationManager.getApplication().getService(GazeTrackingService.class);
+    }
+
+    // -------------------- Public helpers (EDT-safe) --------------------
+
+    /** Non-blocking: picks the source and starts it in the background; safe to call from actions (EDT). */
+    public void startAsync(Project project, EyeTracker eyeTracker) {
+        starting = true;
+        ProgressManager.getInstance().run(
+                new Task.Backgroundable(project, "AI4SE: Starting Tracker", false) {
+                    @Override
+                    public void run(@NotNull ProgressIndicator indicator) {
+                        indicator.setIndeterminate(true);
+                        try {
+                            GazeSource selected = GazeSources.select();
+                            indicator.setText("Starting " + selected.getName() + " gaze source");
+                            start(project, eyeTracker, selected); // runs off-EDT here
+                        } catch (Exception ex) {
+                            LOG.warn("AI4SE start failed", ex);
+                            System.err.println("[AI4SE] Start failed: " + ex.getMessage());
+                            stop();
+                        } finally {
+                            starting = false;
+                        }
+                    }
+                }
+        );
+    }
+
+    /** Non-blocking stop; safe to call from actions (EDT). */
+    public void stopAsync(Project project) {
+        ProgressManager.getInstance().run(
+                new Task.Backgroundable(project, "AI4SE: Stopping Tracker", false) {
+                    @Override
+                    public void run(@NotNull ProgressIndicator indicator) {
+                        indicator.setIndeterminate(true);
+                        stop(); // runs off-EDT here
+                    }
+                }
+        );
+    }
+
+    /** Starting or running; doesn't wait for a start in progress. */
+    public boolean isRunning() {
+        GazeSource s = source;
+        return starting || (s != null && s.isRunning());
+    }
+
+    /** Source of the current session, or null. */
+    public GazeSource getSource() {
+        return source;
+    }
+
+    // -------------------- Core (blocking) logic; call off-EDT --------------------
+
+    public synchronized void start(Project project, EyeTracker eyeTracker, GazeSource source) throws Exception {
+        if (this.source != null) {
+            System.out.println("[AI4SE] Tracker already running.");
+            return;
+        }
+        this.eyeTracker = eyeTracker;
+        if (!source.isAvailable()) {
+            throw new IOException(source.getName() + " gaze source is not available");
+        }
+        eyeTracker.awaitOutputs(); // the previous session in the same directory may still be finishing
+
+        // Source thread -> ring buffer -> dispatcher -> EDT mapping / recording
+        output = new TrackerOutputHandler("[AI4SE " + source.getName() + "] ", source.isLive());
+        pipeline = new GazePipeline(project, eyeTracker, source.overflowPolicy());
+        pipeline.start();
+        output.setPipeline(pipeline);
+        startCaptureIfEnabled();
+
+        this.source = source;
+        System.out.println("[AI4SE] Gaze source: " + source.getName());
+        source.start(output, () -> ApplicationManager.getApplication().executeOnPooledThread(() -> stopIfCurrent(source)));
+    }
+
+    public synchronized void stop() {
+        GazeSource s = source;
+        source = null;
+        if (s != null) {
+            s.stop();
+        }
+        if (output != null) {
+            output.setPipeline(null);
+            output.stopCapture();
+            output = null;
+        }
+        GazePipeline p = pipeline;
+        if (p != null) {
+            pipeline = null;
+            p.stop(); // delivers queued frames before the EyeTracker is flushed
+        }
+        System.out.println("[AI4SE] Tracker stopped.");
+
+        // XML / binary session files are finished in the background
+        EyeTracker e = eyeTracker;
+        eyeTracker = null;
+        if (e != null) {
+            try {
+                finalizing = e.stop();
+            } catch (Exception ex) {
+                LOG.warn("[AI4SE] Failed to stop EyeTracker", ex);
+            }
+        }
+    }
+
+    /** The source ended on its own (end of a recording, tracker exited): end its session. */
+    private synchronized void stopIfCurrent(GazeSource ended) {
+        if (source != ended) return;
+        System.out.println("[AI4SE] " + ended.getName() + " gaze source ended.");
+        stop();
+    }
+
+    private void startCaptureIfEnabled() {
+        if (!TrackingOptions.captureRaw() || eyeTracker == null) return;
+        String dir = eyeTracker.getDataOutputPath();
+        if (dir == null || dir.isEmpty()) return;
+        try {
+            output.startCapture(Path.of(dir, TrackerOutputHandler.CAPTURE_FILE));
+        } catch (IOException e) {
+            LOG.warn("[AI4SE] Failed to start raw capture", e);
+            System.err.println("[AI4SE] Failed to start raw capture: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public void dispose() {
+        try { stop(); } catch (Exception ignored) {}
+
+        // IDE shutdown: don't let the JVM exit with half-written session files
+        CompletableFuture<Void> f = finalizing;
+        if (f != null) {
+            try {
+                f.get(FINALIZE_TIMEOUT_SECONDS, TimeUnit.SECONDS);
+            } catch (Exception ex) {
+                LOG.warn("[AI4SE] Session files not finished on shutdown", ex);
+            }
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.openapi.diagnostic.Logger;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.StartupTimings;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSource;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport.GazeSocketReader;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport.TrackerTransport;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs the bundled eyetracker.py with a local Python that has the Tobii SDK
+ * ({@code pip install tobii_research}) installed: no Docker daemon, no image, no container,
+ * so a session starts in about the time the interpreter needs to import the SDK.
+ * Same output, transports and batching as the Docker tracker.
+ *
+ * The interpreter is {@code -Dai4se.python} (default {@code python3}, {@code python} on
+ * Windows); whether it can import {@code tobii_research} is probed once per IDE session.
+ */
+public final class LocalPythonGazeSource implements GazeSource {
+    private static final Logger LOG = Logger.getInstance(LocalPythonGazeSource.class);
+
+    private static final long PROBE_TIMEOUT_SECONDS = 15;
+    private static final long STOP_TIMEOUT_SECONDS = 5;
+
+    /** Interpreter -> can import tobii_research. */
+    private static final Map<String, Boolean> PROBED = new ConcurrentHashMap<>();
+
+    private final String python;
+
+    private Process process;
+    private OSProcessHandler handler;
+    private GazeSocketReader socketReader;
+    private volatile Runnable onEnd;
+
+    public LocalPythonGazeSource(String python) {
+        this.python = python;
+    }
+
+    @Override
+    public String getName() {
+        return "Local Python";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return PROBED.computeIfAbsent(python, LocalPythonGazeSource::canImportTobii);
+    }
+
+    private static boolean canImportTobii(String python) {
+        try {
+            Process p = new ProcessBuilder(python, "-c", "import tobii_research")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!p.waitFor(PROBE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                p.destroyForcibly();
+                return false;
+            }
+            boolean ok = p.exitValue() == 0;
+            LOG.info("[AI4SE] " + python + (ok ? " has" : " lacks") + " tobii_research");
+            return ok;
+        } catch (IOException e) {
+            LOG.info("[AI4SE] No local Python (" + python + "): " + e.getMessage());
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    @Override
+    public synchronized void start(TrackerOutputHandler output, Runnable onEnd) throws Exception {
+        if (isRunning()) return;
+        StartupTimings timings = new StartupTimings();
+
+        // the staged Docker context holds the same eyetracker.py
+        Path script = ResourceExtractor.persistentDockerContext(LocalPythonGazeSource.class).resolve("eyetracker.py");
+        TrackerTransport transport = TrackingOptions.transport();
+        int port = transport == TrackerTransport.TCP ? DockerManager.findFreePort() : -1;
+
+        List<String> cmd = Arrays.asList(python, "-u", script.toString());
+        ProcessBuilder pb = new ProcessBuilder(cmd).redirectErrorStream(true);
+        pb.environment().putAll(TrackingOptions.trackerEnvironment(transport, port));
+        pb.environment().put("AI4SE_HOST", "127.0.0.1");
+        pb.environment().put("AI4SE_STOP_ON_EOF", "1");
+        String commandLine = String.join(" ", cmd);
+
+        this.onEnd = onEnd;
+        process = pb.start();
+        timings.mark("process");
+        System.out.println("[AI4SE] Local tracker starting with: " + commandLine);
+
+        output.setFirstSampleListener(() -> {
+            timings.mark("first sample");
+            LOG.info("[AI4SE] Tracker startup: " + timings);
+            System.out.println("[AI4SE] Tracker startup: " + timings);
+        });
+        handler = output.follow(process, commandLine, exitCode -> {
+            Runnable end = this.onEnd;
+            this.onEnd = null;
+            if (end != null) end.run(); // tracker quit on its own
+        });
+
+        if (transport == TrackerTransport.TCP) {
+            socketReader = new GazeSocketReader("127.0.0.1", port, output);
+            socketReader.start();
+        }
+    }
+
+    @Override
+    public synchronized void stop() {
+        onEnd = null;
+        if (socketReader != null) {
+            socketReader.stop();
+            socketReader = null;
+        }
+        Process p = process;
+        process = null;
+        if (p == null) return;
+
+        // closing its stdin makes eyetracker.py flush the last batch and exit, on Windows
+        // too; Process.destroy() would kill it there and close our end of the output pipe
+        try {
+            p.getOutputStream().close();
+        } catch (IOException e) {
+            p.toHandle().destroy();
+        }
+        if (!handler.waitFor(TimeUnit.SECONDS.toMillis(STOP_TIMEOUT_SECONDS))) { // output pumped, too
+            p.destroyForcibly();
+        }
+        handler = null;
+        System.out.println("[AI4SE] Local tracker stopped.");
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return process != null && process.isAlive();
+    }
+}
@@ -1,6 +1,7 @@
 package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
 
 import com.intellij.openapi.diagnostic.Logger;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
 import org.json.JSONObject;
 
 public class PythonJsonStreamParser {
@@ -8,6 +9,8 @@ public class PythonJsonStreamParser {
     private static final Logger LOG = Logger.getInstance(PythonJsonStreamParser.class);
 
     private final PythonMessageListener listener;
+    private final GazeFrameDecoder decoder = new GazeFrameDecoder();
+    private final GazeSample sample = new GazeSample();
 
     public PythonJsonStreamParser(PythonMessageListener listener) {
         this.listener = listener;
@@ -18,7 +21,9 @@ public class PythonJsonStreamParser {
      * Feed a single stdout line from the Python process into this method.
      * It will:
      *  - ignore non-JSON lines
-     *  - parse JSON objects
+     *  - decode gaze frames in a single pass into a reused {@link GazeSample},
+     *    including batch lines ({@code [{...}, {...}]})
+     *  - parse other JSON objects generically
      *  - dispatch based on "type": "gaze" | "status" | "error"
      */
     public void handleLine(String rawLine) {
@@ -26,69 +31,64 @@ public class PythonJsonStreamParser {
         String line = rawLine.trim();
         if (line.isEmpty()) return;
 
-        // Only treat lines that look like bare JSON objects
-        if (!line.startsWith("{") || !line.endsWith("}")) {
+        long readNanos = GazeMetrics.now();
+        if (decoder.beginBatch(line)) {
+            // batched frames: [{...}, {...}]
+            long decodeStart = readNanos;
+            int kind;
+            while ((kind = decoder.nextInBatch(sample)) != GazeFrameDecoder.NOT_JSON) {
+                if (kind == GazeFrameDecoder.GAZE) {
+                    GazeMetrics.since(GazeMetrics.Stage.DECODE, decodeStart);
+                    onGaze(readNanos);
+                } else {
+                    handleMessage(decoder.batchObject());
+                }
+                decodeStart = GazeMetrics.now();
+            }
+            return;
+        }
+
+        int kind = decoder.decode(line, sample);
+        if (kind == GazeFrameDecoder.NOT_JSON) {
             LOG.info("[AI4SE Python] " + line);
             return;
         }
 
+        if (kind == GazeFrameDecoder.GAZE) {
+            GazeMetrics.since(GazeMetrics.Stage.DECODE, readNanos);
+            onGaze(readNanos);
+            return;
+        }
+
+        handleMessage(line);
+    }
+
+    private void onGaze(long readNanos) {
+        GazeMetrics.recordTransport(sample.timestamp);
+        GazeMetrics.sampleReceived();
+        sample.receivedNanos = readNanos;
+
+        if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+            Diagnostics.logf(Diagnostics.Level.TRACE,
+                    "[AI4SE] Gaze ts=%d | L=(%.3f, %.3f, v=%d, pupil=%.3f, pv=%d) R=(%.3f, %.3f, v=%d, pupil=%.3f, pv=%d) -> avg=(%.3f, %.3f)",
+                    sample.timestamp,
+                    sample.leftX, sample.leftY, sample.leftValidity, sample.leftPupil, sample.leftPupilValidity,
+                    sample.rightX, sample.rightY, sample.rightValidity, sample.rightPupil, sample.rightPupilValidity,
+                    sample.gx, sample.gy
+            );
+        }
+
+        // Single averaged gaze point + decoded frame
+        listener.onGaze(sample.gx, sample.gy, sample.timestamp, sample);
+    }
+
+    private void handleMessage(String line) {
+        // status / error / anything else: rare, use the generic parser
         try {
             JSONObject obj = new JSONObject(line);
             String type = obj.optString("type", "");
 
             switch (type) {
-                case "gaze": {
-                    // Left eye data
-                    double leftX  = obj.optDouble("leftX", Double.NaN);
-                    double leftY  = obj.optDouble("leftY", Double.NaN);
-                    int leftValidity  = obj.optInt("leftValidity", -1);
-                    double leftPupil  = obj.optDouble("leftPupil", Double.NaN);
-                    int leftPupilValidity = obj.optInt("leftPupilValidity", -1);
-
-                    // Right eye data
-                    double rightX = obj.optDouble("rightX", Double.NaN);
-                    double rightY = obj.optDouble("rightY", Double.NaN);
-                    int rightValidity = obj.optInt("rightValidity", -1);
-                    double rightPupil = obj.optDouble("rightPupil", Double.NaN);
-                    int rightPupilValidity = obj.optInt("rightPupilValidity", -1);
-
-                    double ts = obj.optDouble("timestamp", Double.NaN);
-
-                    // Determine which eyes are valid
-                    // Tobii validity: 1 = valid, 0 = invalid (you can adjust if needed)
-                    boolean leftValid  = leftValidity == 1 && !Double.isNaN(leftX) && !Double.isNaN(leftY);
-                    boolean rightValid = rightValidity == 1 && !Double.isNaN(rightX) && !Double.isNaN(rightY);
-
-                    double x;
-                    double y;
-
-                    if (leftValid && rightValid) {
-                        x = (leftX + rightX) / 2.0;
-                        y = (leftY + rightY) / 2.0;
-                    } else if (leftValid) {
-                        x = leftX;
-                        y = leftY;
-                    } else if (rightValid) {
-                        x = rightX;
-                        y = rightY;
-                    } else {
-                        x = Double.NaN;
-                        y = Double.NaN;
-                    }
-
-                    LOG.info(String.format(
-                            "[AI4SE] Gaze ts=%f | L=(%.3f, %.3f, v=%d, pupil=%.3f, pv=%d) R=(%.3f, %.3f, v=%d, pupil=%.3f, pv=%d) -> avg=(%.3f, %.3f)",
-                            ts,
-                            leftX, leftY, leftValidity, leftPupil, leftPupilValidity,
-                            rightX, rightY, rightValidity, rightPupil, rightPupilValidity,
-                            x, y
-                    ));
-
-                    // Single averaged gaze point + full raw JSON
-                    listener.onGaze(x, y, ts, obj);
-                    break;
-                }
-
                 case "status": {
                     String status = obj.optString("status", "unknown");
                     listener.onStatus(status, obj);
@@ -4,8 +4,11 @@ import org.json.JSONObject;
 
 public interface PythonMessageListener {
 
-    /** Called when a gaze frame is received from Python. */
-    void onGaze(double x, double y, double timestamp, JSONObject rawJson);
+    /**
+     * Called when a gaze frame is received from Python.
+     * {@code sample} is reused for the next frame; copy it if it must outlive the call.
+     */
+    void onGaze(double x, double y, double timestamp, GazeSample sample);
 
     /** Called for non-gaze status messages (device_detected, etc.). */
     void onStatus(String status, JSONObject rawJson);
@@ -1,32 +1,133 @@
 package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
 
+import com.intellij.openapi.application.PathManager;
+
 import java.io.*;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.security.*;
+import java.time.Duration;
 import java.util.List;
+import java.util.stream.Stream;
 
 public final class ResourceExtractor {
     private ResourceExtractor() {}
 
-    public static Path stageDockerContext(Class<?> scope) throws IOException {
-        Path dir = Files.createTempDirectory("ai4se_docker_");
-        copy(scope, "/docker/Dockerfile", dir.resolve("Dockerfile"));
-        copy(scope, "/docker/requirements.txt", dir.resolve("requirements.txt"));
-        copy(scope, "/docker/eyetracker.py", dir.resolve("eyetracker.py"));
-        return dir;
+    /** Files of the embedded Docker context; their bytes define the image tag. */
+    static final List<String> DOCKER_FILES = List.of("Dockerfile", "requirements.txt", "eyetracker.py");
+
+    private static final String TEMP_PREFIX = "ai4se_docker_"; // per-start temp contexts of earlier versions
+
+    // other IDEs (or plugin versions) may share the system dir or tmpdir; only unused entries go
+    private static final Duration STALE_AGE = Duration.ofDays(7);
+
+    private static volatile String contentHash; // of the bundled context; fixed for a plugin build
+
+    /**
+     * SHA-256 (hex) of the bundled Docker context, computed straight from the plugin's
+     * resources once per IDE session. It only changes with a new plugin build, so it
+     * doubles as the version key for the image tag and the staged context.
+     */
+    public static String dockerContextHash(Class<?> scope) throws Exception {
+        String hash = contentHash;
+        if (hash == null) {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            for (String f : DOCKER_FILES) {
+                try (InputStream in = scope.getResourceAsStream("/docker/" + f)) {
+                    if (in == null) throw new FileNotFoundException("Missing resource: /docker/" + f);
+                    md.update(in.readAllBytes());
+                }
+            }
+            contentHash = hash = hex(md.digest());
+        }
+        return hash;
     }
 
-    public static String sha256(Path root, List<String> files) throws Exception {
-        MessageDigest md = MessageDigest.getInstance("SHA-256");
-        for (String f : files) {
-            byte[] bytes = Files.readAllBytes(root.resolve(f));
-            md.update(bytes);
+    /**
+     * Docker context staged under the IDE system dir, keyed by {@link #dockerContextHash}.
+     * Reused as long as the plugin doesn't change; contexts of older builds and the temp
+     * dirs earlier versions staged on every start are removed once unused for a week.
+     */
+    public static Path persistentDockerContext(Class<?> scope) throws Exception {
+        String hash = dockerContextHash(scope);
+        Path root = Paths.get(PathManager.getSystemPath(), "ai4se", "docker");
+        Path dir = root.resolve(hash);
+
+        if (!isStaged(dir)) {
+            Files.createDirectories(root);
+            Path tmp = Files.createTempDirectory(root, hash + ".");
+            for (String f : DOCKER_FILES) {
+                copy(scope, "/docker/" + f, tmp.resolve(f));
+            }
+            try {
+                Files.move(tmp, dir, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                deleteRecursively(tmp); // someone else staged it meanwhile
+                if (!isStaged(dir)) throw e;
+            }
         }
+
+        touch(dir); // in use, see cleanupStale
+        cleanupStale(root, dir);
+        return dir;
+    }
+
+    private static String hex(byte[] digest) {
         StringBuilder sb = new StringBuilder();
-        for (byte b : md.digest()) sb.append(String.format("%02x", b));
+        for (byte b : digest) sb.append(String.format("%02x", b));
         return sb.toString();
     }
 
+    private static boolean isStaged(Path dir) {
+        for (String f : DOCKER_FILES) {
+            if (!Files.isRegularFile(dir.resolve(f))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Best effort: other staged versions and leftover temp contexts not modified for
+     * {@link #STALE_AGE}. Staged contexts are touched whenever they're used, so one that
+     * another IDE still runs, or one being staged right now, is left alone.
+     */
+    private static void cleanupStale(Path root, Path keep) {
+        long cutoff = System.currentTimeMillis() - STALE_AGE.toMillis();
+        try (Stream<Path> dirs = Files.list(root)) {
+            dirs.filter(d -> !d.equals(keep) && isOlderThan(d, cutoff))
+                    .forEach(ResourceExtractor::deleteRecursively);
+        } catch (IOException ignored) {}
+
+        Path tmpRoot = Paths.get(System.getProperty("java.io.tmpdir"));
+        try (Stream<Path> dirs = Files.list(tmpRoot)) {
+            dirs.filter(d -> d.getFileName().toString().startsWith(TEMP_PREFIX) && isOlderThan(d, cutoff))
+                    .forEach(ResourceExtractor::deleteRecursively);
+        } catch (IOException ignored) {}
+    }
+
+    private static boolean isOlderThan(Path path, long cutoffMillis) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis() < cutoffMillis;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void touch(Path dir) {
+        try {
+            Files.setLastModifiedTime(dir, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException ignored) {}
+    }
+
+    private static void deleteRecursively(Path dir) {
+        try (Stream<Path> paths = Files.walk(dir)) {
+            paths.sorted((a, b) -> b.getNameCount() - a.getNameCount()).forEach(p -> {
+                try {
+                    Files.deleteIfExists(p);
+                } catch (IOException ignored) {}
+            });
+        } catch (IOException ignored) {}
+    }
+
     private static void copy(Class<?> scope, String resPath, Path out) throws IOException {
         try (InputStream in = scope.getResourceAsStream(resPath)) {
             if (in == null) throw new FileNotFoundException("Missing resource: " + resPath);
@@ -0,0 +1,258 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import com.intellij.execution.process.OSProcessHandler;
+import com.intellij.execution.process.ProcessAdapter;
+import com.intellij.execution.process.ProcessEvent;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.util.Key;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeSampleReceivedEvent;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazePipeline;
+import org.json.JSONObject;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntConsumer;
+
+/**
+ * Handles the stdout lines of eyetracker.py: gaze frames (single or batched) are decoded
+ * and offered to the {@link GazePipeline}, status / error messages are logged, anything
+ * else is echoed with the given prefix.
+ *
+ * Shared by all gaze sources (Docker, local process, replay, synthetic) so that every
+ * session takes exactly the same path. Optionally copies every JSON line to a
+ * capture file ({@code -Dai4se.capture.raw=true}), which can be replayed later.
+ *
+ * {@link #handleLine} is not thread-safe: one instance per reading thread.
+ */
+public final class TrackerOutputHandler {
+    private static final Logger LOG = Logger.getInstance(TrackerOutputHandler.class);
+
+    /** File name of the raw capture inside the session's data directory. */
+    public static final String CAPTURE_FILE = "raw_gaze.jsonl";
+
+    private final String prefix;
+    private final boolean live;
+    private final GazeFrameDecoder decoder = new GazeFrameDecoder();
+    private final GazeSample scratch = new GazeSample();
+
+    private volatile GazePipeline pipeline;
+    private volatile BufferedWriter capture;
+    private final AtomicReference<Runnable> firstSample = new AtomicReference<>();
+    private final StringBuilder captureLine = new StringBuilder(320);
+
+    public TrackerOutputHandler(String prefix) {
+        this(prefix, true);
+    }
+
+    /**
+     * @param live whether frame timestamps are from the current clock; replayed frames
+     *             keep their recorded timestamps, so their transport latency is not measured
+     */
+    public TrackerOutputHandler(String prefix, boolean live) {
+        this.prefix = prefix;
+        this.live = live;
+    }
+
+    public void setPipeline(GazePipeline pipeline) {
+        this.pipeline = pipeline;
+    }
+
+    /** Run {@code listener} once, on the reader thread, when the next sample arrives. */
+    public void setFirstSampleListener(Runnable listener) {
+        firstSample.set(listener);
+    }
+
+    /**
+     * Pump the output of a tracker process (stdout and stderr merged) into
+     * {@link #handleLine} on the process handler's reader thread.
+     *
+     * @param onExit gets the exit code once the process has terminated
+     */
+    public OSProcessHandler follow(Process process, String commandLine, IntConsumer onExit) {
+        OSProcessHandler handler = new OSProcessHandler(process, commandLine);
+        handler.addProcessListener(new ProcessAdapter() {
+            @Override
+            public void onTextAvailable(ProcessEvent event, Key outputType) {
+                String raw = event.getText();
+                if (raw == null) return;
+                handleLine(raw.trim());
+            }
+
+            @Override
+            public void processTerminated(ProcessEvent event) {
+                LOG.info(prefix + "terminated with exit code " + event.getExitCode());
+                System.out.println(prefix + "terminated with exit code " + event.getExitCode());
+                onExit.accept(event.getExitCode());
+            }
+        });
+        handler.startNotify();
+        return handler;
+    }
+
+    /** Start copying JSON lines to {@code file}; replaces a previous capture. */
+    public synchronized void startCapture(Path file) throws IOException {
+        stopCapture();
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        capture = Files.newBufferedWriter(file, StandardCharsets.UTF_8);
+        System.out.println("[AI4SE] Capturing raw gaze stream to: " + file);
+    }
+
+    public synchronized void stopCapture() {
+        BufferedWriter c = capture;
+        capture = null;
+        if (c != null) {
+            try {
+                c.close();
+            } catch (IOException e) {
+                LOG.warn("[AI4SE] Failed to close raw capture", e);
+            }
+        }
+    }
+
+    /** Handle one (already trimmed) line from the tracker. */
+    public void handleLine(String line) {
+        // raw echo only when tracing: at tracker rates the console can't keep up
+        if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+            Diagnostics.log(Diagnostics.Level.TRACE, "[AI4SE Python RAW] " + line);
+        }
+
+        // Batched frames (AI4SE_BATCH_MS): one line holds a JSON array of frames
+        long readNanos = GazeMetrics.now();
+        if (decoder.beginBatch(line)) {
+            if (capture != null) {
+                capture(line);
+            }
+            handleBatch(readNanos);
+            return;
+        }
+
+        // Gaze frames: single-pass decode, no JSON object tree
+        int kind = decoder.decode(line, scratch);
+        if (kind != GazeFrameDecoder.NOT_JSON && capture != null) {
+            capture(line);
+        }
+
+        if (kind == GazeFrameDecoder.GAZE) {
+            GazeMetrics.since(GazeMetrics.Stage.DECODE, readNanos);
+            deliver(scratch, readNanos);
+        } else if (kind == GazeFrameDecoder.OTHER) {
+            handleMessage(line);
+        } else {
+            // Non-JSON output from container
+            LOG.info(prefix + line);
+            System.out.println(prefix + line);
+        }
+    }
+
+    private void handleBatch(long readNanos) {
+        while (true) {
+            long decodeStart = GazeMetrics.now();
+            int kind = decoder.nextInBatch(scratch);
+            if (kind == GazeFrameDecoder.GAZE) {
+                GazeMetrics.since(GazeMetrics.Stage.DECODE, decodeStart);
+                deliver(scratch, readNanos);
+            } else if (kind == GazeFrameDecoder.OTHER) {
+                handleMessage(decoder.batchObject());
+            } else {
+                return;
+            }
+        }
+    }
+
+    /** Other JSON messages from Python stdout (status / error): generic parser. */
+    private void handleMessage(String json) {
+        try {
+            JSONObject obj = new JSONObject(json);
+            String type = obj.optString("type", "");
+
+            switch (type) {
+                case "status": {
+                    String status = obj.optString("status", "unknown");
+                    LOG.info("[AI4SE] Status from Python: " + status + " -> " + obj);
+                    System.out.println("[AI4SE] Status: " + status + " -> " + obj);
+                    break;
+                }
+
+                case "error": {
+                    String errorType = obj.optString("errorType", "unknown_error");
+                    String msg = obj.optString("message", "");
+                    LOG.warn("[AI4SE] Error from Python: " + errorType + " -> " + obj);
+                    System.err.println("[AI4SE] Python error: " + errorType + " -> " + msg);
+                    break;
+                }
+
+                default: {
+                    LOG.info("[AI4SE] Unknown JSON type: " + type + " -> " + obj);
+                    System.out.println("[AI4SE] Unknown JSON type: " + type + " -> " + obj);
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            LOG.debug("Failed to parse JSON line: " + json, e);
+            System.err.println("[AI4SE] Failed to parse JSON: " + json);
+        }
+    }
+
+    /**
+     * Entry point for transports that deliver decoded frames instead of text lines;
+     * {@code readNanos} is when the frame was read. The capture gets the equivalent line.
+     */
+    public void handleSample(GazeSample s, long readNanos) {
+        if (capture != null) {
+            captureLine.setLength(0);
+            s.appendJson(captureLine);
+            capture(captureLine.toString());
+        }
+        deliver(s, readNanos);
+    }
+
+    private void deliver(GazeSample s, long readNanos) {
+        if (live) {
+            GazeMetrics.recordTransport(s.timestamp);
+        }
+        GazeMetrics.sampleReceived();
+        s.receivedNanos = readNanos;
+        if (firstSample.get() != null) {
+            Runnable listener = firstSample.getAndSet(null);
+            if (listener != null) listener.run();
+        }
+
+        GazeSampleReceivedEvent received = new GazeSampleReceivedEvent();
+        if (received.shouldCommit()) {
+            received.trackerTimestamp = s.timestamp;
+            received.gx = s.gx;
+            received.gy = s.gy;
+            received.validEyes = (s.leftValid ? 1 : 0) + (s.rightValid ? 1 : 0);
+            received.commit();
+        }
+        if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+            Diagnostics.logf(Diagnostics.Level.TRACE,
+                    "[AI4SE] Gaze frame ts=%d left=(%.3f, %.3f, v=%d) right=(%.3f, %.3f, v=%d) -> avg=(%.3f, %.3f)",
+                    s.timestamp, s.leftX, s.leftY, s.leftValidity, s.rightX, s.rightY, s.rightValidity, s.gx, s.gy
+            );
+        }
+
+        // copied into a preallocated ring slot; the dispatcher thread takes it from there
+        GazePipeline p = pipeline;
+        if (p != null) {
+            p.offer(s);
+        }
+    }
+
+    private synchronized void capture(String line) {
+        BufferedWriter c = capture;
+        if (c == null) return;
+        try {
+            c.write(line);
+            c.newLine();
+        } catch (IOException e) {
+            System.err.println("[AI4SE] Raw capture stopped: " + e.getMessage());
+            stopCapture();
+        }
+    }
+}
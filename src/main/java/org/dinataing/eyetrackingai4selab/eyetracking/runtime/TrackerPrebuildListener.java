@@ -0,0 +1,36 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import com.intellij.ide.AppLifecycleListener;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.diagnostic.Logger;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSource;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSources;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+
+/**
+ * Checks Docker and builds the tracker image (if the bundled context changed) in the
+ * background once the IDE has started, so the first "Start Tracking" doesn't pay for it.
+ * Disable with {@code -Dai4se.docker.prebuild=false}.
+ */
+public final class TrackerPrebuildListener implements AppLifecycleListener {
+    private static final Logger LOG = Logger.getInstance(TrackerPrebuildListener.class);
+
+    @Override
+    public void appFrameCreated(@NotNull List<String> commandLineArgs) {
+        if (!TrackingOptions.dockerPrebuild()) return;
+        ApplicationManager.getApplication().executeOnPooledThread(() -> {
+            try {
+                // only if a session would use Docker; also settles the local Python probe early
+                GazeSource source = GazeSources.select();
+                if (source instanceof DockerManager) {
+                    ((DockerManager) source).prepare();
+                }
+            } catch (Exception e) {
+                // no Docker yet is fine here; starting tracking reports it
+                LOG.info("[AI4SE] Tracker prebuild skipped: " + e.getMessage());
+            }
+        });
+    }
+}
@@ -0,0 +1,271 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.FixationDetector;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazeDispatcher;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazeRingBuffer;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazeSmoother;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.KalmanGazeFilter;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.OneEuroFilter;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSourceKind;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.synthetic.ScanpathGenerator;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport.TrackerTransport;
+import org.dinataing.eyetrackingai4selab.utils.StreamingXMLWriter;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tuning knobs for the gaze pipeline, read from JVM system properties
+ * (e.g. {@code -Dai4se.ring.overflow=BLOCK} in the IDE's custom VM options).
+ * Values are read when a tracking session starts.
+ */
+public final class TrackingOptions {
+
+    private TrackingOptions() {}
+
+    /** Slots between the tracker reader thread and the dispatcher. */
+    public static int ringCapacity() {
+        return Integer.getInteger("ai4se.ring.capacity", 1024);
+    }
+
+    /** What to do with gaze frames when the ring is full. */
+    public static GazeRingBuffer.OverflowPolicy overflowPolicy() {
+        return enumProperty("ai4se.ring.overflow", GazeRingBuffer.OverflowPolicy.DROP_OLDEST);
+    }
+
+    /** One EDT task per frame, or one per display refresh with everything that arrived meanwhile. */
+    public static GazeDispatcher.DispatchMode dispatchMode() {
+        return enumProperty("ai4se.dispatch.mode", GazeDispatcher.DispatchMode.COALESCED);
+    }
+
+    /** Coalescing interval for {@link GazeDispatcher.DispatchMode#COALESCED}, ~one 60 Hz frame. */
+    public static long dispatchIntervalMillis() {
+        return Long.getLong("ai4se.dispatch.intervalMs", 16L);
+    }
+
+    /** Smoothing applied to the gaze point before it is mapped to the screen. */
+    public static GazeSmoother.Kind smoothing() {
+        return enumProperty("ai4se.smoothing", GazeSmoother.Kind.ONE_EURO);
+    }
+
+    /** A new smoother for one session, or null for {@link GazeSmoother.Kind#NONE}. */
+    public static GazeSmoother newSmoother() {
+        switch (smoothing()) {
+            case ONE_EURO:
+                return new OneEuroFilter(
+                        doubleProperty("ai4se.smoothing.minCutoff", 1.0),
+                        doubleProperty("ai4se.smoothing.beta", 10.0),
+                        doubleProperty("ai4se.smoothing.dCutoff", 1.0)
+                );
+            case KALMAN:
+                return new KalmanGazeFilter(
+                        doubleProperty("ai4se.smoothing.processNoise", 1.0),
+                        doubleProperty("ai4se.smoothing.measurementNoise", 9e-6)
+                );
+            default:
+                return null;
+        }
+    }
+
+    /** Online fixation classification on the dispatcher thread. */
+    public static FixationDetector.Algorithm fixationAlgorithm() {
+        return enumProperty("ai4se.fixation.algorithm", FixationDetector.Algorithm.IVT);
+    }
+
+    /** Map every sample, or each fixation once. */
+    public static FixationDetector.Mapping fixationMapping() {
+        return enumProperty("ai4se.fixation.mapping", FixationDetector.Mapping.PER_SAMPLE);
+    }
+
+    /** Add each sample's fixation id to the recorded gazes; implied by PER_FIXATION mapping. */
+    public static boolean recordFixations() {
+        return Boolean.getBoolean("ai4se.fixation.record");
+    }
+
+    /** I-VT threshold in normalized display units per second (1.0 = one screen width/height per second). */
+    public static double fixationVelocityThreshold() {
+        return doubleProperty("ai4se.fixation.velocity", 1.0);
+    }
+
+    /** I-DT threshold, (max x - min x) + (max y - min y) in normalized display units. */
+    public static double fixationDispersionThreshold() {
+        return doubleProperty("ai4se.fixation.dispersion", 0.03);
+    }
+
+    public static long fixationMinDurationMillis() {
+        return Long.getLong("ai4se.fixation.minDurationMs", 80L);
+    }
+
+    /** Longest run of invalid samples (blink) a fixation survives. */
+    public static long fixationMaxGapMillis() {
+        return Long.getLong("ai4se.fixation.maxGapMs", 75L);
+    }
+
+    public static FixationDetector newFixationDetector() {
+        return new FixationDetector(
+                fixationAlgorithm(),
+                fixationVelocityThreshold(),
+                fixationDispersionThreshold(),
+                fixationMinDurationMillis(),
+                fixationMaxGapMillis()
+        );
+    }
+
+    /** Copy the tracker's JSON output to {@code raw_gaze.jsonl} in the session directory, for replay. */
+    public static boolean captureRaw() {
+        return Boolean.getBoolean("ai4se.capture.raw");
+    }
+
+    /** Replay speed: 1 = recorded pace, N = N times faster, 0 = as fast as possible. */
+    public static double replaySpeed() {
+        return doubleProperty("ai4se.replay.speed", 1.0);
+    }
+
+    /** Gaze frames as JSON lines on the container's stdout, or binary frames over the mapped port. */
+    public static TrackerTransport transport() {
+        return enumProperty("ai4se.transport", TrackerTransport.STDOUT);
+    }
+
+    /**
+     * Let eyetracker.py collect samples for up to this many ms and write them as one batch
+     * (a JSON array line, or one multi-record TCP frame). 0 = every sample on its own.
+     */
+    public static long trackerBatchMillis() {
+        return Long.getLong("ai4se.tracker.batchMs", 0L);
+    }
+
+    /** A batch is written early once it holds this many samples. */
+    public static int trackerBatchMax() {
+        return Integer.getInteger("ai4se.tracker.batchMax", 32);
+    }
+
+    /**
+     * Environment for eyetracker.py (Docker {@code -e} options or the local process):
+     * gaze over {@code port} instead of stdout, optionally batched by the tracker.
+     */
+    public static Map<String, String> trackerEnvironment(TrackerTransport transport, int port) {
+        Map<String, String> env = new LinkedHashMap<>();
+        if (transport == TrackerTransport.TCP) {
+            env.put("AI4SE_TRANSPORT", "tcp");
+            env.put("AI4SE_PORT", String.valueOf(port));
+        }
+        long batchMillis = trackerBatchMillis();
+        if (batchMillis > 0) {
+            env.put("AI4SE_BATCH_MS", String.valueOf(batchMillis));
+            env.put("AI4SE_BATCH_MAX", String.valueOf(trackerBatchMax()));
+        }
+        return env;
+    }
+
+    /** Gaze source for "Start Tracking"; AUTO takes the cheapest one that is available. */
+    public static GazeSourceKind gazeSource() {
+        return enumProperty("ai4se.source", GazeSourceKind.AUTO);
+    }
+
+    /** Python with {@code tobii_research} for the local source. */
+    public static String pythonExecutable() {
+        String fallback = System.getProperty("os.name").toLowerCase().contains("win") ? "python" : "python3";
+        return System.getProperty("ai4se.python", fallback);
+    }
+
+    /** Recording for the replay source (raw_gaze.jsonl or eye_tracking.xml), or null. */
+    public static Path replayFile() {
+        String value = System.getProperty("ai4se.replay.file");
+        return value == null || value.isBlank() ? null : Paths.get(value.trim());
+    }
+
+    /** Generate gaze in-process instead of running a tracker; same as {@code -Dai4se.source=SYNTHETIC}. */
+    public static boolean syntheticGaze() {
+        return Boolean.getBoolean("ai4se.synthetic");
+    }
+
+    /** Synthetic frame rate in Hz, 60..1200. */
+    public static int syntheticRate() {
+        return Integer.getInteger("ai4se.synthetic.rate", 120);
+    }
+
+    public static ScanpathGenerator.Pattern syntheticPattern() {
+        return enumProperty("ai4se.synthetic.pattern", ScanpathGenerator.Pattern.READING);
+    }
+
+    /** Fixed seed for reproducible synthetic sessions; random by default. */
+    public static long syntheticSeed() {
+        return Long.getLong("ai4se.synthetic.seed", System.nanoTime());
+    }
+
+    /**
+     * How eye_tracking.xml is split while recording: a new segment every
+     * {@code ai4se.session.rolloverMinutes} and / or {@code ai4se.session.rolloverMB}
+     * (0 = never), GZIP-compressed with {@code ai4se.session.gzip}.
+     */
+    public static StreamingXMLWriter.SegmentPolicy sessionSegments() {
+        return new StreamingXMLWriter.SegmentPolicy(
+                TimeUnit.MINUTES.toMillis(Long.getLong("ai4se.session.rolloverMinutes", 0L)),
+                Long.getLong("ai4se.session.rolloverMB", 0L) << 20,
+                Boolean.getBoolean("ai4se.session.gzip")
+        );
+    }
+
+    /** Live dwell-time heatmap (per line and token) in the editors looked at. */
+    public static boolean heatmap() {
+        return Boolean.getBoolean("ai4se.heatmap");
+    }
+
+    /** How often queued heatmap color changes are applied to the editor markup. */
+    public static int heatmapIntervalMillis() {
+        return Integer.getInteger("ai4se.heatmap.intervalMs", 250);
+    }
+
+    /** Highlighters created or recolored per heatmap update at most. */
+    public static int heatmapBatchMax() {
+        return Integer.getInteger("ai4se.heatmap.batch", 64);
+    }
+
+    /** Longest time between two samples that still counts as dwell. */
+    public static long heatmapMaxGapMillis() {
+        return Long.getLong("ai4se.heatmap.maxGapMs", 100L);
+    }
+
+    /** Points of the fading scanpath trail drawn behind the gaze cursor; 0 = no trail. */
+    public static int overlayTrailPoints() {
+        return Math.max(0, Integer.getInteger("ai4se.overlay.trail", 0));
+    }
+
+    /** Check Docker and build the tracker image in the background when the IDE starts. */
+    public static boolean dockerPrebuild() {
+        return !"false".equalsIgnoreCase(System.getProperty("ai4se.docker.prebuild"));
+    }
+
+    /**
+     * Keep a paused tracker container (interpreter and Tobii SDK loaded) between sessions,
+     * so starting tracking only has to resume it.
+     */
+    public static boolean warmContainer() {
+        return Boolean.getBoolean("ai4se.docker.warm");
+    }
+
+    static double doubleProperty(String key, double fallback) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Double.parseDouble(value.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("[AI4SE] Ignoring invalid " + key + "=" + value);
+            return fallback;
+        }
+    }
+
+    static <E extends Enum<E>> E enumProperty(String key, E fallback) {
+        String value = System.getProperty(key);
+        if (value == null || value.isBlank()) return fallback;
+        try {
+            return Enum.valueOf(fallback.getDeclaringClass(), value.trim().toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            System.err.println("[AI4SE] Ignoring unknown " + key + "=" + value);
+            return fallback;
+        }
+    }
+}
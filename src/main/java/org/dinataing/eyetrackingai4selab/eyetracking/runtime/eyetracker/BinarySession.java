@@ -0,0 +1,132 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker;
+
+/**
+ * A binary session loaded by {@link BinarySessionReader}, kept as primitive columns.
+ *
+ * Per-row columns are indexed by row. Location / AST columns only exist for mapped
+ * rows; use {@link #locationIndex} to go from a row to its mapped index. The levels of
+ * mapped index {@code m} are {@code levelOffsets[m] .. levelOffsets[m + 1] - 1}.
+ * String columns hold ids into {@link #dictionary}.
+ */
+public class BinarySession {
+
+    // <setting>
+    public final String projectPath;
+    public final String filePath;
+    public final String ide;
+    public final String tracker;
+
+    public final String[] dictionary;
+
+    // <gaze>
+    public final int rowCount;
+    public final long[] timestamp;
+    public final float[] leftX;
+    public final float[] leftY;
+    public final float[] rightX;
+    public final float[] rightY;
+    public final float[] gx;
+    public final float[] gy;
+    public final byte[] flags;
+    public final int[] fixation; // fixation id, 0 = saccade / gap, -1 = not recorded
+    public final int[] locationIndex;
+
+    // <location>, by mapped index
+    public final int[] screenX;
+    public final int[] screenY;
+    public final int[] editorX;
+    public final int[] editorY;
+    public final int[] localX;
+    public final int[] localY;
+    public final int[] line;
+    public final int[] column;
+    public final int[] offset;
+    public final int[] ch;
+    public final int[] wordId;
+    public final int[] pathId;
+
+    // <ast_structure>, by mapped index
+    public final int[] tokenId;
+    public final int[] typeId;
+    public final int[] levelOffsets;
+
+    // <level>
+    public final int[] levelTagId;
+    public final int[] levelStart;
+    public final int[] levelEnd;
+
+    BinarySession(String projectPath, String filePath, String ide, String tracker,
+                  String[] dictionary,
+                  int rowCount, long[] timestamp,
+                  float[] leftX, float[] leftY, float[] rightX, float[] rightY, float[] gx, float[] gy,
+                  byte[] flags, int[] fixation, int[] locationIndex,
+                  int[][] location,
+                  int[] wordId, int[] pathId, int[] tokenId, int[] typeId, int[] levelOffsets,
+                  int[] levelTagId, int[] levelStart, int[] levelEnd) {
+        this.projectPath = projectPath;
+        this.filePath = filePath;
+        this.ide = ide;
+        this.tracker = tracker;
+        this.dictionary = dictionary;
+        this.rowCount = rowCount;
+        this.timestamp = timestamp;
+        this.leftX = leftX;
+        this.leftY = leftY;
+        this.rightX = rightX;
+        this.rightY = rightY;
+        this.gx = gx;
+        this.gy = gy;
+        this.flags = flags;
+        this.fixation = fixation;
+        this.locationIndex = locationIndex;
+        this.screenX = location[0];
+        this.screenY = location[1];
+        this.editorX = location[2];
+        this.editorY = location[3];
+        this.localX = location[4];
+        this.localY = location[5];
+        this.line = location[6];
+        this.column = location[7];
+        this.offset = location[8];
+        this.ch = location[9];
+        this.wordId = wordId;
+        this.pathId = pathId;
+        this.tokenId = tokenId;
+        this.typeId = typeId;
+        this.levelOffsets = levelOffsets;
+        this.levelTagId = levelTagId;
+        this.levelStart = levelStart;
+        this.levelEnd = levelEnd;
+    }
+
+    /** True if the row has {@code <location>} / {@code <ast_structure>} (no "Fail | Mapping" remark). */
+    public boolean isMapped(int row) {
+        return (flags[row] & BinarySessionFormat.FLAG_MAPPED) != 0;
+    }
+
+    /** True if the row's {@code <ast_structure>} has a PSI token (no "No PSI element" remark). */
+    public boolean hasPsi(int row) {
+        return (flags[row] & BinarySessionFormat.FLAG_PSI) != 0;
+    }
+
+    /** Word under gaze for a row, or null if the row was not mapped. */
+    public String word(int row) {
+        int m = locationIndex[row];
+        return m < 0 ? null : dictionary[wordId[m]];
+    }
+
+    public String path(int row) {
+        int m = locationIndex[row];
+        return m < 0 ? null : dictionary[pathId[m]];
+    }
+
+    public String token(int row) {
+        int m = locationIndex[row];
+        return m < 0 ? null : dictionary[tokenId[m]];
+    }
+
+    public String type(int row) {
+        int m = locationIndex[row];
+        return m < 0 ? null : dictionary[typeId[m]];
+    }
+}
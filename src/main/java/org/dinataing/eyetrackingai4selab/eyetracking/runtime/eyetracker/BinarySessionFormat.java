@@ -0,0 +1,72 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Constants and varint helpers shared by {@link BinarySessionWriter} and {@link BinarySessionReader}.
+ *
+ * File layout (little endian):
+ * <pre>
+ *   header : MAGIC(8) VERSION(int) project_path file_path ide tracker   (varint-length UTF-8 strings)
+ *   block* : BLOCK_MAGIC(int) rows(int) payloadBytes(int) payload
+ *   end    : END_MAGIC(int)
+ * </pre>
+ * A block payload holds the dictionary entries first seen in that block followed by one
+ * column per attribute: timestamps as zigzag varint deltas, gaze coordinates as float32,
+ * a flag byte per row, the fixation ids of the rows that record one (varints, since
+ * version 2), and for mapped rows the location / AST columns as zigzag varints
+ * with words, element types, level tags and paths replaced by dictionary ids.
+ */
+final class BinarySessionFormat {
+
+    static final byte[] MAGIC = {'A', 'I', '4', 'S', 'E', 'G', 'Z', 'E'};
+    static final int VERSION = 2; // 2: fixation column
+
+    static final int BLOCK_MAGIC = 0x4B4C4247; // "GBLK"
+    static final int END_MAGIC = 0x444E4547;   // "GEND"
+
+    /** Rows buffered before a block is encoded and written. */
+    static final int BLOCK_ROWS = 4096;
+
+    static final byte FLAG_MAPPED = 1;  // has <location> and <ast_structure>
+    static final byte FLAG_PSI = 1 << 1; // <ast_structure> has token/type/levels
+    static final byte FLAG_FIXATION = 1 << 2; // has a fixation attribute
+
+    private BinarySessionFormat() {}
+
+    static void putVarLong(ByteBuffer buf, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    static void putVarInt(ByteBuffer buf, int v) {
+        putVarLong(buf, v & 0xFFFFFFFFL);
+    }
+
+    static void putZigZag(ByteBuffer buf, long v) {
+        putVarLong(buf, (v << 1) ^ (v >> 63));
+    }
+
+    static long getVarLong(ByteBuffer buf) {
+        long result = 0;
+        int shift = 0;
+        while (true) {
+            byte b = buf.get();
+            result |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) return result;
+            shift += 7;
+        }
+    }
+
+    static int getVarInt(ByteBuffer buf) {
+        return (int) getVarLong(buf);
+    }
+
+    static long getZigZag(ByteBuffer buf) {
+        long v = getVarLong(buf);
+        return (v >>> 1) ^ -(v & 1);
+    }
+}
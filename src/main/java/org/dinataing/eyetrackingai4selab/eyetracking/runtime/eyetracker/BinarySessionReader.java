@@ -0,0 +1,256 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.BinarySessionFormat.*;
+
+/**
+ * Loads a file written by {@link BinarySessionWriter} into a {@link BinarySession}.
+ * A file that was cut short (e.g. the IDE crashed mid-session) is read up to its last
+ * complete block.
+ */
+public final class BinarySessionReader {
+
+    private BinarySessionReader() {}
+
+    public static BinarySession read(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer buf = ByteBuffer.allocateDirect((int) Math.min(channel.size(), 1 << 20))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            buf.limit(0); // nothing read yet
+
+            // ---- header ----
+            buf = fill(channel, buf, MAGIC.length + 4);
+            byte[] magic = new byte[MAGIC.length];
+            buf.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new IOException("Not an AI4SE binary session: " + file);
+            }
+            int version = buf.getInt();
+            if (version < 1 || version > VERSION) { // version 1 files just have no fixation column
+                throw new IOException("Unsupported binary session version " + version + ": " + file);
+            }
+            String[] header = new String[4];
+            for (int i = 0; i < header.length; i++) {
+                buf = fill(channel, buf, 5);
+                int len = getVarInt(buf);
+                buf = fill(channel, buf, len);
+                header[i] = getString(buf, len);
+            }
+
+            Columns c = new Columns();
+
+            // ---- blocks ----
+            while (true) {
+                try {
+                    buf = fill(channel, buf, 4);
+                } catch (EOFException eof) {
+                    break;
+                }
+                int marker = buf.getInt();
+                if (marker == END_MAGIC) break;
+                if (marker != BLOCK_MAGIC) {
+                    throw new IOException("Corrupt block marker in " + file);
+                }
+                int rows;
+                int payload;
+                try {
+                    buf = fill(channel, buf, 8);
+                    rows = buf.getInt();
+                    payload = buf.getInt();
+                    buf = fill(channel, buf, payload);
+                } catch (EOFException truncated) {
+                    break;
+                }
+                int end = buf.position() + payload;
+                decodeBlock(buf, rows, c);
+                buf.position(end);
+            }
+
+            return c.toSession(header);
+        }
+    }
+
+    private static void decodeBlock(ByteBuffer buf, int rows, Columns c) {
+        int newEntries = getVarInt(buf);
+        for (int i = 0; i < newEntries; i++) {
+            int len = getVarInt(buf);
+            c.dictionary.add(getString(buf, len));
+        }
+
+        int base = c.rows;
+        c.ensureRows(base + rows);
+        for (int r = 0; r < rows; r++) {
+            c.lastTimestamp += getZigZag(buf);
+            c.timestamps[base + r] = c.lastTimestamp;
+        }
+        for (float[] column : c.coords) {
+            for (int r = 0; r < rows; r++) column[base + r] = buf.getFloat();
+        }
+        buf.get(c.flags, base, rows);
+        for (int r = 0; r < rows; r++) {
+            c.fixation[base + r] = (c.flags[base + r] & FLAG_FIXATION) != 0 ? getVarInt(buf) : -1;
+        }
+
+        int mapped = 0;
+        for (int r = 0; r < rows; r++) {
+            if ((c.flags[base + r] & FLAG_MAPPED) != 0) {
+                c.locationIndex[base + r] = c.mapped + mapped++;
+            } else {
+                c.locationIndex[base + r] = -1;
+            }
+        }
+
+        int mBase = c.mapped;
+        c.ensureMapped(mBase + mapped);
+        for (int[] column : c.location) {
+            for (int m = 0; m < mapped; m++) column[mBase + m] = (int) getZigZag(buf);
+        }
+        for (int m = 0; m < mapped; m++) c.wordIds[mBase + m] = getVarInt(buf);
+        for (int m = 0; m < mapped; m++) c.pathIds[mBase + m] = getVarInt(buf);
+        for (int m = 0; m < mapped; m++) c.tokenIds[mBase + m] = getVarInt(buf);
+        for (int m = 0; m < mapped; m++) c.typeIds[mBase + m] = getVarInt(buf);
+
+        int levels = 0;
+        for (int m = 0; m < mapped; m++) {
+            c.levelOffsets[mBase + m] = c.levels + levels;
+            levels += getVarInt(buf);
+        }
+        c.levelOffsets[mBase + mapped] = c.levels + levels;
+
+        int lBase = c.levels;
+        c.ensureLevels(lBase + levels);
+        for (int l = 0; l < levels; l++) c.levelTags[lBase + l] = getVarInt(buf);
+        for (int l = 0; l < levels; l++) c.levelStarts[lBase + l] = (int) getZigZag(buf);
+        for (int l = 0; l < levels; l++) {
+            c.levelEnds[lBase + l] = c.levelStarts[lBase + l] + (int) getZigZag(buf);
+        }
+
+        c.rows += rows;
+        c.mapped += mapped;
+        c.levels += levels;
+    }
+
+    /** Make sure {@code needed} bytes are readable from {@code buf}, refilling from the channel. */
+    private static ByteBuffer fill(FileChannel channel, ByteBuffer buf, int needed) throws IOException {
+        if (buf.remaining() >= needed) return buf;
+
+        if (buf.capacity() < needed) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Integer.highestOneBit(needed) << 1)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(buf);
+            grown.flip();
+            buf = grown;
+        }
+
+        buf.compact();
+        while (buf.position() < needed) {
+            if (channel.read(buf) < 0) {
+                buf.flip();
+                throw new EOFException();
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private static String getString(ByteBuffer buf, int len) {
+        byte[] bytes = new byte[len];
+        buf.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /** Growable primitive columns accumulated across blocks. */
+    private static final class Columns {
+        final List<String> dictionary = new ArrayList<>();
+        long lastTimestamp = 0;
+
+        int rows = 0;
+        long[] timestamps = new long[BLOCK_ROWS];
+        float[][] coords = new float[6][BLOCK_ROWS];
+        byte[] flags = new byte[BLOCK_ROWS];
+        int[] fixation = new int[BLOCK_ROWS];
+        int[] locationIndex = new int[BLOCK_ROWS];
+
+        int mapped = 0;
+        int[][] location = new int[BinarySessionWriter.LOCATION_COLUMNS][BLOCK_ROWS];
+        int[] wordIds = new int[BLOCK_ROWS];
+        int[] pathIds = new int[BLOCK_ROWS];
+        int[] tokenIds = new int[BLOCK_ROWS];
+        int[] typeIds = new int[BLOCK_ROWS];
+        int[] levelOffsets = new int[BLOCK_ROWS + 1];
+
+        int levels = 0;
+        int[] levelTags = new int[BLOCK_ROWS];
+        int[] levelStarts = new int[BLOCK_ROWS];
+        int[] levelEnds = new int[BLOCK_ROWS];
+
+        void ensureRows(int n) {
+            if (n <= timestamps.length) return;
+            int size = Math.max(n, timestamps.length * 2);
+            timestamps = Arrays.copyOf(timestamps, size);
+            for (int i = 0; i < coords.length; i++) coords[i] = Arrays.copyOf(coords[i], size);
+            flags = Arrays.copyOf(flags, size);
+            fixation = Arrays.copyOf(fixation, size);
+            locationIndex = Arrays.copyOf(locationIndex, size);
+        }
+
+        void ensureMapped(int n) {
+            if (n + 1 <= levelOffsets.length) return;
+            int size = Math.max(n, wordIds.length * 2);
+            for (int i = 0; i < location.length; i++) location[i] = Arrays.copyOf(location[i], size);
+            wordIds = Arrays.copyOf(wordIds, size);
+            pathIds = Arrays.copyOf(pathIds, size);
+            tokenIds = Arrays.copyOf(tokenIds, size);
+            typeIds = Arrays.copyOf(typeIds, size);
+            levelOffsets = Arrays.copyOf(levelOffsets, size + 1);
+        }
+
+        void ensureLevels(int n) {
+            if (n <= levelTags.length) return;
+            int size = Math.max(n, levelTags.length * 2);
+            levelTags = Arrays.copyOf(levelTags, size);
+            levelStarts = Arrays.copyOf(levelStarts, size);
+            levelEnds = Arrays.copyOf(levelEnds, size);
+        }
+
+        BinarySession toSession(String[] header) {
+            int[][] loc = new int[location.length][];
+            for (int i = 0; i < location.length; i++) loc[i] = Arrays.copyOf(location[i], mapped);
+            return new BinarySession(
+                    header[0], header[1], header[2], header[3],
+                    dictionary.toArray(new String[0]),
+                    rows,
+                    Arrays.copyOf(timestamps, rows),
+                    Arrays.copyOf(coords[0], rows),
+                    Arrays.copyOf(coords[1], rows),
+                    Arrays.copyOf(coords[2], rows),
+                    Arrays.copyOf(coords[3], rows),
+                    Arrays.copyOf(coords[4], rows),
+                    Arrays.copyOf(coords[5], rows),
+                    Arrays.copyOf(flags, rows),
+                    Arrays.copyOf(fixation, rows),
+                    Arrays.copyOf(locationIndex, rows),
+                    loc,
+                    Arrays.copyOf(wordIds, mapped),
+                    Arrays.copyOf(pathIds, mapped),
+                    Arrays.copyOf(tokenIds, mapped),
+                    Arrays.copyOf(typeIds, mapped),
+                    Arrays.copyOf(levelOffsets, mapped + 1),
+                    Arrays.copyOf(levelTags, levels),
+                    Arrays.copyOf(levelStarts, levels),
+                    Arrays.copyOf(levelEnds, levels)
+            );
+        }
+    }
+}
@@ -0,0 +1,282 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.BinarySessionFormat.*;
+
+/**
+ * Columnar binary counterpart of eye_tracking.xml (see {@link BinarySessionFormat}).
+ *
+ * Rows are buffered in primitive column arrays and encoded one block of
+ * {@value BinarySessionFormat#BLOCK_ROWS} rows at a time into a direct buffer that is
+ * written with a single gathering {@link FileChannel} write.
+ *
+ * Usage per gaze: {@code beginRow} → optional {@code setFixation} → optional {@code setLocation} → optional
+ * {@code setAst} / {@code addLevel}* → {@code endRow}. Not thread-safe.
+ */
+public class BinarySessionWriter implements AutoCloseable {
+
+    static final int LOCATION_COLUMNS = 10; // screen x/y, editor x/y, local x/y, line, column, offset, char
+
+    private final FileChannel channel;
+    private final ByteBuffer blockHeader = ByteBuffer.allocateDirect(12).order(ByteOrder.LITTLE_ENDIAN);
+    private ByteBuffer buf = ByteBuffer.allocateDirect(1 << 20).order(ByteOrder.LITTLE_ENDIAN);
+
+    // dictionary shared by words, paths, tokens, element types and level tags
+    private final Map<String, Integer> dictionary = new HashMap<>();
+    private final List<byte[]> pendingEntries = new ArrayList<>();
+    private int pendingBytes = 0;
+
+    // per-row columns
+    private final long[] timestamps = new long[BLOCK_ROWS];
+    private final float[][] coords = new float[6][BLOCK_ROWS]; // leftX leftY rightX rightY gx gy
+    private final byte[] flags = new byte[BLOCK_ROWS];
+    private final int[] fixationIds = new int[BLOCK_ROWS]; // rows with FLAG_FIXATION only
+
+    // per-mapped-row columns
+    private final int[][] location = new int[LOCATION_COLUMNS][BLOCK_ROWS];
+    private final int[] wordIds = new int[BLOCK_ROWS];
+    private final int[] pathIds = new int[BLOCK_ROWS];
+    private final int[] tokenIds = new int[BLOCK_ROWS];
+    private final int[] typeIds = new int[BLOCK_ROWS];
+    private final int[] levelCounts = new int[BLOCK_ROWS];
+
+    // per-level columns
+    private int[] levelTags = new int[BLOCK_ROWS * 8];
+    private int[] levelStarts = new int[BLOCK_ROWS * 8];
+    private int[] levelLengths = new int[BLOCK_ROWS * 8];
+
+    private int rows = 0;
+    private int fixations = 0;
+    private int mapped = 0;
+    private int levels = 0;
+    private long lastTimestamp = 0;
+    private long rowsWritten = 0;
+
+    public BinarySessionWriter(Path file,
+                               String projectPath,
+                               String filePath,
+                               String ide,
+                               String tracker) throws IOException {
+        channel = FileChannel.open(file,
+                StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.WRITE);
+
+        buf.clear();
+        buf.put(MAGIC);
+        buf.putInt(VERSION);
+        putString(projectPath);
+        putString(filePath);
+        putString(ide);
+        putString(tracker);
+        buf.flip();
+        writeFully(buf);
+    }
+
+    public void beginRow(long timestamp,
+                         double leftX, double leftY,
+                         double rightX, double rightY,
+                         double gx, double gy) {
+        int r = rows;
+        timestamps[r] = timestamp;
+        coords[0][r] = (float) leftX;
+        coords[1][r] = (float) leftY;
+        coords[2][r] = (float) rightX;
+        coords[3][r] = (float) rightY;
+        coords[4][r] = (float) gx;
+        coords[5][r] = (float) gy;
+        flags[r] = 0;
+    }
+
+    /** Fixation id of the row (0 = saccade / gap), as in the {@code fixation} attribute. */
+    public void setFixation(int fixationId) {
+        flags[rows] |= FLAG_FIXATION;
+        fixationIds[fixations++] = fixationId;
+    }
+
+    public void setLocation(int screenX, int screenY,
+                            int editorX, int editorY,
+                            int localX, int localY,
+                            int line, int column, int offset,
+                            char ch, String word, String path) {
+        int m = mapped;
+        flags[rows] |= FLAG_MAPPED;
+        location[0][m] = screenX;
+        location[1][m] = screenY;
+        location[2][m] = editorX;
+        location[3][m] = editorY;
+        location[4][m] = localX;
+        location[5][m] = localY;
+        location[6][m] = line;
+        location[7][m] = column;
+        location[8][m] = offset;
+        location[9][m] = ch;
+        wordIds[m] = id(word);
+        pathIds[m] = id(path);
+        tokenIds[m] = id("");
+        typeIds[m] = id("");
+        levelCounts[m] = 0;
+    }
+
+    /** Token and element type of the PSI leaf; only valid after {@link #setLocation}. */
+    public void setAst(String token, String type) {
+        flags[rows] |= FLAG_PSI;
+        tokenIds[mapped] = id(token);
+        typeIds[mapped] = id(type);
+    }
+
+    /** One {@code <level>} of the AST chain; only valid after {@link #setLocation}. */
+    public void addLevel(String tag, int start, int end) {
+        if (levels == levelTags.length) {
+            int n = levels * 2;
+            levelTags = Arrays.copyOf(levelTags, n);
+            levelStarts = Arrays.copyOf(levelStarts, n);
+            levelLengths = Arrays.copyOf(levelLengths, n);
+        }
+        levelTags[levels] = id(tag);
+        levelStarts[levels] = start;
+        levelLengths[levels] = end - start;
+        levels++;
+        levelCounts[mapped]++;
+    }
+
+    public void endRow() throws IOException {
+        if ((flags[rows] & FLAG_MAPPED) != 0) mapped++;
+        rows++;
+        if (rows == BLOCK_ROWS) {
+            flushBlock();
+        }
+    }
+
+    public long getRowsWritten() {
+        return rowsWritten + rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flushBlock();
+            buf.clear();
+            buf.putInt(END_MAGIC);
+            buf.flip();
+            writeFully(buf);
+        } finally {
+            channel.close();
+        }
+    }
+
+    // -------------------- Encoding --------------------
+
+    private void flushBlock() throws IOException {
+        if (rows == 0) return;
+
+        // worst case: 10 bytes per varint long, 5 per varint int
+        long bound = 5L + pendingEntries.size() * 5L + pendingBytes
+                + rows * (10L + 6 * 4 + 1)
+                + fixations * 5L
+                + mapped * (LOCATION_COLUMNS * 5L + 5 * 5)
+                + levels * 15L;
+        ensureCapacity((int) Math.min(Integer.MAX_VALUE, bound));
+
+        buf.clear();
+
+        // new dictionary entries, in id order
+        putVarInt(buf, pendingEntries.size());
+        for (byte[] entry : pendingEntries) {
+            putVarInt(buf, entry.length);
+            buf.put(entry);
+        }
+        pendingEntries.clear();
+        pendingBytes = 0;
+
+        for (int r = 0; r < rows; r++) {
+            putZigZag(buf, timestamps[r] - lastTimestamp);
+            lastTimestamp = timestamps[r];
+        }
+        for (float[] column : coords) {
+            for (int r = 0; r < rows; r++) buf.putFloat(column[r]);
+        }
+        buf.put(flags, 0, rows);
+        for (int f = 0; f < fixations; f++) putVarInt(buf, fixationIds[f]);
+
+        for (int[] column : location) {
+            for (int m = 0; m < mapped; m++) putZigZag(buf, column[m]);
+        }
+        for (int m = 0; m < mapped; m++) putVarInt(buf, wordIds[m]);
+        for (int m = 0; m < mapped; m++) putVarInt(buf, pathIds[m]);
+        for (int m = 0; m < mapped; m++) putVarInt(buf, tokenIds[m]);
+        for (int m = 0; m < mapped; m++) putVarInt(buf, typeIds[m]);
+        for (int m = 0; m < mapped; m++) putVarInt(buf, levelCounts[m]);
+
+        for (int l = 0; l < levels; l++) putVarInt(buf, levelTags[l]);
+        for (int l = 0; l < levels; l++) putZigZag(buf, levelStarts[l]);
+        for (int l = 0; l < levels; l++) putZigZag(buf, levelLengths[l]);
+
+        buf.flip();
+
+        blockHeader.clear();
+        blockHeader.putInt(BLOCK_MAGIC);
+        blockHeader.putInt(rows);
+        blockHeader.putInt(buf.remaining());
+        blockHeader.flip();
+
+        ByteBuffer[] parts = {blockHeader, buf};
+        while (blockHeader.hasRemaining() || buf.hasRemaining()) {
+            channel.write(parts);
+        }
+
+        rowsWritten += rows;
+        rows = 0;
+        fixations = 0;
+        mapped = 0;
+        levels = 0;
+    }
+
+    private int id(String s) {
+        if (s == null) s = "";
+        Integer existing = dictionary.get(s);
+        if (existing != null) return existing;
+
+        int id = dictionary.size();
+        dictionary.put(s, id);
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        pendingEntries.add(bytes);
+        pendingBytes += bytes.length;
+        return id;
+    }
+
+    private void putString(String s) {
+        byte[] bytes = (s != null ? s : "").getBytes(StandardCharsets.UTF_8);
+        ensureCapacity(buf.position() + 5 + bytes.length);
+        putVarInt(buf, bytes.length);
+        buf.put(bytes);
+    }
+
+    private void ensureCapacity(int bytes) {
+        if (buf.capacity() >= bytes) return;
+        int size = buf.capacity();
+        while (size < bytes) size = size > (Integer.MAX_VALUE >> 1) ? Integer.MAX_VALUE : size << 1;
+        ByteBuffer grown = ByteBuffer.allocateDirect(size).order(ByteOrder.LITTLE_ENDIAN);
+        buf.flip();
+        grown.put(buf);
+        buf = grown;
+    }
+
+    private void writeFully(ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) {
+            channel.write(b);
+        }
+    }
+}
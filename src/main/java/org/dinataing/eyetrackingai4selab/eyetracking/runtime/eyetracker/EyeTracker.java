@@ -1,14 +1,17 @@
 package org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker;
 
-import com.google.gson.JsonObject;
-import com.google.gson.JsonParser;
-import com.intellij.openapi.application.ApplicationManager;
-import com.intellij.openapi.editor.LogicalPosition;
 import com.intellij.openapi.project.Project;
-import com.intellij.psi.PsiElement;
-import com.intellij.psi.PsiFile;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeFrameDecoder;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
 import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.EditorGazeMapper;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.EditorGazeOverlay;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.GazeHeatmap;
 import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.GazeHit;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.PsiAncestorChain;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeSampleMappedEvent;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.FixationDetector;
+import org.dinataing.eyetrackingai4selab.utils.StreamingXMLWriter;
 import org.dinataing.eyetrackingai4selab.utils.XMLWriter;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
@@ -16,15 +19,29 @@ import org.w3c.dom.Element;
 
 import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
 import java.awt.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 
 public class EyeTracker {
 
+    /** Finishes the files of stopped sessions, one short-lived daemon thread per stop. */
+    private static final Executor FINALIZER = task -> {
+        Thread t = new Thread(task, "AI4SE Session Finalizer");
+        t.setDaemon(true);
+        t.start();
+    };
+
+    /** Finalizations still running, by output directory; a new session there waits for them. */
+    private static final Map<String, CompletableFuture<Void>> FINALIZING = new ConcurrentHashMap<>();
+
     private final Document eyeTrackingDoc;
     private final Element root;
     private final Element setting;
@@ -32,8 +49,25 @@ public class EyeTracker {
 
     private boolean isTracking = false;
     private boolean isRealTimeDataTransmitting = false;
+    private boolean isStreamingOutput = false;
+    private boolean isBinaryOutput = false;
+    private boolean isHeatmap = false;
+    private StreamingXMLWriter.SegmentPolicy segmentPolicy = StreamingXMLWriter.SegmentPolicy.NONE;
+    private StreamingXMLWriter streamWriter;
+    private BinarySessionWriter binaryWriter;
+    private GazeHeatmap heatmap;
+    private CompletableFuture<Void> outputsOpened = CompletableFuture.completedFuture(null);
+    private boolean inEditor; // started with a project, so samples move the editor gaze cursor
     private Consumer<Element> gazeHandler;
 
+    private FixationDetector.Mapping fixationMapping = FixationDetector.Mapping.PER_SAMPLE;
+    private boolean isRecordingFixations = false;
+    private int lastFixationId = 0;
+    private GazeHit lastFixationHit;
+
+    private final GazeFrameDecoder decoder = new GazeFrameDecoder();
+    private final GazeSample scratch = new GazeSample();
+
     private String projectPath = "";
     private String filePath = "";
     private String dataOutputPath = "";
@@ -56,6 +90,9 @@ public class EyeTracker {
 
     public void start(Project project, String projectPath, String filePath, String dataOutputPath) {
         this.isTracking = true;
+        this.lastFixationId = 0;
+        this.lastFixationHit = null;
+        GazeMetrics.reset();
         this.projectPath = projectPath;
         this.filePath = filePath;
         this.dataOutputPath = dataOutputPath;
@@ -72,28 +109,190 @@ public class EyeTracker {
             }
         }
 
+        inEditor = project != null;
+        heatmap = isHeatmap && project != null ? GazeHeatmap.getInstance(project) : null;
+        if (heatmap != null) {
+            heatmap.start();
+        }
+
         setting.setAttribute("project_path", projectPath);
         setting.setAttribute("file_path", filePath);
         setting.setAttribute("ide", "IntelliJ");
         setting.setAttribute("tracker", "AI4SE-EyeTracker");
+
+        // the previous session in this directory may still be writing the same file names
+        CompletableFuture<Void> previous = dataOutputPath != null ? FINALIZING.get(dataOutputPath) : null;
+        if (previous == null || previous.isDone()) {
+            openOutputs();
+            outputsOpened = CompletableFuture.completedFuture(null);
+        } else {
+            System.out.println("[AI4SE] Waiting for the previous session's files in " + dataOutputPath);
+            outputsOpened = previous.handle((v, error) -> null).thenRunAsync(this::openOutputs, FINALIZER);
+        }
+    }
+
+    /**
+     * Block until the files of this session are open, which waits for the previous session
+     * in the same directory to finish its own. Call off the EDT, before the first sample.
+     */
+    public void awaitOutputs() {
+        outputsOpened.join();
+    }
+
+    private void openOutputs() {
+        // 🔹 Streaming mode: open eye_tracking.xml now and append <gaze> as they come
+        if (isStreamingOutput && dataOutputPath != null && !dataOutputPath.isEmpty()) {
+            String out = dataOutputPath + "/eye_tracking.xml";
+            try {
+                streamWriter = new StreamingXMLWriter(out, "eye_tracking", setting, "gazes", segmentPolicy);
+                System.out.println("[AI4SE] Streaming eye tracking XML to: " + out);
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.err.println("[AI4SE] Failed to open streaming XML, falling back to in-memory: " + out);
+                streamWriter = null;
+            }
+        }
+
+        // 🔹 Binary mode: columnar eye_tracking.ai4se next to the XML
+        if (isBinaryOutput && dataOutputPath != null && !dataOutputPath.isEmpty()) {
+            Path out = Paths.get(dataOutputPath, "eye_tracking.ai4se");
+            try {
+                binaryWriter = new BinarySessionWriter(out, projectPath, filePath, "IntelliJ", "AI4SE-EyeTracker");
+                System.out.println("[AI4SE] Recording binary session to: " + out);
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.err.println("[AI4SE] Failed to open binary session: " + out);
+                binaryWriter = null;
+            }
+        }
     }
 
-    public void stop() throws TransformerException {
+    /**
+     * End the session. Returns right away: the XML writer finishes on its own thread and
+     * the binary session / in-memory XML are written on a finalizer thread. The future
+     * completes once every file of the session is complete.
+     */
+    public CompletableFuture<Void> stop() {
         this.isTracking = false;
-        if (dataOutputPath != null && !dataOutputPath.isEmpty()) {
+        if (heatmap != null) {
+            heatmap.stop();
+            heatmap = null;
+        }
+        if (inEditor) {
+            EditorGazeOverlay.clear();
+            inEditor = false;
+        }
+
+        // before the next session resets the counters
+        if (GazeMetrics.ENABLED && dataOutputPath != null && !dataOutputPath.isEmpty()) {
             try {
-                Path dir = Paths.get(dataOutputPath);
-                Files.createDirectories(dir);
+                Path out = GazeMetrics.dump(Paths.get(dataOutputPath));
+                System.out.println("[AI4SE] Pipeline latency report written to: " + out);
             } catch (Exception e) {
                 e.printStackTrace();
+                System.err.println("[AI4SE] Failed to write latency report");
             }
+        }
 
-            String out = dataOutputPath + "/eye_tracking.xml";
-            XMLWriter.writeToXML(eyeTrackingDoc, out);
-            System.out.println("[AI4SE] Eye tracking XML written to: " + out);
+        long startNanos = System.nanoTime();
+        String dir = dataOutputPath;
+        CompletableFuture<Void> done = outputsOpened.handle((v, error) -> null).thenCompose(v -> closeOutputs(dir));
+        if (dir != null) {
+            FINALIZING.put(dir, done);
         }
+        done.whenComplete((v, error) -> {
+            if (dir != null) FINALIZING.remove(dir, done);
+            System.out.println("[AI4SE] Session finalized in "
+                    + TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos) + " ms");
+        });
+        return done;
+    }
+
+    private CompletableFuture<Void> closeOutputs(String dir) {
+        StreamingXMLWriter xml = streamWriter;
+        BinarySessionWriter binary = binaryWriter;
+        streamWriter = null;
+        binaryWriter = null;
+
+        CompletableFuture<Void> xmlDone = xml != null
+                ? xml.closeAsync()
+                : CompletableFuture.completedFuture(null);
+        CompletableFuture<Void> restDone = CompletableFuture.runAsync(() -> {
+            if (xml == null && dir != null && !dir.isEmpty()) {
+                try {
+                    Files.createDirectories(Paths.get(dir));
+                } catch (Exception e) {
+                    e.printStackTrace();
+                }
+                String out = dir + "/eye_tracking.xml";
+                XMLWriter.writeToXML(eyeTrackingDoc, out);
+                System.out.println("[AI4SE] Eye tracking XML written to: " + out);
+            }
+            if (binary != null) {
+                try {
+                    binary.close();
+                    System.out.println("[AI4SE] Binary session written: " + binary.getRowsWritten() + " gazes");
+                } catch (Exception e) {
+                    e.printStackTrace();
+                    System.err.println("[AI4SE] Failed to finish binary session");
+                }
+            }
+        }, FINALIZER);
+        return CompletableFuture.allOf(xmlDone, restDone);
+    }
+
+    public String getDataOutputPath() {
+        return dataOutputPath;
+    }
+
+    /**
+     * Write each gaze to disk as soon as it is recorded instead of keeping the
+     * whole session in memory until {@link #stop()}. Must be set before {@link #start}.
+     */
+    public void setStreamingOutput(boolean streaming) {
+        this.isStreamingOutput = streaming;
+    }
+
+    /**
+     * Roll the streamed XML over to new (optionally compressed) segment files by time or
+     * size. Only applies with {@link #setStreamingOutput}; must be set before {@link #start}.
+     */
+    public void setSegmentPolicy(StreamingXMLWriter.SegmentPolicy policy) {
+        this.segmentPolicy = policy != null ? policy : StreamingXMLWriter.SegmentPolicy.NONE;
+    }
+
+    /**
+     * Also record the session as compact columnar {@code eye_tracking.ai4se}
+     * (see {@link BinarySessionReader}). Must be set before {@link #start}.
+     */
+    public void setBinaryOutput(boolean binary) {
+        this.isBinaryOutput = binary;
+    }
+
+    /**
+     * Accumulate dwell time per line and token into the editors' {@link GazeHeatmap}.
+     * Must be set before {@link #start}.
+     */
+    public void setHeatmap(boolean heatmap) {
+        this.isHeatmap = heatmap;
+    }
+
+    /**
+     * With {@link FixationDetector.Mapping#PER_FIXATION}, samples classified by the
+     * pipeline's fixation detector are mapped once per fixation (at its centroid) and
+     * saccade samples are recorded without mapping.
+     */
+    public void setFixationMapping(FixationDetector.Mapping mapping) {
+        this.fixationMapping = mapping;
     }
 
+    /**
+     * Record each sample's fixation id as a {@code fixation} attribute (and binary column).
+     * Always on with {@link FixationDetector.Mapping#PER_FIXATION}; must be set before {@link #start}.
+     */
+    public void setRecordFixations(boolean record) {
+        this.isRecordingFixations = record;
+    }
 
     public void setRealTime(boolean realTime) {
         this.isRealTimeDataTransmitting = realTime;
@@ -115,24 +314,105 @@ public class EyeTracker {
     public void processRawJson(Project project, String jsonLine) {
         if (!isTracking) return;
 
-        JsonObject obj = JsonParser.parseString(jsonLine).getAsJsonObject();
-        if (!"gaze".equals(obj.get("type").getAsString())) {
+        if (decoder.decode(jsonLine, scratch) != GazeFrameDecoder.GAZE) {
             return;
         }
+        processSample(project, scratch);
+    }
+
+    /**
+     * Process one already decoded gaze frame. The sample is only read during
+     * the call and may be reused by the caller afterwards.
+     */
+    public void processSample(Project project, GazeSample sample) {
+        processSample(project, sample, true);
+    }
+
+    /**
+     * @param updateHighlight whether the editor gaze highlight should follow this frame;
+     *                        false for all but the newest frame of a coalesced batch
+     */
+    public void processSample(Project project, GazeSample sample, boolean updateHighlight) {
+        if (!isTracking) return;
+
+        GazeSampleMappedEvent event = new GazeSampleMappedEvent();
+        event.begin();
+
+        GazeHit hit = mapAndRecord(project, sample, updateHighlight);
+        if (heatmap != null) {
+            heatmap.accumulate(hit, sample.timestamp);
+        }
+        GazeMetrics.since(GazeMetrics.Stage.END_TO_END, sample.receivedNanos);
+
+        if (event.shouldCommit()) {
+            event.trackerTimestamp = sample.timestamp;
+            event.fixationId = sample.fixationId;
+            event.mapped = hit != null;
+            if (hit != null) {
+                event.offset = hit.offset;
+                event.line = hit.logicalPosition.line;
+                event.elementType = hit.psiChain != null ? hit.psiChain.type : null;
+            }
+            event.commit();
+        }
+    }
+
+    /** @return the hit the recorded element was built from, or null if unmapped */
+    private GazeHit mapAndRecord(Project project, GazeSample sample, boolean updateHighlight) {
+        Element gaze = newGazeElement(sample);
+
+        // --- map to editor ---
+        GazeHit hit;
+        if (fixationMapping == FixationDetector.Mapping.PER_FIXATION && sample.fixationId >= 0
+                && !sample.fixationCandidate) {
+            if (sample.fixationId == 0) {
+                gaze.setAttribute("remark", "Saccade");
+                record(gaze);
+                return null;
+            }
+            if (sample.fixationId != lastFixationId) {
+                // new fixation: map its centroid once, always moving the highlight
+                lastFixationId = sample.fixationId;
+                lastFixationHit = EditorGazeMapper.mapGazeToEditor(project, sample.fixationX, sample.fixationY, true);
+            }
+            hit = lastFixationHit;
+        } else {
+            // also samples that may still turn out to open a fixation, until it is confirmed.
+            // Smoothed point if the pipeline filters; the raw gx/gy are what gets recorded
+            hit = EditorGazeMapper.mapGazeToEditor(project, sample.sx, sample.sy, updateHighlight);
+        }
+        if (hit == null) {
+            GazeMetrics.mappingFailed();
+            gaze.setAttribute("remark", "Fail | Mapping");
+            record(gaze);
+            return null;
+        }
+
+        GazeMetrics.sampleMapped();
+        recordMapped(gaze, hit);
+        return hit;
+    }
 
-        long timestamp = obj.get("timestamp").getAsLong();
-        double leftX = obj.get("leftX").getAsDouble();
-        double leftY = obj.get("leftY").getAsDouble();
-        double rightX = obj.get("rightX").getAsDouble();
-        double rightY = obj.get("rightY").getAsDouble();
+    /** Record {@code sample} as mapped to {@code hit} without touching the editor (benchmarks). */
+    void recordHit(GazeSample sample, GazeHit hit) {
+        recordMapped(newGazeElement(sample), hit);
+    }
+
+    /** Raw {@code <gaze>} element for {@code sample}; also starts its binary row. */
+    private Element newGazeElement(GazeSample sample) {
+        long timestamp = sample.timestamp;
+        double leftX = sample.leftX;
+        double leftY = sample.leftY;
+        double rightX = sample.rightX;
+        double rightY = sample.rightY;
 
-        // avg gaze
+        // recorded gx/gy keep their original meaning: the plain mean of both eyes (NaN if
+        // either is missing). Mapping uses the validity-aware point, sample.gx/gy.
         double gx = (leftX + rightX) / 2.0;
         double gy = (leftY + rightY) / 2.0;
 
-        // --- XML: raw gaze node ---
+        // --- XML: raw gaze node (detached when streaming, see record()) ---
         Element gaze = eyeTrackingDoc.createElement("gaze");
-        gazes.appendChild(gaze);
 
         gaze.setAttribute("timestamp", String.valueOf(timestamp));
         gaze.setAttribute("leftX", String.valueOf(leftX));
@@ -141,15 +421,21 @@ public class EyeTracker {
         gaze.setAttribute("rightY", String.valueOf(rightY));
         gaze.setAttribute("gx", String.valueOf(gx));
         gaze.setAttribute("gy", String.valueOf(gy));
+        boolean fixation = sample.fixationId >= 0
+                && (isRecordingFixations || fixationMapping == FixationDetector.Mapping.PER_FIXATION);
+        if (fixation) {
+            gaze.setAttribute("fixation", String.valueOf(sample.fixationId));
+        }
 
-        // --- map to editor ---
-        GazeHit hit = EditorGazeMapper.mapGazeToEditor(project, gx, gy);
-        if (hit == null) {
-            gaze.setAttribute("remark", "Fail | Mapping");
-            handleElement(gaze);
-            return;
+        if (binaryWriter != null) {
+            binaryWriter.beginRow(timestamp, leftX, leftY, rightX, rightY, gx, gy);
+            if (fixation) binaryWriter.setFixation(sample.fixationId);
         }
 
+        return gaze;
+    }
+
+    private void recordMapped(Element gaze, GazeHit hit) {
         // --- location sub-element ---
         Element location = eyeTrackingDoc.createElement("location");
         location.setAttribute("screen_x", String.valueOf(hit.screenPoint.x));
@@ -163,7 +449,17 @@ public class EyeTracker {
         location.setAttribute("offset", String.valueOf(hit.offset));
         location.setAttribute("char", String.valueOf(hit.ch));
         location.setAttribute("word", hit.word != null ? hit.word : "");
-        location.setAttribute("path", relativizePath(filePath, projectPath));
+        location.setAttribute("path", relativizePath(hit.filePath != null ? hit.filePath : filePath, projectPath));
+
+        if (binaryWriter != null) {
+            binaryWriter.setLocation(
+                    hit.screenPoint.x, hit.screenPoint.y,
+                    hit.editorTopLeft.x, hit.editorTopLeft.y,
+                    hit.localPoint.x, hit.localPoint.y,
+                    hit.logicalPosition.line, hit.logicalPosition.column, hit.offset,
+                    hit.ch, hit.word, location.getAttribute("path")
+            );
+        }
 
         gaze.appendChild(location);
 
@@ -171,7 +467,30 @@ public class EyeTracker {
         Element ast = buildAstStructure(hit);
         gaze.appendChild(ast);
 
-        handleElement(gaze);
+        record(gaze);
+    }
+
+    private void record(Element gaze) {
+        long start = GazeMetrics.now();
+        if (binaryWriter != null) {
+            try {
+                binaryWriter.endRow();
+            } catch (Exception e) {
+                e.printStackTrace();
+                System.err.println("[AI4SE] Binary session write failed; disabling binary output");
+                try { binaryWriter.close(); } catch (Exception ignored) {}
+                binaryWriter = null;
+            }
+        }
+        if (streamWriter != null) {
+            // real-time handler first: once queued, the writer thread owns the element
+            handleElement(gaze);
+            streamWriter.write(gaze);
+        } else {
+            gazes.appendChild(gaze);
+            handleElement(gaze);
+        }
+        GazeMetrics.since(GazeMetrics.Stage.RECORD, start);
     }
 
     private void handleElement(Element element) {
@@ -186,56 +505,31 @@ public class EyeTracker {
     private Element buildAstStructure(GazeHit hit) {
         Element ast = eyeTrackingDoc.createElement("ast_structure");
 
-        PsiElement psi = hit.psiElement;
-        if (psi == null) {
+        PsiAncestorChain chain = hit.psiChain;
+        if (chain == null) {
             ast.setAttribute("token", "");
             ast.setAttribute("type", "");
             ast.setAttribute("remark", "No PSI element");
             return ast;
         }
 
-        String token = psi.getText();
-        String type = psi.getNode().getElementType().toString();
-        ast.setAttribute("token", token);
-        ast.setAttribute("type", type);
+        ast.setAttribute("token", chain.token);
+        ast.setAttribute("type", chain.type);
+        if (binaryWriter != null) {
+            binaryWriter.setAst(chain.token, chain.type);
+        }
 
-        PsiElement parent = psi;
-        int level = 0;
-        while (parent != null) {
-            if (parent instanceof PsiFile) break;
+        for (int i = 0; i < chain.size(); i++) {
+            PsiAncestorChain.Level level = chain.level(i);
 
             Element levelElem = eyeTrackingDoc.createElement("level");
-            levelElem.setAttribute("tag", String.valueOf(parent));
-
-            int startOffset = parent.getTextRange().getStartOffset();
-            int endOffset = parent.getTextRange().getEndOffset();
-
-            LogicalPosition startPos = hit.logicalPosition; // default
-            LogicalPosition endPos = hit.logicalPosition;   // default
-
-            try {
-                // runReadAction because we touch PSI
-                startPos = ApplicationManager.getApplication().runReadAction(
-                        (com.intellij.openapi.util.Computable<LogicalPosition>) () ->
-                                hit.psiElement.getContainingFile()
-                                        .getViewProvider().getDocument() != null
-                                        ? hit.psiElement.getContainingFile().getViewProvider()
-                                        .getDocument()
-                                        .getLineNumber(startOffset) >= 0
-                                        ? hit.logicalPosition
-                                        : hit.logicalPosition
-                                        : hit.logicalPosition
-                );
-            } catch (Exception ignored) {
-                // To keep it simple; you can improve this with real offset->LogicalPosition mapping
-            }
-
-            levelElem.setAttribute("start", startOffset + "");
-            levelElem.setAttribute("end", endOffset + "");
+            levelElem.setAttribute("tag", level.tag);
+            levelElem.setAttribute("start", level.start + "");
+            levelElem.setAttribute("end", level.end + "");
             ast.appendChild(levelElem);
-
-            parent = parent.getParent();
-            level++;
+            if (binaryWriter != null) {
+                binaryWriter.addLevel(level.tag, level.start, level.end);
+            }
         }
 
         return ast;
@@ -0,0 +1,197 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.awt.*;
+import java.awt.geom.AffineTransform;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Precomputed normalized-gaze → screen transforms, one per monitor.
+ *
+ * Querying {@link GraphicsEnvironment} per sample is expensive, so the monitor layout is
+ * probed once, turned into immutable {@link DisplayTransform}s and only rebuilt when a
+ * background check notices the display configuration changed (or calibration / monitor
+ * selection changes). The hot path reads one volatile field and does arithmetic.
+ */
+public final class DisplayTopology {
+
+    /** Immutable transform for one monitor. */
+    public static final class DisplayTransform {
+        public final int index;
+
+        // monitor bounds in (user-space) screen coordinates, as used by Swing
+        public final int x;
+        public final int y;
+        public final int width;
+        public final int height;
+
+        // HiDPI scale (device pixels per user-space pixel)
+        public final double scaleX;
+        public final double scaleY;
+
+        // calibration offsets, user-space pixels
+        public final double offsetX;
+        public final double offsetY;
+
+        public DisplayTransform(int index, Rectangle bounds,
+                                double scaleX, double scaleY,
+                                double offsetX, double offsetY) {
+            this.index = index;
+            this.x = bounds.x;
+            this.y = bounds.y;
+            this.width = bounds.width;
+            this.height = bounds.height;
+            this.scaleX = scaleX;
+            this.scaleY = scaleY;
+            this.offsetX = offsetX;
+            this.offsetY = offsetY;
+        }
+
+        public int toScreenX(double gx) {
+            return (int) Math.round(x + gx * width + offsetX);
+        }
+
+        public int toScreenY(double gy) {
+            return (int) Math.round(y + gy * height + offsetY);
+        }
+
+        DisplayTransform withOffsets(double dx, double dy) {
+            return new DisplayTransform(index, new Rectangle(x, y, width, height), scaleX, scaleY, dx, dy);
+        }
+    }
+
+    private static final long CHECK_INTERVAL_SECONDS = 2;
+
+    private static volatile DisplayTransform[] transforms;
+    private static volatile DisplayTransform active;
+    private static DisplayTransform[] lastProbed; // what AWT reported, even while an installed layout is used
+
+    private static volatile int monitorIndex = Integer.getInteger("ai4se.display.index", 0);
+    private static volatile double calibrationOffsetX = 80.0;
+    private static volatile double calibrationOffsetY = 80.0;
+
+    private static final AtomicBoolean watching = new AtomicBoolean(false);
+
+    private DisplayTopology() {}
+
+    /** Transform of the monitor the tracker is calibrated on, or null if it does not exist. */
+    public static DisplayTransform getActive() {
+        if (transforms == null) {
+            refresh();
+            startWatching();
+        }
+        return active;
+    }
+
+    public static DisplayTransform[] getAll() {
+        getActive();
+        DisplayTransform[] all = transforms;
+        return all != null ? all.clone() : new DisplayTransform[0];
+    }
+
+    public static synchronized void setMonitorIndex(int index) {
+        monitorIndex = index;
+        select();
+    }
+
+    public static synchronized void setCalibrationOffsets(double dx, double dy) {
+        calibrationOffsetX = dx;
+        calibrationOffsetY = dy;
+        DisplayTransform[] current = transforms;
+        if (current != null) {
+            DisplayTransform[] updated = new DisplayTransform[current.length];
+            for (int i = 0; i < current.length; i++) {
+                updated[i] = current[i].withOffsets(dx, dy);
+            }
+            transforms = updated;
+            select();
+        }
+    }
+
+    /**
+     * Use a fixed layout instead of probing AWT, e.g. headless replay or benchmarks.
+     * Stays in effect until the next detected configuration change or {@link #refresh}.
+     */
+    public static synchronized void install(Rectangle... monitorBounds) {
+        DisplayTransform[] installed = new DisplayTransform[monitorBounds.length];
+        for (int i = 0; i < monitorBounds.length; i++) {
+            installed[i] = new DisplayTransform(i, monitorBounds[i], 1.0, 1.0, calibrationOffsetX, calibrationOffsetY);
+        }
+        transforms = installed;
+        select();
+    }
+
+    /** Re-probe the monitor layout now. */
+    public static synchronized void refresh() {
+        DisplayTransform[] probed = probe();
+        if (probed != null) lastProbed = probed;
+        if (probed != null && !sameLayout(probed, transforms)) {
+            transforms = probed;
+            select();
+        } else if (transforms == null) {
+            transforms = new DisplayTransform[0];
+            select();
+        }
+    }
+
+    /**
+     * Background check: adopt the probed layout only if it differs from the previous probe,
+     * so an {@link #install}ed layout isn't replaced while the real one stays the same.
+     */
+    private static synchronized void checkForChanges() {
+        DisplayTransform[] probed = probe();
+        if (probed == null || sameLayout(probed, lastProbed)) return;
+        lastProbed = probed;
+        transforms = probed;
+        select();
+    }
+
+    private static void select() {
+        DisplayTransform[] all = transforms;
+        int i = monitorIndex;
+        active = all != null && i >= 0 && i < all.length ? all[i] : null;
+    }
+
+    private static DisplayTransform[] probe() {
+        if (GraphicsEnvironment.isHeadless()) {
+            return null;
+        }
+        GraphicsDevice[] devices = GraphicsEnvironment.getLocalGraphicsEnvironment().getScreenDevices();
+        DisplayTransform[] result = new DisplayTransform[devices.length];
+        for (int i = 0; i < devices.length; i++) {
+            GraphicsConfiguration config = devices[i].getDefaultConfiguration();
+            AffineTransform scale = config.getDefaultTransform();
+            result[i] = new DisplayTransform(
+                    i,
+                    config.getBounds(),
+                    scale.getScaleX(), scale.getScaleY(),
+                    calibrationOffsetX, calibrationOffsetY
+            );
+        }
+        return result;
+    }
+
+    private static boolean sameLayout(DisplayTransform[] a, DisplayTransform[] b) {
+        if (b == null || a.length != b.length) return false;
+        for (int i = 0; i < a.length; i++) {
+            DisplayTransform p = a[i];
+            DisplayTransform q = b[i];
+            if (p.x != q.x || p.y != q.y || p.width != q.width || p.height != q.height ||
+                    p.scaleX != q.scaleX || p.scaleY != q.scaleY) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /** AWT has no public display-change event; check cheaply off the hot path instead. */
+    private static void startWatching() {
+        if (GraphicsEnvironment.isHeadless() || !watching.compareAndSet(false, true)) return;
+        AppExecutorUtil.getAppScheduledExecutorService().scheduleWithFixedDelay(
+                DisplayTopology::checkForChanges,
+                CHECK_INTERVAL_SECONDS, CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS
+        );
+    }
+}
@@ -3,93 +3,102 @@ package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
 import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.LogicalPosition;
-import com.intellij.openapi.editor.markup.*;
-import com.intellij.openapi.fileEditor.FileEditorManager;
 import com.intellij.openapi.project.Project;
 import com.intellij.psi.PsiDocumentManager;
 import com.intellij.psi.PsiElement;
 import com.intellij.psi.PsiFile;
 import com.intellij.openapi.util.Computable;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMappingFailedEvent;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
 
-import javax.swing.*;
 import java.awt.*;
 
 public class EditorGazeMapper {
 
-    private static RangeHighlighter currentHighlighter;
-
     /**
      * Map averaged normalized gaze (0..1 on calibrated display)
-     * to a character in the currently selected editor.
+     * to a character in the visible editor under the gaze (any pane, window or project).
      *
      * @return GazeHit if successful, null otherwise.
      */
     public static GazeHit mapGazeToEditor(Project project,
                                           double gx,
                                           double gy) {
+        return mapGazeToEditor(project, gx, gy, true);
+    }
+
+    /**
+     * Same as {@link #mapGazeToEditor(Project, double, double)}, optionally leaving
+     * the highlight where it is (used for all but the newest frame of a batch).
+     */
+    public static GazeHit mapGazeToEditor(Project project,
+                                          double gx,
+                                          double gy,
+                                          boolean updateHighlight) {
         if (project == null) return null;
-        if (Double.isNaN(gx) || Double.isNaN(gy)) return null;
+        if (Double.isNaN(gx) || Double.isNaN(gy)) return failed("no valid eye", gx, gy);
 
         // 🔒 Everything that touches editor / PSI is now in a read action
         return ApplicationManager.getApplication().runReadAction(
                 (Computable<GazeHit>) () -> {
 
-                    Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
-                    if (editor == null) {
-                        System.out.println("[AI4SE] No active editor; ignoring gaze.");
-                        return null;
-                    }
-
-                    JComponent content = editor.getContentComponent();
+                    long stageStart = GazeMetrics.now();
 
-                    // 1) normalized → screen coords
-                    Point screenPoint = GazeMapper.gazeToScreenPoint(gx, gy);
-                    if (screenPoint == null) {
-                        System.out.println("[AI4SE] Gaze is off-screen or monitor index wrong.");
-                        return null;
+                    // 1) normalized → screen coords (precomputed per-monitor transform)
+                    DisplayTopology.DisplayTransform display = DisplayTopology.getActive();
+                    if (display == null) {
+                        Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Gaze is off-screen or monitor index wrong.");
+                        return failed("no display", gx, gy);
                     }
-
-                    // 2) editor origin on screen
-                    Point editorScreenPoint;
-                    try {
-                        editorScreenPoint = content.getLocationOnScreen();
-                    } catch (IllegalComponentStateException e) {
-                        System.out.println("[AI4SE] Editor not visible on screen.");
-                        return null;
+                    int screenX = display.toScreenX(gx);
+                    int screenY = display.toScreenY(gy);
+
+                    // 2) the showing editor under the gaze, cached geometry refreshed only by editor/UI events
+                    EditorGeometryCache.Geometry geo = VisibleEditorIndex.getInstance().editorAt(screenX, screenY);
+                    if (geo == null) {
+                        Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Gaze out of text editor visible area.");
+                        return failed("outside visible area", gx, gy);
+                    }
+                    Editor editor = geo.editor;
+                    Project editorProject = editor.getProject() != null ? editor.getProject() : project;
+                    EditorGeometryCache geometryCache = EditorGeometryCache.getInstance(editorProject);
+
+                    int localX = screenX - geo.originX;
+                    int localY = screenY - geo.originY;
+
+                    if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+                        Diagnostics.logf(Diagnostics.Level.TRACE,
+                                "[AI4SE][MAP] avg=(%.3f, %.3f) | screen=(%d,%d) | editorTL=(%d,%d) | local=(%d,%d) | visibleArea=(%d,%d,%d,%d) | editorSize=(%d,%d)",
+                                gx, gy,
+                                screenX, screenY,
+                                geo.originX, geo.originY,
+                                localX, localY,
+                                geo.visibleX, geo.visibleY, geo.visibleWidth, geo.visibleHeight,
+                                geo.contentWidth, geo.contentHeight
+                        );
                     }
-
-                    int localX = screenPoint.x - editorScreenPoint.x;
-                    int localY = screenPoint.y - editorScreenPoint.y;
-                    Point localPoint = new Point(localX, localY);
-
-                    Rectangle visibleArea = editor.getScrollingModel().getVisibleArea();
-
-                    System.out.printf(
-                            "[AI4SE][MAP] avg=(%.3f, %.3f) | screen=(%d,%d) | editorTL=(%d,%d) | local=(%d,%d) | visibleArea=(%d,%d,%d,%d) | editorSize=(%d,%d)%n",
-                            gx, gy,
-                            screenPoint.x, screenPoint.y,
-                            editorScreenPoint.x, editorScreenPoint.y,
-                            localX, localY,
-                            visibleArea.x, visibleArea.y, visibleArea.width, visibleArea.height,
-                            content.getWidth(), content.getHeight()
-                    );
 
                     // 3) ensure we are inside the editor AND visible text area
-                    if (localX < visibleArea.x || localY < visibleArea.y ||
-                            localX > visibleArea.x + visibleArea.width ||
-                            localY > visibleArea.y + visibleArea.height) {
-                        System.out.println("[AI4SE] Gaze out of text editor visible area.");
-                        return null;
+                    if (!geo.isVisible(localX, localY)) {
+                        Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Gaze out of text editor visible area.");
+                        return failed("outside visible area", gx, gy);
                     }
+                    Point localPoint = new Point(localX, localY);
+                    GazeMetrics.since(GazeMetrics.Stage.SCREEN_MAPPING, stageStart);
+                    stageStart = GazeMetrics.now();
 
-                    // 4) local -> logical position
-                    LogicalPosition logicalPos = editor.xyToLogicalPosition(localPoint);
-                    int offset = editor.logicalPositionToOffset(logicalPos);
+                    // 4) local -> logical position (memoized per character cell)
+                    ViewportCellCache cells = geometryCache.getCells(editor);
+                    int offset = cells.resolve(editor, localX, localY, geo.lineHeight, geo.charWidth);
+                    LogicalPosition logicalPos = cells.getLastPosition();
                     CharSequence chars = editor.getDocument().getCharsSequence();
 
                     if (offset < 0 || offset >= chars.length()) {
-                        System.out.println("[AI4SE] Offset out of document range: " + offset);
-                        return null;
+                        if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+                            Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Offset out of document range: " + offset);
+                        }
+                        return failed("offset out of range", gx, gy);
                     }
 
                     char ch = chars.charAt(offset);
@@ -104,79 +113,81 @@ public class EditorGazeMapper {
                         end++;
                     }
                     String word = chars.subSequence(start, end).toString();
+                    GazeMetrics.since(GazeMetrics.Stage.OFFSET_RESOLUTION, stageStart);
 
-                    System.out.println(
-                            "[AI4SE][GAZE] char='" + ch + "' word=\"" + word + "\" offset=" + offset +
-                                    " (line " + logicalPos.line + ", col " + logicalPos.column + ")"
-                    );
+                    if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+                        Diagnostics.log(Diagnostics.Level.DEBUG,
+                                "[AI4SE][GAZE] char='" + ch + "' word=\"" + word + "\" offset=" + offset +
+                                        " (line " + logicalPos.line + ", col " + logicalPos.column + ")"
+                        );
+                    }
 
                     // 5) PSI lookup
-                    PsiFile psiFile = PsiDocumentManager.getInstance(project).getPsiFile(editor.getDocument());
+                    stageStart = GazeMetrics.now();
+                    PsiFile psiFile = PsiDocumentManager.getInstance(editorProject).getPsiFile(editor.getDocument());
                     PsiElement psiElement = null;
+                    PsiAncestorChain psiChain = null;
                     if (psiFile != null) {
                         psiElement = psiFile.findElementAt(offset);
                         if (psiElement != null) {
-                            String token = psiElement.getText();
-                            String type = psiElement.getNode().getElementType().toString();
-                            System.out.println("[AI4SE][PSI] token=\"" + token + "\" type=" + type);
+                            // cached per leaf until the file changes
+                            psiChain = PsiAncestorCache.getInstance(editorProject).get(psiFile, psiElement, editor);
+                            if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+                                Diagnostics.log(Diagnostics.Level.DEBUG,
+                                        "[AI4SE][PSI] token=\"" + psiChain.token + "\" type=" + psiChain.type);
+                            }
 
                             // Upward AST like your logs
-                            PsiElement parent = psiElement;
-                            int level = 0;
-                            while (parent != null) {
-                                if (parent instanceof PsiFile) break;
-                                LogicalPosition startPos =
-                                        editor.offsetToLogicalPosition(parent.getTextRange().getStartOffset());
-                                LogicalPosition endPos =
-                                        editor.offsetToLogicalPosition(parent.getTextRange().getEndOffset());
-
-                                System.out.printf(
-                                        "[AI4SE][PSI-LEVEL %d] %s | start=%d:%d end=%d:%d%n",
-                                        level,
-                                        parent,
-                                        startPos.line, startPos.column,
-                                        endPos.line, endPos.column
-                                );
-
-                                parent = parent.getParent();
-                                level++;
+                            if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+                                for (int level = 0; level < psiChain.size(); level++) {
+                                    PsiAncestorChain.Level l = psiChain.level(level);
+                                    Diagnostics.logf(Diagnostics.Level.TRACE,
+                                            "[AI4SE][PSI-LEVEL %d] %s | start=%d:%d end=%d:%d",
+                                            level,
+                                            l.tag,
+                                            l.startLine, l.startColumn,
+                                            l.endLine, l.endColumn
+                                    );
+                                }
                             }
                         }
                     }
 
-                    // 6) highlight
-                    highlightChar(editor, offset);
+                    GazeMetrics.since(GazeMetrics.Stage.PSI_LOOKUP, stageStart);
+
+                    // 6) gaze cursor (overlay, no markup changes)
+                    if (updateHighlight) {
+                        EditorGazeOverlay.showCursor(editor, offset, localX, localY, geo.charWidth, geo.lineHeight);
+                    }
 
                     // 7) return hit object
                     return new GazeHit(
                             gx,
                             gy,
-                            screenPoint,
-                            editorScreenPoint,
+                            new Point(screenX, screenY),
+                            new Point(geo.originX, geo.originY),
                             localPoint,
+                            editor,
+                            geo.filePath,
                             offset,
                             logicalPos,
                             ch,
                             word,
-                            psiElement
+                            psiElement,
+                            psiChain
                     );
                 }
         );
     }
 
-    private static void highlightChar(Editor editor, int offset) {
-        if (currentHighlighter != null) {
-            currentHighlighter.dispose();
-            currentHighlighter = null;
+    private static GazeHit failed(String reason, double gx, double gy) {
+        GazeMappingFailedEvent event = new GazeMappingFailedEvent();
+        if (event.shouldCommit()) {
+            event.reason = reason;
+            event.gx = gx;
+            event.gy = gy;
+            event.commit();
         }
-
-        MarkupModel markupModel = editor.getMarkupModel();
-        currentHighlighter = markupModel.addRangeHighlighter(
-                offset,
-                offset + 1,
-                HighlighterLayer.SELECTION - 1,
-                new TextAttributes(null, null, Color.RED, EffectType.BOXED, Font.BOLD),
-                HighlighterTargetArea.EXACT_RANGE
-        );
+        return null;
     }
 }
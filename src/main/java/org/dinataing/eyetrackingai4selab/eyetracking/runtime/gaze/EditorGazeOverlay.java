@@ -1,55 +1,299 @@
 package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
 
+import com.intellij.openapi.application.ApplicationManager;
 import com.intellij.openapi.editor.Editor;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.WeakHashMap;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.util.concurrent.TimeUnit;
 
+/**
+ * The gaze cursor: a box around the character looked at, optionally a fading scanpath
+ * trail ({@code -Dai4se.overlay.trail=<points>}) and the per-eye dots, painted by one
+ * transparent panel on top of the editor content.
+ *
+ * Nothing here touches the editor's markup model. Each update only invalidates the
+ * bounds of what moved (old and new cursor, eyes). The trail fades in a few coarse
+ * steps by age, so a new point invalidates its segment, the point dropped at the other
+ * end and the handful of points entering the next step. The invalidated rects
+ * are painted at most once per display refresh, so the editor text underneath is
+ * repainted in a few small patches instead of over its whole area on every sample.
+ * Only the editor looked at last shows the cursor. EDT only.
+ */
 public class EditorGazeOverlay {
 
-    private static class EyePoint {
-        double x, y;
-        boolean valid;
-    }
+    private static final String PANEL_KEY = "AI4SE.GazeOverlay";
+
+    private static final Color CURSOR_COLOR = Color.RED;
+    private static final Color LEFT_EYE_COLOR = new Color(0, 122, 255);
+    private static final Color RIGHT_EYE_COLOR = new Color(255, 50, 50);
+    private static final Color[] TRAIL_COLORS = new Color[256]; // by alpha, created on first use
+
+    private static final int EYE_RADIUS = 8;
+    private static final int TRAIL_RADIUS = 3;
+    private static final int TRAIL_FADE_STEPS = 4;
+    private static final int MAX_DIRTY = 8;
 
-    private static final WeakHashMap<Editor, OverlayPanel> overlays = new WeakHashMap<>();
+    private static OverlayPanel active;
 
+    /**
+     * Move the gaze cursor to the character at {@code offset}; {@code localX/Y} (content
+     * coordinates) is the gaze point itself, appended to the trail.
+     */
+    public static void showCursor(Editor editor, int offset, int localX, int localY, int charWidth, int lineHeight) {
+        OverlayPanel panel = panelFor(editor);
+        activate(panel);
+
+        Point xy = editor.offsetToXY(offset);
+        int width = charWidth;
+        if (offset + 1 <= editor.getDocument().getTextLength()) {
+            Point next = editor.offsetToXY(offset + 1);
+            if (next.y == xy.y && next.x > xy.x) width = next.x - xy.x;
+        }
+        panel.moveCursor(xy.x, xy.y, width, lineHeight);
+        panel.addTrailPoint(localX, localY);
+    }
+
+    /** Per-eye dots, content coordinates. */
     public static void updateOverlay(Editor editor,
                                      double leftLocalX, double leftLocalY, boolean leftValid,
                                      double rightLocalX, double rightLocalY, boolean rightValid) {
+        OverlayPanel panel = panelFor(editor);
+        activate(panel);
+        panel.moveEyes(leftLocalX, leftLocalY, leftValid, rightLocalX, rightLocalY, rightValid);
+    }
 
-        OverlayPanel panel = overlays.computeIfAbsent(editor, e -> {
-            OverlayPanel p = new OverlayPanel();
-            JComponent content = editor.getContentComponent();
-            content.setLayout(null);
-            content.add(p);
-            p.setBounds(0, 0, content.getWidth(), content.getHeight());
-
-            content.addComponentListener(new java.awt.event.ComponentAdapter() {
-                @Override
-                public void componentResized(java.awt.event.ComponentEvent evt) {
-                    p.setBounds(0, 0, content.getWidth(), content.getHeight());
-                }
-            });
+    /** Remove the cursor, trail and eyes (e.g. when tracking stops). Any thread. */
+    public static void clear() {
+        ApplicationManager.getApplication().invokeLater(() -> activate(null));
+    }
 
-            return p;
-        });
+    private static void activate(OverlayPanel panel) {
+        if (active != panel && active != null) {
+            active.clearAll();
+        }
+        active = panel;
+    }
 
-        panel.leftEye.x = leftLocalX;
-        panel.leftEye.y = leftLocalY;
-        panel.leftEye.valid = leftValid;
+    private static Color trailColor(int alpha) {
+        Color c = TRAIL_COLORS[alpha];
+        if (c == null) {
+            c = TRAIL_COLORS[alpha] = new Color(255, 140, 0, alpha);
+        }
+        return c;
+    }
 
-        panel.rightEye.x = rightLocalX;
-        panel.rightEye.y = rightLocalY;
-        panel.rightEye.valid = rightValid;
+    private static OverlayPanel panelFor(Editor editor) {
+        JComponent content = editor.getContentComponent();
+        Object existing = content.getClientProperty(PANEL_KEY);
+        if (existing instanceof OverlayPanel) {
+            return (OverlayPanel) existing;
+        }
 
-        panel.repaint();
+        OverlayPanel p = new OverlayPanel(TrackingOptions.overlayTrailPoints());
+        content.setLayout(null);
+        content.add(p);
+        p.setBounds(0, 0, content.getWidth(), content.getHeight());
+        content.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent evt) {
+                p.setBounds(0, 0, content.getWidth(), content.getHeight());
+            }
+        });
+        content.putClientProperty(PANEL_KEY, p);
+        return p;
     }
 
-    private static class OverlayPanel extends JComponent {
-        EyePoint leftEye = new EyePoint();
-        EyePoint rightEye = new EyePoint();
+    private static final class OverlayPanel extends JComponent {
+
+        // cursor box, content coordinates; width 0 = hidden
+        private int cursorX, cursorY, cursorWidth, cursorHeight;
+
+        private double leftX, leftY, rightX, rightY;
+        private boolean leftValid, rightValid;
+
+        // trail: fixed ring of the newest points, oldest at (head - count)
+        private final int[] trailX;
+        private final int[] trailY;
+        private int trailHead;
+        private int trailCount;
+
+        // rects invalidated since the last paint, merged when they overlap
+        private final Rectangle[] dirty = new Rectangle[MAX_DIRTY];
+        private int dirtyCount;
+        private long lastPaintNanos;
+        private long frameNanos;
+        private final Timer repaintTimer;
+
+        OverlayPanel(int trailPoints) {
+            setOpaque(false);
+            setFocusable(false);
+            trailX = new int[trailPoints];
+            trailY = new int[trailPoints];
+            repaintTimer = new Timer(0, e -> paintDirty());
+            repaintTimer.setRepeats(false);
+        }
+
+        @Override
+        public void addNotify() {
+            super.addNotify();
+            frameNanos = 0; // the window may be on another monitor now
+        }
+
+        void moveCursor(int x, int y, int width, int height) {
+            if (x == cursorX && y == cursorY && width == cursorWidth && height == cursorHeight) return;
+            invalidateCursor();
+            cursorX = x;
+            cursorY = y;
+            cursorWidth = width;
+            cursorHeight = height;
+            invalidateCursor();
+            scheduleRepaint();
+        }
+
+        void addTrailPoint(int x, int y) {
+            int capacity = trailX.length;
+            if (capacity == 0) return;
+            int last = (trailHead - 1 + capacity) % capacity;
+            if (trailCount > 0 && trailX[last] == x && trailY[last] == y) return;
+
+            boolean full = trailCount == capacity;
+            if (full) invalidateTrailSegment(Math.max(0, capacity - 2)); // the oldest point drops out
+            trailX[trailHead] = x;
+            trailY[trailHead] = y;
+            trailHead = (trailHead + 1) % capacity;
+            if (!full) trailCount++;
+            invalidateTrailSegment(0);
+            for (int step = 1; step < TRAIL_FADE_STEPS; step++) {
+                // the first point of each step has just aged into it
+                int age = (step * capacity + TRAIL_FADE_STEPS - 1) / TRAIL_FADE_STEPS;
+                if (age < trailCount) invalidateTrailSegment(age);
+            }
+            scheduleRepaint();
+        }
+
+        void moveEyes(double lx, double ly, boolean lValid, double rx, double ry, boolean rValid) {
+            invalidateEyes();
+            leftX = lx;
+            leftY = ly;
+            leftValid = lValid;
+            rightX = rx;
+            rightY = ry;
+            rightValid = rValid;
+            invalidateEyes();
+            scheduleRepaint();
+        }
+
+        void clearAll() {
+            invalidateCursor();
+            invalidateEyes();
+            invalidate(trailBounds());
+            cursorWidth = 0;
+            leftValid = rightValid = false;
+            trailCount = 0;
+            scheduleRepaint();
+        }
+
+        private void invalidateCursor() {
+            if (cursorWidth > 0) invalidate(new Rectangle(cursorX - 1, cursorY - 1, cursorWidth + 2, cursorHeight + 2));
+        }
+
+        private void invalidateEyes() {
+            if (leftValid) invalidate(eyeBounds(leftX, leftY));
+            if (rightValid) invalidate(eyeBounds(rightX, rightY));
+        }
+
+        private static Rectangle eyeBounds(double x, double y) {
+            return new Rectangle((int) x - EYE_RADIUS - 1, (int) y - EYE_RADIUS - 1, EYE_RADIUS * 2 + 2, EYE_RADIUS * 2 + 2);
+        }
+
+        /** Fade step of the trail point {@code age} samples old; by capacity, so it only changes at step boundaries. */
+        private int fadeStep(int age) {
+            return age * TRAIL_FADE_STEPS / trailX.length;
+        }
+
+        /** The trail point {@code age} samples old and its segment from the next older point, both drawn in its color. */
+        private void invalidateTrailSegment(int age) {
+            if (age >= trailCount) return;
+            int capacity = trailX.length;
+            int k = (trailHead - 1 - age + capacity) % capacity;
+            Rectangle r = new Rectangle(trailX[k], trailY[k], 0, 0);
+            if (age + 1 < trailCount) {
+                int prev = (k - 1 + capacity) % capacity;
+                r.add(trailX[prev], trailY[prev]);
+            }
+            int pad = TRAIL_RADIUS + 1;
+            r.grow(pad, pad);
+            invalidate(r);
+        }
+
+        private Rectangle trailBounds() {
+            if (trailCount == 0) return null;
+            int capacity = trailX.length;
+            int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE;
+            int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE;
+            for (int i = 0; i < trailCount; i++) {
+                int k = (trailHead - 1 - i + capacity) % capacity;
+                minX = Math.min(minX, trailX[k]);
+                minY = Math.min(minY, trailY[k]);
+                maxX = Math.max(maxX, trailX[k]);
+                maxY = Math.max(maxY, trailY[k]);
+            }
+            int pad = TRAIL_RADIUS + 1;
+            return new Rectangle(minX - pad, minY - pad, maxX - minX + 2 * pad, maxY - minY + 2 * pad);
+        }
+
+        private void invalidate(Rectangle r) {
+            if (r == null || r.isEmpty()) return;
+            for (int i = 0; i < dirtyCount; i++) {
+                if (dirty[i].intersects(r)) {
+                    dirty[i].add(r);
+                    return;
+                }
+            }
+            if (dirtyCount < MAX_DIRTY) {
+                dirty[dirtyCount++] = r;
+            } else {
+                dirty[dirtyCount - 1].add(r);
+            }
+        }
+
+        /** Paint now if a display frame has passed since the last paint, else once it has. */
+        private void scheduleRepaint() {
+            if (dirtyCount == 0 || repaintTimer.isRunning()) return;
+            long wait = lastPaintNanos + frameNanos() - System.nanoTime();
+            if (wait <= 0) {
+                paintDirty();
+            } else {
+                repaintTimer.setInitialDelay((int) Math.max(1, TimeUnit.NANOSECONDS.toMillis(wait)));
+                repaintTimer.start();
+            }
+        }
+
+        private void paintDirty() {
+            lastPaintNanos = System.nanoTime();
+            int count = dirtyCount;
+            dirtyCount = 0;
+            if (!isShowing()) return;
+            for (int i = 0; i < count; i++) {
+                // separately: repaint() would merge far apart rects into one large region
+                paintImmediately(dirty[i]);
+                dirty[i] = null;
+            }
+        }
+
+        private long frameNanos() {
+            if (frameNanos == 0) {
+                int hz = DisplayMode.REFRESH_RATE_UNKNOWN;
+                GraphicsConfiguration gc = getGraphicsConfiguration();
+                if (gc != null) hz = gc.getDevice().getDisplayMode().getRefreshRate();
+                frameNanos = TimeUnit.SECONDS.toNanos(1) / (hz > 0 ? hz : 60);
+            }
+            return frameNanos;
+        }
 
         @Override
         protected void paintComponent(Graphics g) {
@@ -57,18 +301,31 @@ public class EditorGazeOverlay {
             Graphics2D g2 = (Graphics2D) g;
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
-            int radius = 8;
+            // trail, oldest first and faintest
+            int capacity = trailX.length;
+            for (int i = trailCount - 1; i >= 0; i--) {
+                int k = (trailHead - 1 - i + capacity) % capacity;
+                int alpha = 40 + 160 * (TRAIL_FADE_STEPS - fadeStep(i)) / TRAIL_FADE_STEPS;
+                g2.setColor(trailColor(alpha));
+                if (i < trailCount - 1) {
+                    int prev = (k - 1 + capacity) % capacity;
+                    g2.drawLine(trailX[prev], trailY[prev], trailX[k], trailY[k]);
+                }
+                g2.fillOval(trailX[k] - TRAIL_RADIUS, trailY[k] - TRAIL_RADIUS, TRAIL_RADIUS * 2, TRAIL_RADIUS * 2);
+            }
 
-            // LEFT EYE – BLUE
-            if (leftEye.valid) {
-                g2.setColor(new Color(0, 122, 255)); // blue
-                g2.fillOval((int) leftEye.x - radius, (int) leftEye.y - radius, radius * 2, radius * 2);
+            if (cursorWidth > 0) {
+                g2.setColor(CURSOR_COLOR);
+                g2.drawRect(cursorX, cursorY, cursorWidth - 1, cursorHeight - 1);
             }
 
-            // RIGHT EYE – RED
-            if (rightEye.valid) {
-                g2.setColor(new Color(255, 50, 50)); // red
-                g2.fillOval((int) rightEye.x - radius, (int) rightEye.y - radius, radius * 2, radius * 2);
+            if (leftValid) {
+                g2.setColor(LEFT_EYE_COLOR);
+                g2.fillOval((int) leftX - EYE_RADIUS, (int) leftY - EYE_RADIUS, EYE_RADIUS * 2, EYE_RADIUS * 2);
+            }
+            if (rightValid) {
+                g2.setColor(RIGHT_EYE_COLOR);
+                g2.fillOval((int) rightX - EYE_RADIUS, (int) rightY - EYE_RADIUS, EYE_RADIUS * 2, EYE_RADIUS * 2);
             }
         }
     }
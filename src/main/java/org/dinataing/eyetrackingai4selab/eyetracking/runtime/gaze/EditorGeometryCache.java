@@ -0,0 +1,326 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.Inlay;
+import com.intellij.openapi.editor.InlayModel;
+import com.intellij.openapi.editor.colors.EditorFontType;
+import com.intellij.openapi.editor.event.EditorFactoryEvent;
+import com.intellij.openapi.editor.event.EditorFactoryListener;
+import com.intellij.openapi.editor.event.VisibleAreaListener;
+import com.intellij.openapi.editor.ex.FoldingListener;
+import com.intellij.openapi.editor.ex.FoldingModelEx;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.FileEditor;
+import com.intellij.openapi.fileEditor.FileEditorManager;
+import com.intellij.openapi.fileEditor.FileEditorManagerEvent;
+import com.intellij.openapi.fileEditor.FileEditorManagerListener;
+import com.intellij.openapi.fileEditor.TextEditor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.HierarchyBoundsAdapter;
+import java.awt.event.HierarchyEvent;
+import java.awt.event.HierarchyListener;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per-editor cache of the on-screen geometry the gaze mapper needs for every sample
+ * (content origin on screen, visible area, line height, character width).
+ *
+ * Querying these from Swing walks the component hierarchy and takes the AWT tree lock,
+ * so they are only recomputed after something actually changed: scrolling
+ * ({@link VisibleAreaListener}), the content or any ancestor window moving / resizing /
+ * being shown or hidden, and the selected editor changing
+ * ({@link FileEditorManagerListener#selectionChanged}). EDT only.
+ *
+ * Each editor also owns a {@link ViewportCellCache}. It works in content coordinates, so
+ * it survives scrolling and moves, and is only cleared when the text layout changes:
+ * folding, inlays, or the content being resized (soft wraps). Every invalidation also
+ * marks the {@link VisibleEditorIndex} for a rebuild.
+ */
+@Service(Service.Level.PROJECT)
+public final class EditorGeometryCache implements Disposable {
+
+    /** Immutable geometry snapshot of one editor. */
+    public static final class Geometry {
+        public final Editor editor;
+        public final boolean showing;
+        public final String filePath; // null if the document has no file
+
+        // content component origin, screen coordinates
+        public final int originX;
+        public final int originY;
+
+        // visible area, content coordinates
+        public final int visibleX;
+        public final int visibleY;
+        public final int visibleWidth;
+        public final int visibleHeight;
+
+        public final int contentWidth;
+        public final int contentHeight;
+        public final int lineHeight;
+        public final int charWidth;
+
+        Geometry(Editor editor, boolean showing, String filePath,
+                 int originX, int originY,
+                 Rectangle visible,
+                 int contentWidth, int contentHeight,
+                 int lineHeight, int charWidth) {
+            this.editor = editor;
+            this.showing = showing;
+            this.filePath = filePath;
+            this.originX = originX;
+            this.originY = originY;
+            this.visibleX = visible.x;
+            this.visibleY = visible.y;
+            this.visibleWidth = visible.width;
+            this.visibleHeight = visible.height;
+            this.contentWidth = contentWidth;
+            this.contentHeight = contentHeight;
+            this.lineHeight = lineHeight;
+            this.charWidth = charWidth;
+        }
+
+        /** True if content-local point (x, y) lies in the visible text area. */
+        public boolean isVisible(int localX, int localY) {
+            return localX >= visibleX && localY >= visibleY &&
+                    localX <= visibleX + visibleWidth &&
+                    localY <= visibleY + visibleHeight;
+        }
+    }
+
+    private static final class Entry {
+        final Disposable listeners;
+        final ViewportCellCache cells = new ViewportCellCache();
+        Geometry geometry; // null = stale
+
+        Entry(Disposable listeners) {
+            this.listeners = listeners;
+        }
+    }
+
+    private final Project project;
+    private final Map<Editor, Entry> entries = new HashMap<>();
+
+    private Editor selectedEditor;
+    private boolean selectedKnown = false;
+
+    public EditorGeometryCache(Project project) {
+        this.project = project;
+
+        project.getMessageBus().connect(this).subscribe(
+                FileEditorManagerListener.FILE_EDITOR_MANAGER,
+                new FileEditorManagerListener() {
+                    @Override
+                    public void selectionChanged(@NotNull FileEditorManagerEvent event) {
+                        FileEditor fileEditor = event.getNewEditor();
+                        selectedEditor = fileEditor instanceof TextEditor
+                                ? ((TextEditor) fileEditor).getEditor()
+                                : null;
+                        selectedKnown = true;
+                        VisibleEditorIndex.getInstance().markDirty(); // active editor wins overlaps
+                    }
+                }
+        );
+
+        EditorFactory.getInstance().addEditorFactoryListener(new EditorFactoryListener() {
+            @Override
+            public void editorReleased(@NotNull EditorFactoryEvent event) {
+                forget(event.getEditor());
+            }
+        }, this);
+    }
+
+    public static EditorGeometryCache getInstance(Project project) {
+        return project.getService(EditorGeometryCache.class);
+    }
+
+    /** The selected text editor, tracked through selection events. */
+    public Editor getSelectedEditor() {
+        if (!selectedKnown) {
+            selectedEditor = FileEditorManager.getInstance(project).getSelectedTextEditor();
+            selectedKnown = true;
+        }
+        if (selectedEditor != null && selectedEditor.isDisposed()) {
+            forget(selectedEditor);
+            selectedEditor = null;
+            selectedKnown = false;
+            return getSelectedEditor();
+        }
+        return selectedEditor;
+    }
+
+    /** Geometry of the selected text editor, or null if there is none. */
+    public Geometry getSelectedGeometry() {
+        Editor editor = getSelectedEditor();
+        return editor != null ? getGeometry(editor) : null;
+    }
+
+    /** Cached geometry of {@code editor}; recomputed only if an event invalidated it. */
+    public Geometry getGeometry(Editor editor) {
+        Entry entry = entry(editor);
+        if (entry.geometry == null) {
+            entry.geometry = compute(editor);
+        }
+        return entry.geometry;
+    }
+
+    /** Point → offset cache of {@code editor}'s current viewport. */
+    public ViewportCellCache getCells(Editor editor) {
+        return entry(editor).cells;
+    }
+
+    /** Force a recompute for {@code editor} on next access. */
+    public void invalidate(Editor editor) {
+        Entry entry = entries.get(editor);
+        if (entry != null) {
+            entry.geometry = null;
+        }
+        VisibleEditorIndex.getInstance().markDirty();
+    }
+
+    private void clearCells(Editor editor) {
+        Entry entry = entries.get(editor);
+        if (entry != null) {
+            entry.cells.clear();
+        }
+    }
+
+    public void invalidateAll() {
+        for (Entry entry : entries.values()) {
+            entry.geometry = null;
+            entry.cells.clear();
+        }
+        VisibleEditorIndex.getInstance().markDirty();
+    }
+
+    private Entry entry(Editor editor) {
+        Entry entry = entries.get(editor);
+        if (entry == null) {
+            entry = new Entry(attachListeners(editor));
+            entries.put(editor, entry);
+        }
+        return entry;
+    }
+
+    private void forget(Editor editor) {
+        Entry entry = entries.remove(editor);
+        if (entry != null) {
+            Disposer.dispose(entry.listeners);
+        }
+        if (editor == selectedEditor) {
+            selectedKnown = false;
+            selectedEditor = null;
+        }
+        VisibleEditorIndex.getInstance().markDirty();
+    }
+
+    private static Geometry compute(Editor editor) {
+        JComponent content = editor.getContentComponent();
+        Rectangle visible = editor.getScrollingModel().getVisibleArea();
+
+        boolean showing = content.isShowing();
+        int originX = 0;
+        int originY = 0;
+        if (showing) {
+            try {
+                Point origin = content.getLocationOnScreen();
+                originX = origin.x;
+                originY = origin.y;
+            } catch (IllegalComponentStateException e) {
+                showing = false;
+            }
+        }
+
+        Font font = editor.getColorsScheme().getFont(EditorFontType.PLAIN);
+        int charWidth = content.getFontMetrics(font).charWidth(' ');
+
+        VirtualFile file = FileDocumentManager.getInstance().getFile(editor.getDocument());
+
+        return new Geometry(
+                editor,
+                showing,
+                file != null ? file.getPath() : null,
+                originX, originY,
+                visible,
+                content.getWidth(), content.getHeight(),
+                editor.getLineHeight(),
+                Math.max(1, charWidth)
+        );
+    }
+
+    private Disposable attachListeners(Editor editor) {
+        Disposable listeners = Disposer.newDisposable("AI4SE editor geometry");
+        Disposer.register(this, listeners);
+
+        Runnable stale = () -> invalidate(editor);
+
+        editor.getScrollingModel().addVisibleAreaListener(e -> stale.run(), listeners);
+
+        // collapsing / expanding a region moves text without touching the document
+        if (editor.getFoldingModel() instanceof FoldingModelEx) {
+            ((FoldingModelEx) editor.getFoldingModel()).addListener(new FoldingListener() {
+                @Override
+                public void onFoldProcessingEnd() {
+                    clearCells(editor);
+                }
+            }, listeners);
+        }
+        // parameter hints, code vision etc. arrive without a document change
+        editor.getInlayModel().addListener(new InlayModel.Listener() {
+            @Override public void onAdded(@NotNull Inlay<?> inlay) { clearCells(editor); }
+            @Override public void onRemoved(@NotNull Inlay<?> inlay) { clearCells(editor); }
+            @Override public void onUpdated(@NotNull Inlay<?> inlay) { clearCells(editor); }
+        }, listeners);
+
+        JComponent content = editor.getContentComponent();
+
+        ComponentAdapter componentListener = new ComponentAdapter() {
+            @Override public void componentResized(ComponentEvent e) {
+                stale.run();
+                clearCells(editor); // soft wraps follow the width
+            }
+            @Override public void componentMoved(ComponentEvent e) { stale.run(); }
+            @Override public void componentShown(ComponentEvent e) { stale.run(); }
+            @Override public void componentHidden(ComponentEvent e) { stale.run(); }
+        };
+        // window moves and splitter drags move the content without a componentMoved on it
+        HierarchyBoundsAdapter ancestorListener = new HierarchyBoundsAdapter() {
+            @Override public void ancestorMoved(HierarchyEvent e) { stale.run(); }
+            @Override public void ancestorResized(HierarchyEvent e) { stale.run(); }
+        };
+        HierarchyListener showingListener = e -> {
+            if ((e.getChangeFlags() & HierarchyEvent.SHOWING_CHANGED) != 0) {
+                stale.run();
+            }
+        };
+
+        content.addComponentListener(componentListener);
+        content.addHierarchyBoundsListener(ancestorListener);
+        content.addHierarchyListener(showingListener);
+
+        Disposer.register(listeners, () -> {
+            content.removeComponentListener(componentListener);
+            content.removeHierarchyBoundsListener(ancestorListener);
+            content.removeHierarchyListener(showingListener);
+        });
+        return listeners;
+    }
+
+    @Override
+    public void dispose() {
+        entries.clear();
+        selectedEditor = null;
+    }
+}
@@ -0,0 +1,388 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.editor.ex.RangeHighlighterEx;
+import com.intellij.openapi.editor.impl.DocumentMarkupModel;
+import com.intellij.openapi.editor.markup.HighlighterLayer;
+import com.intellij.openapi.editor.markup.HighlighterTargetArea;
+import com.intellij.openapi.editor.markup.LineMarkerRenderer;
+import com.intellij.openapi.editor.markup.MarkupModel;
+import com.intellij.openapi.editor.markup.RangeHighlighter;
+import com.intellij.openapi.editor.markup.TextAttributes;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Disposer;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.JBColor;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.Timer;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Live attention heatmap: dwell time per line and per token, accumulated from every
+ * mapped sample and shown as document markup (a gutter strip and error stripe mark per
+ * line, a background per token) in all editors of the file in the project of the editor
+ * looked at, which may be another open project than the one tracking.
+ *
+ * Dwell is the tracker time since the previous sample (capped, so tracking gaps don't
+ * count) and is quantized into {@link #LEVELS} logarithmic levels. Accumulating is just
+ * arithmetic; a cell is queued for repainting only when its level changes, and a timer
+ * applies the queue in batches of a few dozen highlighters, so markup events stay rare
+ * and bounded however many samples arrive or lines have been looked at. Highlighters
+ * are created once per cell and then only recolored.
+ *
+ * Cells are keyed by line / token range; after an edit they are re-keyed lazily from
+ * their highlighters, which follow the text. Cells still queued have no highlighter
+ * yet and are shifted by the edit itself. The markup stays after a session ends and
+ * is cleared when the next one starts. EDT only.
+ */
+@Service(Service.Level.PROJECT)
+public final class GazeHeatmap implements Disposable {
+
+    static final int LEVELS = 8;
+
+    /** Upper bound of level 0; each further level doubles it (level 7 = 3.2 s and more). */
+    private static final long LEVEL_BASE_MILLIS = 50;
+
+    private static final int LINE_LAYER = HighlighterLayer.CARET_ROW - 1;
+    private static final int TOKEN_LAYER = HighlighterLayer.ADDITIONAL_SYNTAX - 1;
+    private static final int GUTTER_WIDTH = 3;
+
+    private static final Color[] COLORS = new Color[LEVELS];
+    private static final TextAttributes[] TOKEN_ATTRIBUTES = new TextAttributes[LEVELS];
+    private static final LineMarkerRenderer[] GUTTER = new LineMarkerRenderer[LEVELS];
+
+    static {
+        for (int level = 0; level < LEVELS; level++) {
+            float t = (level + 1) / (float) LEVELS;
+            Color light = blend(new Color(0xFFF8E1), new Color(0xFF8A65), t);
+            Color dark = blend(new Color(0x3A3220), new Color(0x8C3A1E), t);
+            Color color = new JBColor(light, dark);
+            COLORS[level] = color;
+
+            TextAttributes attributes = new TextAttributes();
+            attributes.setBackgroundColor(color);
+            TOKEN_ATTRIBUTES[level] = attributes;
+
+            GUTTER[level] = (editor, g, r) -> {
+                g.setColor(color);
+                g.fillRect(r.x, r.y, GUTTER_WIDTH, r.height);
+            };
+        }
+    }
+
+    private final Project project;
+    private final Map<Project, Map<Document, DocumentHeat>> documents = new HashMap<>(); // by editor project
+    private final LinkedHashSet<Cell> dirty = new LinkedHashSet<>();
+    private final Timer timer;
+
+    private long maxGapMillis;
+    private int batchMax;
+    private long lastTimestamp = -1;
+
+    public GazeHeatmap(Project project) {
+        this.project = project;
+        this.timer = new Timer(TrackingOptions.heatmapIntervalMillis(), e -> flush(batchMax));
+        this.timer.setCoalesce(true);
+    }
+
+    public static GazeHeatmap getInstance(Project project) {
+        return project.getService(GazeHeatmap.class);
+    }
+
+    /** Clear the previous session's heatmap and start repainting. */
+    public void start() {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (project.isDisposed()) return;
+            clear();
+            maxGapMillis = TrackingOptions.heatmapMaxGapMillis();
+            batchMax = TrackingOptions.heatmapBatchMax();
+            timer.setDelay(TrackingOptions.heatmapIntervalMillis());
+            timer.start();
+        });
+    }
+
+    /** Apply everything still queued and stop repainting; the markup stays visible. */
+    public void stop() {
+        ApplicationManager.getApplication().invokeLater(() -> {
+            if (project.isDisposed()) return;
+            timer.stop();
+            flush(Integer.MAX_VALUE);
+            if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+                int cells = 0;
+                int files = 0;
+                for (Map<Document, DocumentHeat> heats : documents.values()) {
+                    files += heats.size();
+                    for (DocumentHeat heat : heats.values()) cells += heat.lines.size() + heat.tokens.size();
+                }
+                Diagnostics.log(Diagnostics.Level.DEBUG,
+                        "[AI4SE] Heatmap: " + cells + " cells in " + files + " files");
+            }
+        });
+    }
+
+    /**
+     * Add the time since the previous sample to the line and token of {@code hit}.
+     * Unmapped samples ({@code hit == null}) only advance the clock.
+     */
+    public void accumulate(GazeHit hit, long timestamp) {
+        long dwell = lastTimestamp < 0 ? 0 : Math.min(Math.max(timestamp - lastTimestamp, 0), maxGapMillis);
+        lastTimestamp = timestamp;
+        if (hit == null || hit.editor == null || dwell == 0) return;
+
+        // editors only show the document markup of their own project
+        Project owner = hit.editor.getProject() != null ? hit.editor.getProject() : project;
+        if (owner.isDisposed()) return;
+        Document document = hit.editor.getDocument();
+        DocumentHeat heat = documents.computeIfAbsent(owner, k -> new HashMap<>())
+                .computeIfAbsent(document, d -> new DocumentHeat(owner, d));
+        if (heat.stale) heat.rekey();
+        if (hit.offset < 0 || hit.offset >= document.getTextLength()) return;
+
+        int line = document.getLineNumber(hit.offset);
+        add(heat.lines.computeIfAbsent((long) line, k -> new Cell(heat, true, line, line)), dwell);
+
+        // the PSI leaf, or the character; tokens spanning lines (whitespace, comments) only count per line
+        int start = hit.offset;
+        int end = hit.offset + 1;
+        if (hit.psiElement != null) {
+            TextRange range = hit.psiElement.getTextRange();
+            if (range != null) {
+                start = range.getStartOffset();
+                end = range.getEndOffset();
+            }
+        }
+        if (end <= start || end > document.getTextLength() || document.getLineNumber(end - 1) != line) return;
+        int s = start;
+        int e = end;
+        add(heat.tokens.computeIfAbsent(tokenKey(s, e), k -> new Cell(heat, false, s, e)), dwell);
+    }
+
+    private void add(Cell cell, long dwell) {
+        cell.dwellMillis += dwell;
+        if (level(cell.dwellMillis) != cell.level) {
+            dirty.add(cell);
+        }
+    }
+
+    static int level(long dwellMillis) {
+        long steps = dwellMillis / LEVEL_BASE_MILLIS;
+        if (steps == 0) return 0;
+        return Math.min(LEVELS - 1, 64 - Long.numberOfLeadingZeros(steps));
+    }
+
+    /** Apply up to {@code max} queued level changes to the markup. */
+    private void flush(int max) {
+        int applied = 0;
+        Iterator<Cell> it = dirty.iterator();
+        while (applied < max && it.hasNext()) {
+            Cell cell = it.next();
+            it.remove();
+            if (cell.heat.stale) cell.heat.rekey();
+            if (cell.dropped || cell.heat.project.isDisposed()) continue;
+            apply(cell);
+            applied++;
+        }
+    }
+
+    private void apply(Cell cell) {
+        int level = level(cell.dwellMillis);
+        if (level == cell.level && cell.highlighter != null && cell.highlighter.isValid()) return;
+        cell.level = level;
+
+        RangeHighlighter h = cell.highlighter;
+        if (h == null || !h.isValid()) {
+            MarkupModel markup = DocumentMarkupModel.forDocument(cell.heat.document, cell.heat.project, true);
+            if (cell.line) {
+                h = markup.addLineHighlighter(cell.start, LINE_LAYER, null);
+            } else {
+                h = markup.addRangeHighlighter(cell.start, cell.end, TOKEN_LAYER,
+                        TOKEN_ATTRIBUTES[level], HighlighterTargetArea.EXACT_RANGE);
+            }
+            cell.highlighter = h;
+        } else if (!cell.line) {
+            ((RangeHighlighterEx) h).setTextAttributes(TOKEN_ATTRIBUTES[level]);
+        }
+        if (cell.line) {
+            h.setLineMarkerRenderer(GUTTER[level]);
+            h.setErrorStripeMarkColor(COLORS[level]);
+        }
+    }
+
+    private void clear() {
+        for (Map<Document, DocumentHeat> heats : documents.values()) {
+            for (DocumentHeat heat : heats.values()) {
+                heat.disposeAll();
+                Disposer.dispose(heat.listenerDisposable);
+            }
+        }
+        documents.clear();
+        dirty.clear();
+        lastTimestamp = -1;
+    }
+
+    private static long tokenKey(int start, int end) {
+        return ((long) start << 32) | (end & 0xFFFFFFFFL);
+    }
+
+    private static Color blend(Color from, Color to, float t) {
+        return new Color(
+                Math.round(from.getRed() + (to.getRed() - from.getRed()) * t),
+                Math.round(from.getGreen() + (to.getGreen() - from.getGreen()) * t),
+                Math.round(from.getBlue() + (to.getBlue() - from.getBlue()) * t)
+        );
+    }
+
+    @Override
+    public void dispose() {
+        timer.stop();
+        clear();
+    }
+
+    /** Accumulated dwell of one line or token and its highlighter (null until first applied). */
+    private static final class Cell {
+        final DocumentHeat heat;
+        final boolean line;
+        int start; // line number for lines, offset for tokens
+        int end;
+        long dwellMillis;
+        int level = -1; // shown level; -1 = not shown yet
+        RangeHighlighter highlighter;
+        boolean dropped;
+
+        Cell(DocumentHeat heat, boolean line, int start, int end) {
+            this.heat = heat;
+            this.line = line;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    /** Cells of one document in one project; marked stale on every edit and re-keyed before the next use. */
+    private final class DocumentHeat {
+        final Project project;
+        final Document document;
+        final Disposable listenerDisposable = Disposer.newDisposable("AI4SE gaze heatmap");
+        Map<Long, Cell> lines = new HashMap<>();
+        Map<Long, Cell> tokens = new HashMap<>();
+        boolean stale;
+
+        DocumentHeat(Project project, Document document) {
+            this.project = project;
+            this.document = document;
+            Disposer.register(GazeHeatmap.this, listenerDisposable);
+            document.addDocumentListener(new DocumentListener() {
+                @Override
+                public void beforeDocumentChange(@NotNull DocumentEvent event) {
+                    shiftUnshown(event);
+                }
+
+                @Override
+                public void documentChanged(@NotNull DocumentEvent event) {
+                    stale = true;
+                }
+            }, listenerDisposable);
+        }
+
+        /**
+         * Move the cells without a highlighter (the queued ones) past {@code event}, as a
+         * highlighter would move: a line follows the newlines inserted or removed above it,
+         * a token its offset, and a token whose text is edited is dropped. The document
+         * still has its old text here.
+         */
+        private void shiftUnshown(DocumentEvent event) {
+            int offset = event.getOffset();
+            int oldEnd = offset + event.getOldLength();
+            int delta = event.getNewLength() - event.getOldLength();
+            int lineDelta = StringUtil.countNewLines(event.getNewFragment()) - StringUtil.countNewLines(event.getOldFragment());
+            for (Cell cell : dirty) {
+                if (cell.heat != this || cell.highlighter != null || cell.dropped) continue;
+                if (cell.line) {
+                    int lineStart = document.getLineStartOffset(cell.start);
+                    if (oldEnd <= lineStart) {
+                        cell.start = cell.end = cell.start + lineDelta;
+                    } else if (offset < lineStart) {
+                        cell.start = cell.end = document.getLineNumber(offset); // its line break was removed
+                    }
+                } else if (oldEnd <= cell.start) {
+                    cell.start += delta;
+                    cell.end += delta;
+                } else if (offset < cell.end) {
+                    cell.dropped = true;
+                }
+            }
+        }
+
+        /**
+         * Move every cell to where its highlighter is now (queued cells have already been
+         * shifted). Cells whose text was deleted are dropped; cells that ended up on the
+         * same line / range are merged.
+         */
+        void rekey() {
+            stale = false;
+            lines = rekey(lines, true);
+            tokens = rekey(tokens, false);
+        }
+
+        private Map<Long, Cell> rekey(Map<Long, Cell> cells, boolean line) {
+            Map<Long, Cell> moved = new HashMap<>(cells.size() * 2);
+            List<Cell> merged = new ArrayList<>();
+            for (Cell cell : cells.values()) {
+                if (cell.dropped) continue;
+                RangeHighlighter h = cell.highlighter;
+                if (h == null) {
+                    if (line ? cell.start >= document.getLineCount() : cell.end > document.getTextLength()) {
+                        drop(cell);
+                        continue;
+                    }
+                } else if (!h.isValid() || h.getEndOffset() > document.getTextLength()) {
+                    drop(cell);
+                    continue;
+                } else if (line) {
+                    cell.start = cell.end = document.getLineNumber(h.getStartOffset());
+                } else {
+                    cell.start = h.getStartOffset();
+                    cell.end = h.getEndOffset();
+                }
+                long key = line ? cell.start : tokenKey(cell.start, cell.end);
+                Cell other = moved.putIfAbsent(key, cell);
+                if (other != null) {
+                    other.dwellMillis += cell.dwellMillis;
+                    drop(cell);
+                    merged.add(other);
+                }
+            }
+            for (Cell cell : merged) {
+                if (level(cell.dwellMillis) != cell.level) dirty.add(cell);
+            }
+            return moved;
+        }
+
+        private void drop(Cell cell) {
+            cell.dropped = true;
+            if (cell.highlighter != null) {
+                cell.highlighter.dispose();
+                cell.highlighter = null;
+            }
+        }
+
+        void disposeAll() {
+            for (Cell cell : lines.values()) drop(cell);
+            for (Cell cell : tokens.values()) drop(cell);
+        }
+    }
+}
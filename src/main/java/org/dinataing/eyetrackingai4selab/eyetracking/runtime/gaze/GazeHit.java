@@ -1,5 +1,6 @@
 package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
 
+import com.intellij.openapi.editor.Editor;
 import com.intellij.openapi.editor.LogicalPosition;
 import com.intellij.psi.PsiElement;
 
@@ -17,6 +18,8 @@ public class GazeHit {
     public final Point localPoint;
 
     // Editor / document info
+    public final Editor editor; // looked at; null if not known
+    public final String filePath; // of the editor looked at; null = the session's file
     public final int offset;
     public final LogicalPosition logicalPosition;
     public final char ch;
@@ -24,6 +27,7 @@ public class GazeHit {
 
     // PSI
     public final PsiElement psiElement;
+    public final PsiAncestorChain psiChain; // null if no PSI element
 
     public GazeHit(
             double gx,
@@ -35,7 +39,27 @@ public class GazeHit {
             LogicalPosition logicalPosition,
             char ch,
             String word,
-            PsiElement psiElement
+            PsiElement psiElement,
+            PsiAncestorChain psiChain
+    ) {
+        this(gx, gy, screenPoint, editorTopLeft, localPoint, null, null,
+                offset, logicalPosition, ch, word, psiElement, psiChain);
+    }
+
+    public GazeHit(
+            double gx,
+            double gy,
+            Point screenPoint,
+            Point editorTopLeft,
+            Point localPoint,
+            Editor editor,
+            String filePath,
+            int offset,
+            LogicalPosition logicalPosition,
+            char ch,
+            String word,
+            PsiElement psiElement,
+            PsiAncestorChain psiChain
     ) {
 
         this.gx = gx;
@@ -43,10 +67,13 @@ public class GazeHit {
         this.screenPoint = screenPoint;
         this.editorTopLeft = editorTopLeft;
         this.localPoint = localPoint;
+        this.editor = editor;
+        this.filePath = filePath;
         this.offset = offset;
         this.logicalPosition = logicalPosition;
         this.ch = ch;
         this.word = word;
         this.psiElement = psiElement;
+        this.psiChain = psiChain;
     }
 }
@@ -4,36 +4,27 @@ import java.awt.*;
 
 public class GazeMapper {
 
-    private static final int MONITOR_INDEX = 0;
-
-    // 🔧 tweak these until localX/localY are positive when you look at the editor
-    private static double CALIBRATION_OFFSET_X = 80.0;
-    private static double CALIBRATION_OFFSET_Y = 80.0;
-
+    /**
+     * Normalized gaze (0..1 on the calibrated display) to screen coordinates.
+     * Uses the cached {@link DisplayTopology}; no AWT queries on this path.
+     */
     public static Point gazeToScreenPoint(double gx, double gy) {
         if (Double.isNaN(gx) || Double.isNaN(gy)) return null;
 
-        GraphicsDevice[] devices = GraphicsEnvironment
-                .getLocalGraphicsEnvironment()
-                .getScreenDevices();
-
-        if (MONITOR_INDEX < 0 || MONITOR_INDEX >= devices.length) {
+        DisplayTopology.DisplayTransform display = DisplayTopology.getActive();
+        if (display == null) {
             return null;
         }
 
-        Rectangle bounds = devices[MONITOR_INDEX]
-                .getDefaultConfiguration()
-                .getBounds();
-
-        int px = (int) Math.round(bounds.x + gx * bounds.width  + CALIBRATION_OFFSET_X);
-        int py = (int) Math.round(bounds.y + gy * bounds.height + CALIBRATION_OFFSET_Y);
-
-        return new Point(px, py);
+        return new Point(display.toScreenX(gx), display.toScreenY(gy));
     }
 
-    // optional helper so you can adjust from somewhere else if you want
+    // 🔧 tweak these until localX/localY are positive when you look at the editor
     public static void setCalibrationOffsets(double dx, double dy) {
-        CALIBRATION_OFFSET_X = dx;
-        CALIBRATION_OFFSET_Y = dy;
+        DisplayTopology.setCalibrationOffsets(dx, dy);
+    }
+
+    public static void setMonitorIndex(int index) {
+        DisplayTopology.setMonitorIndex(index);
     }
 }
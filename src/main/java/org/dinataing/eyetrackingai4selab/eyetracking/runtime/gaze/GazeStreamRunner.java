@@ -1,6 +1,7 @@
 package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
 
 import com.intellij.openapi.project.Project;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
 import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
 import org.w3c.dom.Element;
 
@@ -23,6 +24,7 @@ public class GazeStreamRunner {
         eyeTracker.setRealTime(true);
         eyeTracker.setGazeHandler(gazeElement -> {
             // Example: just log the word + token
+            if (!Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) return;
             String ts = gazeElement.getAttribute("timestamp");
 
             Element location =
@@ -35,7 +37,7 @@ public class GazeStreamRunner {
                 String token = ast.getAttribute("token");
                 String type = ast.getAttribute("type");
 
-                System.out.println(
+                Diagnostics.log(Diagnostics.Level.DEBUG,
                         "[AI4SE][RT] t=" + ts +
                                 " word=" + word +
                                 " token=" + token +
@@ -8,6 +8,7 @@ import com.intellij.openapi.project.Project;
 import com.intellij.psi.*;
 import com.intellij.openapi.vfs.VirtualFile;
 import com.intellij.openapi.fileEditor.FileDocumentManager;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
 import org.jetbrains.annotations.NotNull;
 
 import javax.swing.*;
@@ -34,7 +35,7 @@ public class JsonEyeTrackerMapper {
 
         Editor editor = FileEditorManager.getInstance(project).getSelectedTextEditor();
         if (editor == null) {
-            System.out.println("[AI4SE] No active editor for gaze.");
+            Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] No active editor for gaze.");
             return;
         }
 
@@ -44,7 +45,7 @@ public class JsonEyeTrackerMapper {
         // 🔹 Reuse your calibrated GazeMapper
         Point screenPoint = GazeMapper.gazeToScreenPoint(avgX, avgY);
         if (screenPoint == null) {
-            System.out.println("[AI4SE] Gaze off-screen / bad monitor index.");
+            Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Gaze off-screen / bad monitor index.");
             return;
         }
 
@@ -53,26 +54,28 @@ public class JsonEyeTrackerMapper {
         try {
             editorOnScreen = content.getLocationOnScreen();
         } catch (IllegalComponentStateException e) {
-            System.out.println("[AI4SE] Editor not visible.");
+            Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Editor not visible.");
             return;
         }
 
         int localX = screenPoint.x - editorOnScreen.x;
         int localY = screenPoint.y - editorOnScreen.y;
 
-        System.out.printf(
-                "[AI4SE][MAP] avg=(%.3f, %.3f) | screen=(%d,%d) | editorTL=(%d,%d) | local=(%d,%d) | size=(%d,%d)%n",
-                avgX, avgY,
-                screenPoint.x, screenPoint.y,
-                editorOnScreen.x, editorOnScreen.y,
-                localX, localY,
-                content.getWidth(), content.getHeight()
-        );
+        if (Diagnostics.isEnabled(Diagnostics.Level.TRACE)) {
+            Diagnostics.logf(Diagnostics.Level.TRACE,
+                    "[AI4SE][MAP] avg=(%.3f, %.3f) | screen=(%d,%d) | editorTL=(%d,%d) | local=(%d,%d) | size=(%d,%d)",
+                    avgX, avgY,
+                    screenPoint.x, screenPoint.y,
+                    editorOnScreen.x, editorOnScreen.y,
+                    localX, localY,
+                    content.getWidth(), content.getHeight()
+            );
+        }
 
         // 🔹 Simple bounds check: same as EditorGazeMapper
         if (localX < 0 || localY < 0 ||
                 localX >= content.getWidth() || localY >= content.getHeight()) {
-            System.out.println("[AI4SE] Gaze is outside editor bounds.");
+            Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Gaze is outside editor bounds.");
             return;
         }
 
@@ -94,14 +97,16 @@ public class JsonEyeTrackerMapper {
                     ? psiElement.getText()
                     : "";
 
-            System.out.println(
-                    "[AI4SE][GAZE→TOKEN] file=" + path +
-                            " | line=" + logicalPosition.line +
-                            " | col=" + logicalPosition.column +
-                            " | offset=" + offset +
-                            " | token='" + shorten(token) + "'" +
-                            " | screen=(" + screenPoint.x + "," + screenPoint.y + ")"
-            );
+            if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+                Diagnostics.log(Diagnostics.Level.DEBUG,
+                        "[AI4SE][GAZE→TOKEN] file=" + path +
+                                " | line=" + logicalPosition.line +
+                                " | col=" + logicalPosition.column +
+                                " | offset=" + offset +
+                                " | token='" + shorten(token) + "'" +
+                                " | screen=(" + screenPoint.x + "," + screenPoint.y + ")"
+                );
+            }
         });
     }
 
@@ -0,0 +1,151 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.LogicalPosition;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.TextRange;
+import com.intellij.psi.PsiElement;
+import com.intellij.psi.PsiFile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of {@link PsiAncestorChain}s keyed by (PsiFile, modification stamp, leaf range).
+ *
+ * Consecutive samples mostly land on the same leaf, and walking the parent chain with
+ * {@code toString()} / {@code getTextRange()} / offset → position per level is far more
+ * expensive than the lookup. Any PSI change bumps the file's stamp, so stale chains are
+ * simply never hit again and age out. Call inside a read action.
+ */
+@Service(Service.Level.PROJECT)
+public final class PsiAncestorCache implements Disposable {
+
+    private static final int MAX_ENTRIES = Integer.getInteger("ai4se.psi.cacheSize", 256);
+
+    private static final class Key {
+        final PsiFile file;
+        final long stamp;
+        final int start;
+        final int end;
+
+        Key(PsiFile file, long stamp, int start, int end) {
+            this.file = file;
+            this.stamp = stamp;
+            this.start = start;
+            this.end = end;
+        }
+
+        boolean matches(PsiFile file, long stamp, int start, int end) {
+            return this.file == file && this.stamp == stamp && this.start == start && this.end == end;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) return false;
+            Key k = (Key) o;
+            return k.matches(file, stamp, start, end);
+        }
+
+        @Override
+        public int hashCode() {
+            int h = System.identityHashCode(file);
+            h = 31 * h + Long.hashCode(stamp);
+            h = 31 * h + start;
+            return 31 * h + end;
+        }
+    }
+
+    private final Map<Key, PsiAncestorChain> chains =
+            new LinkedHashMap<>(64, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Key, PsiAncestorChain> eldest) {
+                    return size() > MAX_ENTRIES;
+                }
+            };
+
+    // same leaf as last time: no key allocation, no map lookup
+    private Key lastKey;
+    private PsiAncestorChain lastChain;
+
+    private long hits;
+    private long misses;
+
+    public static PsiAncestorCache getInstance(Project project) {
+        return project.getService(PsiAncestorCache.class);
+    }
+
+    /** Chain for {@code leaf} in {@code file}; positions are resolved through {@code editor}. */
+    public synchronized PsiAncestorChain get(PsiFile file, PsiElement leaf, Editor editor) {
+        long stamp = file.getModificationStamp();
+        TextRange range = leaf.getTextRange();
+        int start = range.getStartOffset();
+        int end = range.getEndOffset();
+
+        if (lastKey != null && lastKey.matches(file, stamp, start, end)) {
+            hits++;
+            return lastChain;
+        }
+
+        Key key = new Key(file, stamp, start, end);
+        PsiAncestorChain chain = chains.get(key);
+        if (chain != null) {
+            hits++;
+        } else {
+            misses++;
+            chain = build(leaf, editor);
+            chains.put(key, chain);
+        }
+
+        lastKey = key;
+        lastChain = chain;
+        return chain;
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized void clear() {
+        chains.clear();
+        lastKey = null;
+        lastChain = null;
+    }
+
+    private static PsiAncestorChain build(PsiElement leaf, Editor editor) {
+        String token = leaf.getText();
+        String type = leaf.getNode().getElementType().toString();
+
+        int depth = 0;
+        for (PsiElement p = leaf; p != null && !(p instanceof PsiFile); p = p.getParent()) {
+            depth++;
+        }
+
+        PsiAncestorChain.Level[] levels = new PsiAncestorChain.Level[depth];
+        PsiElement parent = leaf;
+        for (int i = 0; i < depth; i++) {
+            TextRange range = parent.getTextRange();
+            LogicalPosition startPos = editor.offsetToLogicalPosition(range.getStartOffset());
+            LogicalPosition endPos = editor.offsetToLogicalPosition(range.getEndOffset());
+            levels[i] = new PsiAncestorChain.Level(
+                    String.valueOf(parent),
+                    range.getStartOffset(), range.getEndOffset(),
+                    startPos.line, startPos.column,
+                    endPos.line, endPos.column
+            );
+            parent = parent.getParent();
+        }
+        return new PsiAncestorChain(token, type, levels);
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+}
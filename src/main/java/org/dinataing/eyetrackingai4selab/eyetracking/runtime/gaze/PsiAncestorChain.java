@@ -0,0 +1,50 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+/**
+ * Immutable snapshot of a PSI leaf and its ancestors up to (excluding) the file,
+ * as recorded in {@code <ast_structure>}. Built by {@link PsiAncestorCache}.
+ */
+public final class PsiAncestorChain {
+
+    /** One ancestor, innermost first. */
+    public static final class Level {
+        public final String tag;
+        public final int start;
+        public final int end;
+
+        public final int startLine;
+        public final int startColumn;
+        public final int endLine;
+        public final int endColumn;
+
+        Level(String tag, int start, int end,
+              int startLine, int startColumn,
+              int endLine, int endColumn) {
+            this.tag = tag;
+            this.start = start;
+            this.end = end;
+            this.startLine = startLine;
+            this.startColumn = startColumn;
+            this.endLine = endLine;
+            this.endColumn = endColumn;
+        }
+    }
+
+    public final String token;
+    public final String type;
+    private final Level[] levels;
+
+    PsiAncestorChain(String token, String type, Level[] levels) {
+        this.token = token;
+        this.type = type;
+        this.levels = levels;
+    }
+
+    public int size() {
+        return levels.length;
+    }
+
+    public Level level(int i) {
+        return levels[i];
+    }
+}
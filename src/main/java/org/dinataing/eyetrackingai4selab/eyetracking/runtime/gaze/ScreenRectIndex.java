@@ -0,0 +1,129 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import java.awt.*;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Immutable point location over screen rectangles that may overlap (editors in stacked
+ * windows); where they do, the one earlier in the list wins.
+ *
+ * Slab decomposition: the distinct left/right edges cut the x axis into slabs, and each
+ * slab stores the disjoint y segments covered there together with the winning rectangle.
+ * A lookup is two binary searches, O(log n). Building is O(n² log n) with n being a
+ * handful of editors, and only happens after a layout change.
+ */
+final class ScreenRectIndex<T> {
+
+    private static final int[] NO_INTS = new int[0];
+
+    private final Object[] items;
+    private final int[] slabX;     // slab i covers [slabX[i], slabX[i + 1])
+    private final int[][] segTop;  // per slab, ascending
+    private final int[][] segBottom;
+    private final int[][] segItem;
+
+    private ScreenRectIndex(Object[] items, int[] slabX, int[][] segTop, int[][] segBottom, int[][] segItem) {
+        this.items = items;
+        this.slabX = slabX;
+        this.segTop = segTop;
+        this.segBottom = segBottom;
+        this.segItem = segItem;
+    }
+
+    /** {@code rects.get(i)} is where {@code items.get(i)} is; earlier entries are on top. */
+    static <T> ScreenRectIndex<T> build(List<Rectangle> rects, List<T> items) {
+        int n = rects.size();
+        int[] xs = new int[2 * n];
+        for (int i = 0; i < n; i++) {
+            Rectangle r = rects.get(i);
+            xs[2 * i] = r.x;
+            xs[2 * i + 1] = r.x + r.width;
+        }
+        xs = distinctSorted(xs);
+
+        int slabs = Math.max(0, xs.length - 1);
+        int[][] tops = new int[slabs][];
+        int[][] bottoms = new int[slabs][];
+        int[][] owners = new int[slabs][];
+
+        int[] ys = new int[2 * n];
+        int[] top = new int[2 * n];
+        int[] bottom = new int[2 * n];
+        int[] owner = new int[2 * n];
+        for (int s = 0; s < slabs; s++) {
+            int x = xs[s];
+
+            int edges = 0;
+            for (Rectangle r : rects) {
+                if (r.x <= x && x < r.x + r.width) {
+                    ys[edges++] = r.y;
+                    ys[edges++] = r.y + r.height;
+                }
+            }
+            int[] cuts = distinctSorted(Arrays.copyOf(ys, edges));
+
+            int count = 0;
+            for (int c = 0; c + 1 < cuts.length; c++) {
+                int y = cuts[c];
+                int winner = -1;
+                for (int i = 0; i < n && winner < 0; i++) {
+                    Rectangle r = rects.get(i);
+                    if (r.x <= x && x < r.x + r.width && r.y <= y && y < r.y + r.height) {
+                        winner = i;
+                    }
+                }
+                if (winner < 0) continue;
+                if (count > 0 && owner[count - 1] == winner && bottom[count - 1] == y) {
+                    bottom[count - 1] = cuts[c + 1]; // same rectangle continues
+                } else {
+                    top[count] = y;
+                    bottom[count] = cuts[c + 1];
+                    owner[count] = winner;
+                    count++;
+                }
+            }
+            tops[s] = count == 0 ? NO_INTS : Arrays.copyOf(top, count);
+            bottoms[s] = count == 0 ? NO_INTS : Arrays.copyOf(bottom, count);
+            owners[s] = count == 0 ? NO_INTS : Arrays.copyOf(owner, count);
+        }
+        return new ScreenRectIndex<>(items.toArray(), xs, tops, bottoms, owners);
+    }
+
+    /** The topmost item whose rectangle contains (x, y), or null. */
+    @SuppressWarnings("unchecked")
+    T find(int x, int y) {
+        int s = floor(slabX, slabX.length, x);
+        if (s < 0 || s >= slabX.length - 1) return null;
+
+        int[] tops = segTop[s];
+        int j = floor(tops, tops.length, y);
+        if (j < 0 || y >= segBottom[s][j]) return null;
+        return (T) items[segItem[s][j]];
+    }
+
+    int size() {
+        return items.length;
+    }
+
+    /** Index of the last element <= key in a[0..length), or -1. */
+    private static int floor(int[] a, int length, int key) {
+        int lo = 0;
+        int hi = length - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (a[mid] <= key) lo = mid + 1; else hi = mid - 1;
+        }
+        return hi;
+    }
+
+    private static int[] distinctSorted(int[] values) {
+        if (values.length == 0) return values;
+        Arrays.sort(values);
+        int k = 1;
+        for (int i = 1; i < values.length; i++) {
+            if (values[i] != values[k - 1]) values[k++] = values[i];
+        }
+        return Arrays.copyOf(values, k);
+    }
+}
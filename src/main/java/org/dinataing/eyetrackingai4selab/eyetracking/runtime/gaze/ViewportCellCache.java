@@ -0,0 +1,141 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.LogicalPosition;
+
+import java.awt.*;
+
+/**
+ * Memoizes editor-local point → document offset / logical position per character cell.
+ *
+ * {@code xyToLogicalPosition} has to account for soft wraps, folding and inlays, yet during
+ * a fixation the eye stays on the same few characters for hundreds of milliseconds. Local
+ * coordinates are quantized into cells of one line height by one plain character width and
+ * each cell keeps up to two results in a small direct-mapped table, so repeated samples in
+ * the same cell resolve in O(1) without allocating.
+ *
+ * A cached result is only returned for points that {@code xyToLogicalPosition} maps to it
+ * as well: strictly within half a character of its column and on its line. Results are
+ * only cached where the columns around them are exactly one plain character apart on the
+ * same visual line, so lines with inlays, fold placeholders, wide characters or a
+ * proportional font, and soft wrap boundaries, are resolved on every sample as before.
+ *
+ * Content-local coordinates don't change on scrolling; entries are dropped when the
+ * document changes (modification stamp), when the line height or character width changes
+ * (font size), and via {@link #clear()} when the layout changes (folding, inlays, resize).
+ * EDT / read action only.
+ */
+public final class ViewportCellCache {
+
+    private static final int SIZE = 1024; // power of two, two ways per cell
+    private static final long EMPTY = Long.MIN_VALUE;
+
+    private final long[] keys = new long[SIZE];
+    private final int[] offsets = new int[SIZE];
+    private final LogicalPosition[] positions = new LogicalPosition[SIZE];
+    private final int[] columnX = new int[SIZE]; // x of the resolved column
+    private final int[] lineY = new int[SIZE];   // top of its line
+
+    private long documentStamp = -1;
+    private int lineHeight = -1;
+    private int charWidth = -1;
+
+    private LogicalPosition lastPosition;
+
+    private long hits;
+    private long misses;
+
+    public ViewportCellCache() {
+        clear();
+    }
+
+    /**
+     * Resolve a content-local point to a document offset.
+     * The matching logical position is available from {@link #getLastPosition()}.
+     */
+    public int resolve(Editor editor, int localX, int localY, int lineHeight, int charWidth) {
+        long stamp = editor.getDocument().getModificationStamp();
+        if (stamp != documentStamp || lineHeight != this.lineHeight || charWidth != this.charWidth) {
+            clear();
+            documentStamp = stamp;
+            this.lineHeight = lineHeight;
+            this.charWidth = charWidth;
+        }
+
+        int cellX = Math.floorDiv(localX, Math.max(1, charWidth));
+        int cellY = Math.floorDiv(localY, Math.max(1, lineHeight));
+        long key = ((long) cellX << 32) | (cellY & 0xFFFFFFFFL);
+        int slot = slot(key);
+
+        // a cell is one character wide, so it overlaps at most two characters
+        for (int i = slot; i < slot + 2; i++) {
+            if (keys[i] == key && contains(i, localX, localY)) {
+                hits++;
+                lastPosition = positions[i];
+                return offsets[i];
+            }
+        }
+
+        misses++;
+        LogicalPosition position = editor.xyToLogicalPosition(new Point(localX, localY));
+        int offset = editor.logicalPositionToOffset(position);
+        lastPosition = position;
+
+        Point xy = editor.logicalPositionToXY(position);
+        if (isPlainColumn(editor, position, xy)) {
+            keys[slot + 1] = keys[slot];
+            offsets[slot + 1] = offsets[slot];
+            positions[slot + 1] = positions[slot];
+            columnX[slot + 1] = columnX[slot];
+            lineY[slot + 1] = lineY[slot];
+
+            keys[slot] = key;
+            offsets[slot] = offset;
+            positions[slot] = position;
+            columnX[slot] = xy.x;
+            lineY[slot] = xy.y;
+            if (!contains(slot, localX, localY)) keys[slot] = EMPTY; // on a rounding boundary
+        }
+        return offset;
+    }
+
+    /** Logical position of the last {@link #resolve} call. */
+    public LogicalPosition getLastPosition() {
+        return lastPosition;
+    }
+
+    public void clear() {
+        for (int i = 0; i < SIZE; i++) {
+            keys[i] = EMPTY;
+            positions[i] = null;
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    /** True if (x, y) is nearer to entry {@code i}'s column than to its neighbors, on its line. */
+    private boolean contains(int i, int x, int y) {
+        return Math.abs(2 * (x - columnX[i])) < charWidth
+                && y >= lineY[i] && y < lineY[i] + lineHeight;
+    }
+
+    /** True if the columns around {@code position} are one plain character away on the same visual line. */
+    private boolean isPlainColumn(Editor editor, LogicalPosition position, Point xy) {
+        Point next = editor.logicalPositionToXY(new LogicalPosition(position.line, position.column + 1));
+        if (next.y != xy.y || next.x - xy.x != charWidth) return false;
+        if (position.column == 0) return true; // nothing to round to on the left
+        Point previous = editor.logicalPositionToXY(new LogicalPosition(position.line, position.column - 1));
+        return previous.y == xy.y && xy.x - previous.x == charWidth;
+    }
+
+    private static int slot(long key) {
+        long h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h >>> 32) & (SIZE - 2);
+    }
+}
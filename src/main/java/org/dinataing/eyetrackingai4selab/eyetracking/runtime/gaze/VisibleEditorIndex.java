@@ -0,0 +1,116 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.Editor;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.EditorKind;
+import com.intellij.openapi.editor.event.EditorFactoryEvent;
+import com.intellij.openapi.editor.event.EditorFactoryListener;
+import com.intellij.openapi.project.Project;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Which editor is under a screen point: the visible text areas of all showing editors
+ * (split panes, detached editor windows, diff panes, other project frames) in a
+ * {@link ScreenRectIndex}, so every sample is routed in O(log n) to the editor actually
+ * looked at instead of the selected one.
+ *
+ * The index is rebuilt lazily, on the first lookup after a layout change: editors
+ * created / released, and every invalidation in {@link EditorGeometryCache} (scrolling,
+ * resizing, moving, showing / hiding, selection changes). Geometry comes from those
+ * caches, so a rebuild only recomputes the editors that actually changed. Where windows
+ * overlap, editors in the active window win. EDT only.
+ */
+@Service
+public final class VisibleEditorIndex implements Disposable {
+
+    private volatile boolean dirty = true;
+    private ScreenRectIndex<EditorGeometryCache.Geometry> index;
+
+    public VisibleEditorIndex() {
+        EditorFactory.getInstance().addEditorFactoryListener(new EditorFactoryListener() {
+            @Override
+            public void editorCreated(@NotNull EditorFactoryEvent event) {
+                markDirty();
+            }
+
+            @Override
+            public void editorReleased(@NotNull EditorFactoryEvent event) {
+                markDirty();
+            }
+        }, this);
+    }
+
+    public static VisibleEditorIndex getInstance() {
+        return ApplicationManager.getApplication().getService(VisibleEditorIndex.class);
+    }
+
+    /** Some editor's position or visibility changed; rebuild before the next lookup. */
+    public void markDirty() {
+        dirty = true;
+    }
+
+    /** Geometry of the editor whose visible text area contains the screen point, or null. */
+    public EditorGeometryCache.Geometry editorAt(int screenX, int screenY) {
+        if (dirty) {
+            rebuild();
+        }
+        return index.find(screenX, screenY);
+    }
+
+    private void rebuild() {
+        dirty = false; // invalidations while computing geometry below mark it again
+
+        Window active = KeyboardFocusManager.getCurrentKeyboardFocusManager().getActiveWindow();
+        List<EditorGeometryCache.Geometry> front = new ArrayList<>();
+        List<EditorGeometryCache.Geometry> back = new ArrayList<>();
+
+        for (Editor editor : EditorFactory.getInstance().getAllEditors()) {
+            if (editor.isDisposed() || !isGazeTarget(editor)) continue;
+            Project project = editor.getProject();
+            if (project == null || project.isDisposed()) continue;
+
+            // attaches the layout listeners on first use, hidden editors included
+            EditorGeometryCache.Geometry geo = EditorGeometryCache.getInstance(project).getGeometry(editor);
+            if (!geo.showing || geo.visibleWidth <= 0 || geo.visibleHeight <= 0) continue;
+
+            boolean inActiveWindow = active != null
+                    && SwingUtilities.getWindowAncestor(editor.getContentComponent()) == active;
+            (inActiveWindow ? front : back).add(geo);
+        }
+
+        List<EditorGeometryCache.Geometry> ordered = new ArrayList<>(front);
+        ordered.addAll(back);
+        List<Rectangle> rects = new ArrayList<>(ordered.size());
+        for (EditorGeometryCache.Geometry geo : ordered) {
+            // +1: Geometry.isVisible includes the right / bottom edge
+            rects.add(new Rectangle(geo.originX + geo.visibleX, geo.originY + geo.visibleY,
+                    geo.visibleWidth + 1, geo.visibleHeight + 1));
+        }
+        index = ScreenRectIndex.build(rects, ordered);
+
+        if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+            Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Visible editor index rebuilt: " + index.size() + " editors");
+        }
+    }
+
+    /** Source and diff editors; not consoles, previews or text fields. */
+    private static boolean isGazeTarget(Editor editor) {
+        EditorKind kind = editor.getEditorKind();
+        return kind == EditorKind.MAIN_EDITOR || kind == EditorKind.DIFF;
+    }
+
+    @Override
+    public void dispose() {
+        index = null;
+        dirty = true;
+    }
+}
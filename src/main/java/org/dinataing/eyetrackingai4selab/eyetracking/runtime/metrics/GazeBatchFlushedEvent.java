@@ -0,0 +1,27 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One dispatcher hand-off to the EDT, including the wait for the EDT. */
+@Name("ai4se.GazeBatchFlushed")
+@Label("Gaze Batch Flushed")
+@Category({"AI4SE", "Gaze Pipeline"})
+@Description("The dispatcher delivered a batch of gaze frames to the EDT")
+@StackTrace(false)
+public class GazeBatchFlushedEvent extends Event {
+
+    @Label("Frames")
+    public int count;
+
+    @Label("Queued After")
+    @Description("Frames still waiting in the ring when the batch was done")
+    public int backlog;
+
+    @Label("Dropped Total")
+    public long dropped;
+}
@@ -0,0 +1,26 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Why a gaze frame could not be mapped to a character. */
+@Name("ai4se.GazeMappingFailed")
+@Label("Gaze Mapping Failed")
+@Category({"AI4SE", "Gaze Pipeline"})
+@Description("A gaze frame could not be mapped to a character in the editor")
+@StackTrace(false)
+public class GazeMappingFailedEvent extends Event {
+
+    @Label("Reason")
+    public String reason;
+
+    @Label("Gaze X")
+    public double gx;
+
+    @Label("Gaze Y")
+    public double gy;
+}
@@ -0,0 +1,151 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Per-stage latency histograms and throughput counters for one tracking session.
+ *
+ * Stages follow a sample from the tracker to the recorded {@code <gaze>}:
+ * <pre>
+ *   TRANSPORT   tracker timestamp (eyetracker.py) → line read from stdout
+ *   DECODE      JSON line → GazeSample
+ *   QUEUE_WAIT  read → EDT stage picks it up (ring + dispatcher + EDT queue)
+ *   SCREEN_MAPPING     gaze → editor-local point
+ *   OFFSET_RESOLUTION  local point → offset / char / word
+ *   PSI_LOOKUP         offset → PSI leaf + ancestor chain
+ *   RECORD      building and recording the &lt;gaze&gt; element
+ *   END_TO_END  read → recorded (handler fired)
+ * </pre>
+ * TRANSPORT compares the tracker's wall clock (ms) with ours, so it is only meaningful
+ * when both run on the same host. Enabled by default; {@code -Dai4se.metrics=false}
+ * turns every call into a field read.
+ */
+public final class GazeMetrics {
+
+    public enum Stage {
+        TRANSPORT,
+        DECODE,
+        QUEUE_WAIT,
+        SCREEN_MAPPING,
+        OFFSET_RESOLUTION,
+        PSI_LOOKUP,
+        RECORD,
+        END_TO_END
+    }
+
+    public static final boolean ENABLED =
+            Boolean.parseBoolean(System.getProperty("ai4se.metrics", "true"));
+
+    private static final Stage[] STAGES = Stage.values();
+    private static final LatencyHistogram[] histograms = new LatencyHistogram[STAGES.length];
+
+    static {
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    private static final LongAdder received = new LongAdder();
+    private static final LongAdder mapped = new LongAdder();
+    private static final LongAdder failed = new LongAdder();
+
+    private static volatile long sessionStartNanos = System.nanoTime();
+
+    private GazeMetrics() {}
+
+    /** {@code System.nanoTime()} if metrics are on, else 0 — pairs with {@link #since}. */
+    public static long now() {
+        return ENABLED ? System.nanoTime() : 0L;
+    }
+
+    /** Record {@code now - startNanos} for {@code stage}. */
+    public static void since(Stage stage, long startNanos) {
+        if (!ENABLED || startNanos == 0) return;
+        histograms[stage.ordinal()].record(System.nanoTime() - startNanos);
+    }
+
+    public static void record(Stage stage, long nanos) {
+        if (!ENABLED) return;
+        histograms[stage.ordinal()].record(nanos);
+    }
+
+    /** Tracker timestamp (ms since epoch) → now. */
+    public static void recordTransport(long trackerTimestampMillis) {
+        if (!ENABLED || trackerTimestampMillis <= 0) return;
+        long ms = System.currentTimeMillis() - trackerTimestampMillis;
+        histograms[Stage.TRANSPORT.ordinal()].record(ms * 1_000_000L);
+    }
+
+    public static void sampleReceived() {
+        if (ENABLED) received.increment();
+    }
+
+    public static void sampleMapped() {
+        if (ENABLED) mapped.increment();
+    }
+
+    public static void mappingFailed() {
+        if (ENABLED) failed.increment();
+    }
+
+    public static LatencyHistogram histogram(Stage stage) {
+        return histograms[stage.ordinal()];
+    }
+
+    /** Start a new session: clear all histograms and counters. */
+    public static void reset() {
+        for (LatencyHistogram h : histograms) {
+            h.reset();
+        }
+        received.reset();
+        mapped.reset();
+        failed.reset();
+        sessionStartNanos = System.nanoTime();
+    }
+
+    /** Human-readable table of all stages (µs) and throughput. */
+    public static String report() {
+        double seconds = Math.max(1e-9, (System.nanoTime() - sessionStartNanos) / 1e9);
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+
+        out.printf("AI4SE gaze pipeline latency (session %.1f s)%n%n", seconds);
+        out.printf("%-18s %10s %10s %10s %10s %10s %10s%n",
+                "stage", "count", "mean_us", "p50_us", "p90_us", "p99_us", "max_us");
+        for (Stage stage : STAGES) {
+            LatencyHistogram h = histograms[stage.ordinal()];
+            out.printf("%-18s %10d %10.1f %10.1f %10.1f %10.1f %10.1f%n",
+                    stage, h.getCount(),
+                    h.getMean() / 1000.0,
+                    h.getPercentile(0.50) / 1000.0,
+                    h.getPercentile(0.90) / 1000.0,
+                    h.getPercentile(0.99) / 1000.0,
+                    h.getMax() / 1000.0);
+        }
+
+        long r = received.sum();
+        long m = mapped.sum();
+        long f = failed.sum();
+        out.printf("%nreceived %d (%.1f/s), mapped %d (%.1f/s), mapping failed %d (%.1f/s)%n",
+                r, r / seconds, m, m / seconds, f, f / seconds);
+        out.flush();
+        return text.toString();
+    }
+
+    /** Write {@link #report()} to {@code latency-<time>.txt} in {@code dir}; returns the file. */
+    public static Path dump(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        String stamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+        Path file = dir.resolve("latency-" + stamp + ".txt");
+        Files.writeString(file, report(), StandardCharsets.UTF_8);
+        return file;
+    }
+}
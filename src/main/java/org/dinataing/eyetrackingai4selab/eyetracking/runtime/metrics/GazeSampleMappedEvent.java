@@ -0,0 +1,37 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Threshold;
+
+/** Mapping and recording of one gaze frame on the EDT; only slow ones by default. */
+@Name("ai4se.GazeSampleMapped")
+@Label("Gaze Sample Mapped")
+@Category({"AI4SE", "Gaze Pipeline"})
+@Description("A gaze frame was mapped to the editor / PSI and recorded")
+@Threshold("1 ms")
+@StackTrace(false)
+public class GazeSampleMappedEvent extends Event {
+
+    @Label("Tracker Timestamp")
+    public long trackerTimestamp;
+
+    @Label("Mapped")
+    public boolean mapped;
+
+    @Label("Offset")
+    public int offset;
+
+    @Label("Line")
+    public int line;
+
+    @Label("Element Type")
+    public String elementType;
+
+    @Label("Fixation")
+    public int fixationId;
+}
@@ -0,0 +1,31 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** One gaze frame decoded from the tracker. Off by default (one event per sample). */
+@Name("ai4se.GazeSampleReceived")
+@Label("Gaze Sample Received")
+@Category({"AI4SE", "Gaze Pipeline"})
+@Description("A gaze frame was read and decoded from the tracker process")
+@Enabled(false)
+@StackTrace(false)
+public class GazeSampleReceivedEvent extends Event {
+
+    @Label("Tracker Timestamp")
+    public long trackerTimestamp;
+
+    @Label("Gaze X")
+    public double gx;
+
+    @Label("Gaze Y")
+    public double gy;
+
+    @Label("Valid Eyes")
+    public int validEyes;
+}
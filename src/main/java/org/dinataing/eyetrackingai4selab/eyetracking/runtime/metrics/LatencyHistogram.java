@@ -0,0 +1,95 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free, log-bucketed latency histogram (HDR-style): every power of two is split
+ * into {@value #SUB_BUCKETS} linear sub-buckets, so any recorded value is reported
+ * within ~12.5% over the full {@code long} nanosecond range with a fixed 488-slot
+ * array. Recording is one bucket increment plus sum / max updates; safe from any thread.
+ */
+public final class LatencyHistogram {
+
+    private static final int SUB_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int BUCKETS = (64 - SUB_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong sum = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    /** Record one value in nanoseconds; negative values count as 0. */
+    public void record(long nanos) {
+        long v = Math.max(0, nanos);
+        counts.incrementAndGet(index(v));
+        count.incrementAndGet();
+        sum.addAndGet(v);
+
+        long m = max.get();
+        while (v > m && !max.compareAndSet(m, v)) {
+            m = max.get();
+        }
+    }
+
+    public long getCount() {
+        return count.get();
+    }
+
+    public long getMax() {
+        return max.get();
+    }
+
+    public double getMean() {
+        long n = count.get();
+        return n == 0 ? 0 : (double) sum.get() / n;
+    }
+
+    /**
+     * Value at quantile {@code q} (0..1), reported as the upper bound of its bucket
+     * (never above the recorded max). 0 if empty.
+     */
+    public long getPercentile(double q) {
+        long n = count.get();
+        if (n == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(q * n));
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(upperBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    public void reset() {
+        for (int i = 0; i < BUCKETS; i++) {
+            counts.set(i, 0);
+        }
+        count.set(0);
+        sum.set(0);
+        max.set(0);
+    }
+
+    static int index(long v) {
+        if (v < SUB_BUCKETS) {
+            return (int) v;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(v);
+        int shift = msb - SUB_BITS;
+        int sub = (int) (v >>> shift) & (SUB_BUCKETS - 1);
+        return (shift + 1) * SUB_BUCKETS + sub;
+    }
+
+    static long upperBound(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int shift = index / SUB_BUCKETS - 1;
+        long sub = index % SUB_BUCKETS;
+        long lower = (SUB_BUCKETS + sub) << shift;
+        return lower + (1L << shift) - 1;
+    }
+}
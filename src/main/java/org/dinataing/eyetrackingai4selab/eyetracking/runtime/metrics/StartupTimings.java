@@ -0,0 +1,32 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Wall-clock durations of the phases of one tracker start (docker check, image,
+ * container start, first sample, ...), printed as one line when complete.
+ */
+public final class StartupTimings {
+
+    private final long startNanos = System.nanoTime();
+    private long lastNanos = startNanos;
+    private final List<String> phases = new ArrayList<>();
+
+    /** End the current phase, named {@code phase}, now. */
+    public synchronized void mark(String phase) {
+        long now = System.nanoTime();
+        phases.add(phase + " " + TimeUnit.NANOSECONDS.toMillis(now - lastNanos) + " ms");
+        lastNanos = now;
+    }
+
+    public synchronized long totalMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(lastNanos - startNanos);
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.join(", ", phases) + " (total " + totalMillis() + " ms)";
+    }
+}
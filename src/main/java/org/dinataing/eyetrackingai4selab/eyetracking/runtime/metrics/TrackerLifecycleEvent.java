@@ -0,0 +1,26 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/** Tracker container phases (image build, start, stop, exit); duration covers the phase. */
+@Name("ai4se.TrackerLifecycle")
+@Label("Tracker Lifecycle")
+@Category({"AI4SE", "Tracker"})
+@Description("A phase of the eye tracker container's lifecycle")
+@StackTrace(false)
+public class TrackerLifecycleEvent extends Event {
+
+    @Label("Phase")
+    public String phase;
+
+    @Label("Image")
+    public String image;
+
+    @Label("Exit Code")
+    public int exitCode;
+}
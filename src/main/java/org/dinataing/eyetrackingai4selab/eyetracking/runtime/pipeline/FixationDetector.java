@@ -0,0 +1,278 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+/**
+ * Streaming fixation classifier. Labels every sample with
+ * {@link GazeSample#fixationId} (0 = saccade / gap, &gt; 0 = fixation) and the running
+ * fixation centroid, so later stages can work per fixation instead of per sample.
+ *
+ * <ul>
+ *   <li>{@link Algorithm#IVT}: velocity-threshold. A sample is a fixation candidate if
+ *       the gaze moved slower than {@code velocityThreshold} (normalized display units per
+ *       second) over the last {@value #VELOCITY_WINDOW_MS} ms; a run of candidates
+ *       becomes a fixation once it lasted {@code minDurationMillis}.</li>
+ *   <li>{@link Algorithm#IDT}: dispersion-threshold. A window spanning
+ *       {@code minDurationMillis} whose dispersion ((max x − min x) + (max y − min y))
+ *       stays under {@code dispersionThreshold} starts a fixation, which grows until a
+ *       sample would exceed it.</li>
+ * </ul>
+ *
+ * Works online: samples are labeled as they pass, so the samples that confirmed a
+ * fixation (its first {@code minDurationMillis}) are still labeled 0; they and any other
+ * sample that may still become part of one have {@link GazeSample#fixationCandidate} set
+ * (I-VT: slower than the threshold; I-DT: every valid sample, as a window is only known
+ * not to be a fixation once it has been passed). Gaps of invalid samples longer than {@code maxGapMillis} end the current fixation.
+ *
+ * All state is primitive and preallocated. Single-threaded (dispatcher thread).
+ */
+public final class FixationDetector {
+
+    public enum Algorithm {
+        /** Don't classify; samples keep fixationId -1. */
+        NONE,
+        IVT,
+        IDT
+    }
+
+    /** How {@code EyeTracker} maps classified samples. */
+    public enum Mapping {
+        /** Map every sample; fixations are only annotated. */
+        PER_SAMPLE,
+        /** Map each fixation once at its centroid and reuse the hit; don't map saccades. */
+        PER_FIXATION
+    }
+
+    static final long VELOCITY_WINDOW_MS = 20;
+    private static final int WINDOW_CAPACITY = 1024; // > 800 ms at 1200 Hz
+
+    private final Algorithm algorithm;
+    private final double velocityThreshold;
+    private final double dispersionThreshold;
+    private final long minDurationMillis;
+    private final long maxGapMillis;
+
+    // window of recent valid samples (IVT: velocity window, IDT: candidate window)
+    private final long[] ts = new long[WINDOW_CAPACITY];
+    private final double[] xs = new double[WINDOW_CAPACITY];
+    private final double[] ys = new double[WINDOW_CAPACITY];
+    private int head = 0; // oldest
+    private int size = 0;
+
+    private long lastValidTs = Long.MIN_VALUE;
+
+    // current fixation (id 0 = none)
+    private int nextId = 1;
+    private int currentId = 0;
+    private int count;
+    private double sumX, sumY;
+    private double minX, maxX, minY, maxY;
+
+    // IVT candidate run
+    private long candidateStart = -1;
+    private int candidateCount;
+    private double candidateSumX, candidateSumY;
+
+    // whether the last valid sample may still belong to a fixation that isn't confirmed yet
+    private boolean candidate;
+
+    public FixationDetector(Algorithm algorithm,
+                            double velocityThreshold,
+                            double dispersionThreshold,
+                            long minDurationMillis,
+                            long maxGapMillis) {
+        this.algorithm = algorithm;
+        this.velocityThreshold = velocityThreshold;
+        this.dispersionThreshold = dispersionThreshold;
+        this.minDurationMillis = Math.max(0, minDurationMillis);
+        this.maxGapMillis = Math.max(0, maxGapMillis);
+    }
+
+    public Algorithm getAlgorithm() {
+        return algorithm;
+    }
+
+    /** Number of fixations detected so far. */
+    public int getFixationCount() {
+        return nextId - 1;
+    }
+
+    /** Classify {@code s} in place. */
+    public void process(GazeSample s) {
+        if (algorithm == Algorithm.NONE) {
+            return;
+        }
+
+        long t = s.timestamp;
+        double x = s.sx; // smoothed if the pipeline filters
+        double y = s.sy;
+
+        if (lastValidTs != Long.MIN_VALUE && t - lastValidTs > maxGapMillis) {
+            // blink / lost tracking: nothing before the gap belongs to what comes next
+            endFixation();
+            clearWindow();
+            candidateStart = -1;
+            candidate = false;
+        }
+
+        if (Double.isNaN(x) || Double.isNaN(y)) {
+            label(s, 0);
+            return;
+        }
+        lastValidTs = t;
+
+        if (algorithm == Algorithm.IVT) {
+            processVelocity(t, x, y);
+            candidate = candidateStart >= 0;
+        } else {
+            processDispersion(t, x, y);
+        }
+        label(s, currentId);
+    }
+
+    private void processVelocity(long t, double x, double y) {
+        push(t, x, y);
+        // keep exactly one sample at least VELOCITY_WINDOW_MS old as the reference
+        while (size > 1 && t - ts[index(1)] >= VELOCITY_WINDOW_MS) {
+            pop();
+        }
+
+        long dt = t - ts[head];
+        double velocity = dt > 0
+                ? Math.hypot(x - xs[head], y - ys[head]) * 1000.0 / dt
+                : 0.0;
+
+        if (velocity >= velocityThreshold) {
+            endFixation();
+            candidateStart = -1;
+            return;
+        }
+
+        if (currentId > 0) {
+            extendFixation(x, y);
+            return;
+        }
+
+        if (candidateStart < 0) {
+            candidateStart = t;
+            candidateCount = 0;
+            candidateSumX = candidateSumY = 0;
+        }
+        candidateCount++;
+        candidateSumX += x;
+        candidateSumY += y;
+
+        if (t - candidateStart >= minDurationMillis) {
+            currentId = nextId++;
+            count = candidateCount;
+            sumX = candidateSumX;
+            sumY = candidateSumY;
+            candidateStart = -1;
+        }
+    }
+
+    private void processDispersion(long t, double x, double y) {
+        if (currentId > 0) {
+            double nMinX = Math.min(minX, x);
+            double nMaxX = Math.max(maxX, x);
+            double nMinY = Math.min(minY, y);
+            double nMaxY = Math.max(maxY, y);
+            if ((nMaxX - nMinX) + (nMaxY - nMinY) <= dispersionThreshold) {
+                extendFixation(x, y);
+                return;
+            }
+            endFixation();
+            clearWindow();
+        }
+
+        push(t, x, y);
+
+        while (size > 0 && t - ts[head] >= minDurationMillis) {
+            double wMinX = Double.POSITIVE_INFINITY, wMaxX = Double.NEGATIVE_INFINITY;
+            double wMinY = Double.POSITIVE_INFINITY, wMaxY = Double.NEGATIVE_INFINITY;
+            double wSumX = 0, wSumY = 0;
+            for (int i = 0; i < size; i++) {
+                int k = index(i);
+                wMinX = Math.min(wMinX, xs[k]);
+                wMaxX = Math.max(wMaxX, xs[k]);
+                wMinY = Math.min(wMinY, ys[k]);
+                wMaxY = Math.max(wMaxY, ys[k]);
+                wSumX += xs[k];
+                wSumY += ys[k];
+            }
+
+            if ((wMaxX - wMinX) + (wMaxY - wMinY) <= dispersionThreshold) {
+                currentId = nextId++;
+                count = size;
+                sumX = wSumX;
+                sumY = wSumY;
+                minX = wMinX;
+                maxX = wMaxX;
+                minY = wMinY;
+                maxY = wMaxY;
+                clearWindow();
+                return;
+            }
+            pop();
+        }
+        // any sample still in the window may yet open a fixation
+        candidate = true;
+    }
+
+    private void extendFixation(double x, double y) {
+        count++;
+        sumX += x;
+        sumY += y;
+        minX = Math.min(minX, x);
+        maxX = Math.max(maxX, x);
+        minY = Math.min(minY, y);
+        maxY = Math.max(maxY, y);
+    }
+
+    private void endFixation() {
+        currentId = 0;
+        count = 0;
+        sumX = sumY = 0;
+        minX = minY = Double.POSITIVE_INFINITY;
+        maxX = maxY = Double.NEGATIVE_INFINITY;
+    }
+
+    private void label(GazeSample s, int id) {
+        s.fixationId = id;
+        s.fixationCandidate = id == 0 && candidate;
+        if (id > 0 && count > 0) {
+            s.fixationX = sumX / count;
+            s.fixationY = sumY / count;
+        } else {
+            s.fixationX = Double.NaN;
+            s.fixationY = Double.NaN;
+        }
+    }
+
+    // --- primitive ring window ---
+
+    private void push(long t, double x, double y) {
+        if (size == WINDOW_CAPACITY) {
+            pop();
+        }
+        int k = index(size);
+        ts[k] = t;
+        xs[k] = x;
+        ys[k] = y;
+        size++;
+    }
+
+    private void pop() {
+        head = (head + 1) % WINDOW_CAPACITY;
+        size--;
+    }
+
+    private void clearWindow() {
+        head = 0;
+        size = 0;
+    }
+
+    private int index(int i) {
+        return (head + i) % WINDOW_CAPACITY;
+    }
+}
@@ -0,0 +1,158 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.diagnostic.Logger;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeBatchFlushedEvent;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Dedicated consumer of a {@link GazeRingBuffer}: takes frames off the ring and runs
+ * the mapping stage for them on the EDT.
+ *
+ * The EDT hand-off uses invokeAndWait, so at most one gaze task is ever queued on the
+ * EDT. If the IDE is busy, frames wait in the bounded ring (and are dropped according
+ * to its overflow policy) instead of piling up in the EDT queue.
+ *
+ * In {@link DispatchMode#COALESCED} mode all frames that arrived since the last
+ * hand-off are delivered as one batch at most once per interval, so a 600 Hz tracker
+ * costs ~60 EDT tasks per second instead of 600.
+ *
+ * An optional {@link SampleStage} runs on the dispatcher thread for every frame before
+ * the hand-off, for per-sample work that doesn't need the EDT (e.g. fixation detection).
+ */
+public class GazeDispatcher {
+
+    private static final Logger LOG = Logger.getInstance(GazeDispatcher.class);
+
+    public enum DispatchMode {
+        /** One EDT task per frame. */
+        PER_SAMPLE,
+        /** One EDT task per interval with every frame received meanwhile. */
+        COALESCED
+    }
+
+    /** Runs on the EDT with {@code batch[0..count)}; the samples are owned by the dispatcher. */
+    @FunctionalInterface
+    public interface BatchStage {
+        void accept(GazeSample[] batch, int count);
+    }
+
+    /** Runs on the dispatcher thread, once per frame and in order, before the EDT stage. */
+    @FunctionalInterface
+    public interface SampleStage {
+        void process(GazeSample sample);
+    }
+
+    private final GazeRingBuffer ring;
+    private final SampleStage sampleStage; // may be null
+    private final BatchStage edtStage;
+    private final DispatchMode mode;
+    private final long intervalNanos;
+    private final GazeSample[] batch;
+
+    private volatile boolean running = false;
+    private Thread thread;
+
+    public GazeDispatcher(GazeRingBuffer ring, BatchStage edtStage, DispatchMode mode, long intervalMillis) {
+        this(ring, null, edtStage, mode, intervalMillis);
+    }
+
+    public GazeDispatcher(GazeRingBuffer ring, SampleStage sampleStage, BatchStage edtStage,
+                          DispatchMode mode, long intervalMillis) {
+        this.ring = ring;
+        this.sampleStage = sampleStage;
+        this.edtStage = edtStage;
+        this.mode = mode;
+        this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(1, intervalMillis));
+
+        this.batch = new GazeSample[mode == DispatchMode.COALESCED ? ring.capacity() : 1];
+        for (int i = 0; i < batch.length; i++) {
+            batch[i] = new GazeSample();
+        }
+    }
+
+    public synchronized void start() {
+        if (running) return;
+        running = true;
+        thread = new Thread(this::run, "AI4SE Gaze Dispatcher");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /**
+     * Stop after delivering what is still queued. Waits for the dispatcher thread
+     * unless called on the EDT, which the dispatcher itself may be waiting for.
+     */
+    public void stop() {
+        Thread t;
+        synchronized (this) {
+            if (!running) return;
+            running = false;
+            t = thread;
+            thread = null;
+        }
+        ring.close();
+
+        if (t != null && !ApplicationManager.getApplication().isDispatchThread()) {
+            try {
+                t.join(TimeUnit.SECONDS.toMillis(2));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    public DispatchMode getMode() {
+        return mode;
+    }
+
+    private void run() {
+        long lastDispatch = System.nanoTime() - intervalNanos;
+        try {
+            while (running || !ring.isEmpty()) {
+                if (!ring.take(batch[0], 100, TimeUnit.MILLISECONDS)) {
+                    continue;
+                }
+                int count = 1;
+
+                if (mode == DispatchMode.COALESCED) {
+                    // let the rest of this frame's samples arrive, then take them all
+                    long wait = lastDispatch + intervalNanos - System.nanoTime();
+                    if (wait > 0 && running) {
+                        LockSupport.parkNanos(this, wait);
+                    }
+                    count += ring.drainTo(batch, 1, batch.length - 1);
+                }
+
+                if (sampleStage != null) {
+                    for (int i = 0; i < count; i++) {
+                        sampleStage.process(batch[i]);
+                    }
+                }
+
+                int n = count;
+                GazeBatchFlushedEvent flushed = new GazeBatchFlushedEvent();
+                flushed.begin();
+                ApplicationManager.getApplication().invokeAndWait(
+                        () -> edtStage.accept(batch, n),
+                        ModalityState.any()
+                );
+                lastDispatch = System.nanoTime();
+                if (flushed.shouldCommit()) {
+                    flushed.count = n;
+                    flushed.backlog = ring.size();
+                    flushed.dropped = ring.getDroppedCount();
+                    flushed.commit();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (Throwable t) {
+            LOG.warn("[AI4SE] Gaze dispatcher stopped unexpectedly", t);
+        }
+    }
+}
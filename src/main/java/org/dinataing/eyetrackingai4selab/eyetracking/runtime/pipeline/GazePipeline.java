@@ -0,0 +1,112 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.EditorGazeMapper;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.gaze.PsiAncestorCache;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
+
+/**
+ * Everything between "a gaze frame was decoded" and "it was mapped / recorded":
+ * <pre>
+ *   reader thread --offer--> GazeRingBuffer --> GazeDispatcher thread --EDT--> EyeTracker / EditorGazeMapper
+ * </pre>
+ * The EDT stage maps and records every frame of a batch but moves the editor
+ * highlight only once, for the newest frame. On the dispatcher thread frames are first
+ * smoothed ({@link GazeSmoother}) and classified into fixations ({@link FixationDetector}).
+ * One pipeline per tracking session.
+ */
+public class GazePipeline {
+
+    private final Project project;
+    private final EyeTracker eyeTracker; // may be null: map only, no recording
+
+    private final GazeRingBuffer ring;
+    private final GazeSmoother smoother; // may be null
+    private final FixationDetector fixations;
+    private final GazeDispatcher dispatcher;
+
+    public GazePipeline(Project project, EyeTracker eyeTracker) {
+        this(project, eyeTracker, TrackingOptions.overflowPolicy());
+    }
+
+    public GazePipeline(Project project, EyeTracker eyeTracker, GazeRingBuffer.OverflowPolicy overflowPolicy) {
+        this.project = project;
+        this.eyeTracker = eyeTracker;
+        this.ring = new GazeRingBuffer(TrackingOptions.ringCapacity(), overflowPolicy);
+        this.smoother = TrackingOptions.newSmoother();
+        this.fixations = TrackingOptions.newFixationDetector();
+        this.dispatcher = new GazeDispatcher(
+                ring,
+                this::processOnDispatcher,
+                this::processOnEdt,
+                TrackingOptions.dispatchMode(),
+                TrackingOptions.dispatchIntervalMillis()
+        );
+    }
+
+    public void start() {
+        dispatcher.start();
+    }
+
+    /** Hand over one decoded frame. Called from the single reader thread; {@code sample} is copied. */
+    public boolean offer(GazeSample sample) {
+        return ring.offer(sample);
+    }
+
+    /** Deliver what is still queued and stop the dispatcher thread. */
+    public void stop() {
+        dispatcher.stop();
+        if (ring.getDroppedCount() > 0) {
+            System.out.println("[AI4SE] Gaze pipeline dropped " + ring.getDroppedCount() +
+                    " of " + ring.getOfferedCount() + " frames (" + ring.getPolicy() + ")");
+        }
+        if (fixations.getAlgorithm() != FixationDetector.Algorithm.NONE) {
+            System.out.println("[AI4SE] Detected " + fixations.getFixationCount() + " fixations (" +
+                    fixations.getAlgorithm() + ")");
+        }
+        if (project != null && !project.isDisposed()) {
+            PsiAncestorCache psiCache = PsiAncestorCache.getInstance(project);
+            System.out.println("[AI4SE] PSI chain cache: " + psiCache.getHits() + " hits, " +
+                    psiCache.getMisses() + " misses");
+        }
+    }
+
+    public GazeRingBuffer getRing() {
+        return ring;
+    }
+
+    private void processOnDispatcher(GazeSample sample) {
+        if (smoother != null) {
+            smoother.apply(sample);
+        }
+        fixations.process(sample);
+    }
+
+    private void processOnEdt(GazeSample[] batch, int count) {
+        if (project == null || project.isDisposed()) {
+            return;
+        }
+
+        // one read action for the whole batch
+        ApplicationManager.getApplication().runReadAction(
+                (Computable<Void>) () -> {
+                    for (int i = 0; i < count; i++) {
+                        GazeSample sample = batch[i];
+                        GazeMetrics.since(GazeMetrics.Stage.QUEUE_WAIT, sample.receivedNanos);
+                        boolean latest = i == count - 1;
+                        if (eyeTracker != null) {
+                            eyeTracker.processSample(project, sample, latest);
+                        } else if (latest) {
+                            EditorGazeMapper.mapGazeToEditor(project, sample.sx, sample.sy);
+                        }
+                    }
+                    return null;
+                }
+        );
+    }
+}
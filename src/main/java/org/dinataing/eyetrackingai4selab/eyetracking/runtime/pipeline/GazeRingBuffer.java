@@ -0,0 +1,190 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Bounded single-producer / single-consumer queue of preallocated {@link GazeSample} slots.
+ *
+ * The producer (the thread reading tracker output) copies frames into slots with
+ * {@link #offer}; the consumer copies them out with {@link #poll} / {@link #take}.
+ * No locks and no allocation on either side. When the consumer falls behind, the
+ * {@link OverflowPolicy} decides what happens to new frames.
+ *
+ * Dropping the oldest frame moves {@code head} from the producer side, so the consumer
+ * claims a slot with a CAS after copying it and retries if the slot was dropped
+ * (and possibly overwritten) in the meantime.
+ */
+public final class GazeRingBuffer {
+
+    public enum OverflowPolicy {
+        /** Overwrite the oldest queued frame; keeps latency low. */
+        DROP_OLDEST,
+        /** Discard the incoming frame; keeps the queued history intact. */
+        DROP_NEWEST,
+        /** Stall the producer until the consumer frees a slot; loses nothing. */
+        BLOCK
+    }
+
+    private static final long BLOCK_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(100);
+
+    private final GazeSample[] slots;
+    private final int mask;
+    private final OverflowPolicy policy;
+
+    private final AtomicLong head = new AtomicLong(); // next slot to read
+    private final AtomicLong tail = new AtomicLong(); // next slot to write
+
+    private final AtomicLong offered = new AtomicLong();
+    private final AtomicLong droppedOldest = new AtomicLong();
+    private final AtomicLong droppedNewest = new AtomicLong();
+
+    private volatile Thread waitingConsumer;
+    private volatile boolean closed = false;
+
+    /** @param capacity rounded up to a power of two */
+    public GazeRingBuffer(int capacity, OverflowPolicy policy) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        this.slots = new GazeSample[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new GazeSample();
+        }
+        this.mask = size - 1;
+        this.policy = policy;
+    }
+
+    // -------------------- Producer --------------------
+
+    /**
+     * Copy {@code src} into the next free slot. Producer thread only.
+     *
+     * @return false if the frame was dropped (DROP_NEWEST, or BLOCK after {@link #close()})
+     */
+    public boolean offer(GazeSample src) {
+        offered.lazySet(offered.get() + 1);
+
+        long t = tail.get();
+        while (t - head.get() >= slots.length) {
+            switch (policy) {
+                case DROP_NEWEST -> {
+                    droppedNewest.incrementAndGet();
+                    return false;
+                }
+                case DROP_OLDEST -> {
+                    long h = head.get();
+                    if (t - h >= slots.length && head.compareAndSet(h, h + 1)) {
+                        droppedOldest.incrementAndGet();
+                    }
+                }
+                case BLOCK -> {
+                    if (closed) {
+                        droppedNewest.incrementAndGet();
+                        return false;
+                    }
+                    LockSupport.parkNanos(this, BLOCK_PARK_NANOS);
+                }
+            }
+        }
+
+        slots[(int) t & mask].copyFrom(src);
+        tail.set(t + 1); // publish; full fence so the waiter check below cannot miss a parked consumer
+
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+        return true;
+    }
+
+    // -------------------- Consumer --------------------
+
+    /** Copy the oldest frame into {@code dst}. Consumer thread only. */
+    public boolean poll(GazeSample dst) {
+        while (true) {
+            long h = head.get();
+            if (h >= tail.get()) return false;
+            dst.copyFrom(slots[(int) h & mask]);
+            if (head.compareAndSet(h, h + 1)) return true;
+            // dropped by the producer while we were copying; the copy may be torn, retry
+        }
+    }
+
+    /**
+     * Copy up to {@code max} frames into {@code batch[from..]}. Consumer thread only.
+     *
+     * @return the number of frames copied
+     */
+    public int drainTo(GazeSample[] batch, int from, int max) {
+        int n = 0;
+        int limit = Math.min(max, batch.length - from);
+        while (n < limit && poll(batch[from + n])) {
+            n++;
+        }
+        return n;
+    }
+
+    /** Like {@link #poll}, but waits up to {@code timeout} for a frame to arrive. */
+    public boolean take(GazeSample dst, long timeout, TimeUnit unit) throws InterruptedException {
+        if (poll(dst)) return true;
+
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        waitingConsumer = Thread.currentThread();
+        try {
+            while (true) {
+                if (poll(dst)) return true;
+                long remaining = deadline - System.nanoTime();
+                if (remaining <= 0 || closed) return false;
+                LockSupport.parkNanos(this, remaining);
+                if (Thread.interrupted()) throw new InterruptedException();
+            }
+        } finally {
+            waitingConsumer = null;
+        }
+    }
+
+    // -------------------- Lifecycle / stats --------------------
+
+    /** Wake up a blocked producer or consumer; BLOCK producers drop from now on. */
+    public void close() {
+        closed = true;
+        Thread consumer = waitingConsumer;
+        if (consumer != null) {
+            LockSupport.unpark(consumer);
+        }
+    }
+
+    public boolean isEmpty() {
+        return head.get() >= tail.get();
+    }
+
+    public int size() {
+        return (int) Math.max(0, tail.get() - head.get());
+    }
+
+    public int capacity() {
+        return slots.length;
+    }
+
+    public OverflowPolicy getPolicy() {
+        return policy;
+    }
+
+    public long getOfferedCount() {
+        return offered.get();
+    }
+
+    public long getDroppedOldestCount() {
+        return droppedOldest.get();
+    }
+
+    public long getDroppedNewestCount() {
+        return droppedNewest.get();
+    }
+
+    public long getDroppedCount() {
+        return droppedOldest.get() + droppedNewest.get();
+    }
+}
@@ -0,0 +1,32 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+/**
+ * Per-sample smoothing of the averaged gaze point. Reads {@link GazeSample#gx}/{@link GazeSample#gy}
+ * and writes the filtered point to {@link GazeSample#sx}/{@link GazeSample#sy}, which is what
+ * gets mapped to the screen; the recorded raw values stay untouched.
+ *
+ * Implementations keep primitive state only and don't allocate per sample.
+ * Single-threaded (dispatcher thread), one instance per session.
+ */
+public interface GazeSmoother {
+
+    enum Kind {
+        NONE,
+        ONE_EURO,
+        KALMAN
+    }
+
+    /** Invalid samples (NaN) pass through; a gap longer than this restarts the filter. */
+    long MAX_GAP_MS = 100;
+
+    void apply(GazeSample sample);
+
+    void reset();
+
+    /** Sample interval in seconds; eyetracker.py stamps whole milliseconds, so equal stamps count as 1 ms. */
+    static double seconds(long fromMillis, long toMillis) {
+        return Math.max(1L, toMillis - fromMillis) / 1000.0;
+    }
+}
@@ -0,0 +1,94 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+/**
+ * Constant-velocity Kalman filter, run independently per axis with state
+ * (position, velocity) and a white-noise acceleration model.
+ *
+ * {@code processNoise} is the acceleration spectral density (normalized units² / s³):
+ * higher follows saccades faster, lower smooths more. {@code measurementNoise} is the
+ * variance of one raw sample (normalized units²).
+ *
+ * @see GazeSmoother
+ */
+public final class KalmanGazeFilter implements GazeSmoother {
+
+    private final double q;
+    private final double r;
+
+    private boolean initialized = false;
+    private long lastTs;
+
+    // per axis: position, velocity, covariance [p00 p01; p01 p11]
+    private double px, vx, x00, x01, x11;
+    private double py, vy, y00, y01, y11;
+
+    public KalmanGazeFilter(double processNoise, double measurementNoise) {
+        this.q = processNoise;
+        this.r = measurementNoise;
+    }
+
+    @Override
+    public void apply(GazeSample s) {
+        if (Double.isNaN(s.gx) || Double.isNaN(s.gy)) {
+            s.sx = s.sy = Double.NaN;
+            return;
+        }
+        if (!initialized || s.timestamp - lastTs > MAX_GAP_MS) {
+            initialized = true;
+            lastTs = s.timestamp;
+            px = s.sx = s.gx;
+            py = s.sy = s.gy;
+            vx = vy = 0;
+            x00 = y00 = r;
+            x01 = y01 = 0;
+            x11 = y11 = 1.0; // velocity unknown
+            return;
+        }
+
+        double dt = GazeSmoother.seconds(lastTs, s.timestamp);
+        lastTs = s.timestamp;
+
+        double q00 = q * dt * dt * dt / 3.0;
+        double q01 = q * dt * dt / 2.0;
+        double q11 = q * dt;
+
+        // x axis: predict
+        px += vx * dt;
+        double p00 = x00 + 2 * dt * x01 + dt * dt * x11 + q00;
+        double p01 = x01 + dt * x11 + q01;
+        double p11 = x11 + q11;
+        // update
+        double k0 = p00 / (p00 + r);
+        double k1 = p01 / (p00 + r);
+        double innovation = s.gx - px;
+        px += k0 * innovation;
+        vx += k1 * innovation;
+        x00 = (1 - k0) * p00;
+        x01 = (1 - k0) * p01;
+        x11 = p11 - k1 * p01;
+
+        // y axis
+        py += vy * dt;
+        p00 = y00 + 2 * dt * y01 + dt * dt * y11 + q00;
+        p01 = y01 + dt * y11 + q01;
+        p11 = y11 + q11;
+        k0 = p00 / (p00 + r);
+        k1 = p01 / (p00 + r);
+        innovation = s.gy - py;
+        py += k0 * innovation;
+        vy += k1 * innovation;
+        y00 = (1 - k0) * p00;
+        y01 = (1 - k0) * p01;
+        y11 = p11 - k1 * p01;
+
+        s.sx = px;
+        s.sy = py;
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+    }
+}
@@ -0,0 +1,71 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+/**
+ * One Euro filter (Casiez et al., CHI 2012) on both axes: a low-pass whose cutoff
+ * rises with the filtered speed, so fixations are smoothed heavily while saccades
+ * pass with little lag.
+ *
+ * @see GazeSmoother
+ */
+public final class OneEuroFilter implements GazeSmoother {
+
+    private final double minCutoff;   // Hz
+    private final double beta;        // cutoff increase per (normalized unit / s)
+    private final double derivativeCutoff; // Hz
+
+    private boolean initialized = false;
+    private long lastTs;
+
+    private double x, y;   // filtered position
+    private double dx, dy; // filtered velocity
+
+    public OneEuroFilter(double minCutoff, double beta, double derivativeCutoff) {
+        this.minCutoff = minCutoff;
+        this.beta = beta;
+        this.derivativeCutoff = derivativeCutoff;
+    }
+
+    @Override
+    public void apply(GazeSample s) {
+        if (Double.isNaN(s.gx) || Double.isNaN(s.gy)) {
+            s.sx = s.sy = Double.NaN;
+            return;
+        }
+        if (!initialized || s.timestamp - lastTs > MAX_GAP_MS) {
+            initialized = true;
+            lastTs = s.timestamp;
+            x = s.sx = s.gx;
+            y = s.sy = s.gy;
+            dx = dy = 0;
+            return;
+        }
+
+        double dt = GazeSmoother.seconds(lastTs, s.timestamp);
+        lastTs = s.timestamp;
+
+        double aD = alpha(derivativeCutoff, dt);
+        dx += aD * ((s.gx - x) / dt - dx);
+        dy += aD * ((s.gy - y) / dt - dy);
+
+        // one cutoff for both axes, from the speed of the point
+        double cutoff = minCutoff + beta * Math.hypot(dx, dy);
+        double a = alpha(cutoff, dt);
+        x += a * (s.gx - x);
+        y += a * (s.gy - y);
+
+        s.sx = x;
+        s.sy = y;
+    }
+
+    @Override
+    public void reset() {
+        initialized = false;
+    }
+
+    private static double alpha(double cutoff, double dt) {
+        double tau = 1.0 / (2 * Math.PI * cutoff);
+        return 1.0 / (1.0 + tau / dt);
+    }
+}
@@ -0,0 +1,88 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.replay;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackerOutputHandler;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazeRingBuffer;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A recorded session as the gaze source of a normal tracking session: the file is fed,
+ * paced like {@link SessionReplayer}, from its own thread. Ends the session at the end
+ * of the file.
+ */
+public final class ReplayGazeSource implements GazeSource {
+
+    private final Path file;
+    private final double speed;
+
+    private SessionReplayer replayer;
+    private Thread thread;
+
+    public ReplayGazeSource(Path file, double speed) {
+        this.file = file;
+        this.speed = speed;
+    }
+
+    @Override
+    public String getName() {
+        return "Replay";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return Files.isReadable(file);
+    }
+
+    @Override
+    public boolean isLive() {
+        return false;
+    }
+
+    @Override
+    public GazeRingBuffer.OverflowPolicy overflowPolicy() {
+        return SessionReplayer.isPaced(speed) ? GazeSource.super.overflowPolicy() : GazeRingBuffer.OverflowPolicy.BLOCK;
+    }
+
+    @Override
+    public synchronized void start(TrackerOutputHandler output, Runnable onEnd) {
+        if (thread != null) return;
+        SessionReplayer r = new SessionReplayer(file, speed);
+        replayer = r;
+        thread = new Thread(() -> {
+            try {
+                r.feed(output);
+                System.out.println("[AI4SE] Replayed " + r.getReplayedLines() + " lines from " + file);
+            } catch (IOException e) {
+                System.err.println("[AI4SE] Replay failed: " + e.getMessage());
+            }
+            if (!r.isCancelled()) onEnd.run();
+        }, "AI4SE Replay");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("[AI4SE] Replaying " + file + " at " + SessionReplayer.describeSpeed(speed));
+    }
+
+    @Override
+    public synchronized void stop() {
+        Thread t = thread;
+        thread = null;
+        if (t == null) return;
+        replayer.cancel();
+        LockSupport.unpark(t); // out of a pacing wait
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Override
+    public synchronized boolean isRunning() {
+        return thread != null && thread.isAlive();
+    }
+}
@@ -0,0 +1,133 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.replay;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Streams a recorded session as tracker stdout lines, one at a time.
+ */
+abstract class ReplaySource implements Closeable {
+
+    /** Next line, or null at the end of the recording. */
+    abstract String next() throws IOException;
+
+    static ReplaySource open(Path file) throws IOException {
+        String name = file.getFileName().toString().toLowerCase();
+        if (name.endsWith(".xml") || name.endsWith(".xml.gz")) {
+            return new XmlSource(file);
+        }
+        return new LineSource(file);
+    }
+
+    /** Raw capture: the lines as eyetracker.py printed them. */
+    private static final class LineSource extends ReplaySource {
+        private final BufferedReader reader;
+
+        LineSource(Path file) throws IOException {
+            reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+        }
+
+        @Override
+        String next() throws IOException {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (!line.isEmpty()) return line;
+            }
+            return null;
+        }
+
+        @Override
+        public void close() throws IOException {
+            reader.close();
+        }
+    }
+
+    /**
+     * {@code eye_tracking.xml} or one of its (compressed) segments: each {@code <gaze>} is turned back into a gaze frame.
+     * The XML keeps only the eye coordinates, so validity is derived (NaN = invalid)
+     * and pupil data is absent.
+     */
+    private static final class XmlSource extends ReplaySource {
+        private final InputStream in;
+        private final XMLStreamReader xml;
+        private final StringBuilder line = new StringBuilder(256);
+
+        XmlSource(Path file) throws IOException {
+            InputStream raw = Files.newInputStream(file);
+            try {
+                in = file.getFileName().toString().toLowerCase().endsWith(".gz")
+                        ? new GZIPInputStream(raw, 1 << 16)
+                        : raw;
+            } catch (IOException e) {
+                raw.close();
+                throw e;
+            }
+            try {
+                XMLInputFactory factory = XMLInputFactory.newInstance();
+                factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+                xml = factory.createXMLStreamReader(in, "UTF-8");
+            } catch (XMLStreamException e) {
+                in.close();
+                throw new IOException("Cannot read " + file, e);
+            }
+        }
+
+        @Override
+        String next() throws IOException {
+            try {
+                while (xml.hasNext()) {
+                    if (xml.next() == XMLStreamConstants.START_ELEMENT && "gaze".equals(xml.getLocalName())) {
+                        return toFrame();
+                    }
+                }
+                return null;
+            } catch (XMLStreamException e) {
+                throw new IOException(e);
+            }
+        }
+
+        private String toFrame() {
+            line.setLength(0);
+            line.append("{\"type\": \"gaze\", \"timestamp\": ").append(attribute("timestamp", "0"));
+            eye("left");
+            eye("right");
+            return line.append('}').toString();
+        }
+
+        private void eye(String side) {
+            String x = attribute(side + "X", "NaN");
+            String y = attribute(side + "Y", "NaN");
+            boolean valid = !"NaN".equals(x) && !"NaN".equals(y);
+            line.append(", \"").append(side).append("X\": ").append(x)
+                    .append(", \"").append(side).append("Y\": ").append(y)
+                    .append(", \"").append(side).append("Validity\": ").append(valid ? 1 : 0);
+        }
+
+        private String attribute(String name, String fallback) {
+            String value = xml.getAttributeValue(null, name);
+            return value == null || value.isEmpty() ? fallback : value;
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                xml.close();
+            } catch (XMLStreamException ignored) {
+                // closing the stream below is what matters
+            } finally {
+                in.close();
+            }
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.replay;
+
+import com.intellij.openapi.project.Project;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeFrameDecoder;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackerOutputHandler;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.eyetracker.EyeTracker;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazePipeline;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazeRingBuffer;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Re-drives the gaze pipeline from a recorded session, without a tracker.
+ *
+ * Input is either a raw capture of eyetracker.py's stdout ({@code raw_gaze.jsonl}, see
+ * {@code -Dai4se.capture.raw}) or a recorded {@code eye_tracking.xml}. Every line goes
+ * through {@link TrackerOutputHandler} into a fresh {@link GazePipeline}, i.e. the same
+ * decode → ring → dispatcher → EDT mapping / recording path as a live Docker session.
+ *
+ * Pacing follows the recorded timestamps:
+ * <ul>
+ *   <li>{@code speed == 1}: real time;</li>
+ *   <li>{@code speed > 1}: N× accelerated;</li>
+ *   <li>{@code speed <= 0}: as fast as possible. The ring then blocks instead of dropping,
+ *       so the achieved rate is what the mapping and recording stages sustain.</li>
+ * </ul>
+ * Pauses in the recording longer than {@value #MAX_IDLE_MS} ms are shortened to that.
+ *
+ * {@link #run()} blocks the calling thread (the "tracker reader") until the file is
+ * consumed and the pipeline drained; {@link #cancel()} stops it early.
+ */
+public final class SessionReplayer {
+
+    static final long MAX_IDLE_MS = 1000;
+
+    /** Lines behind schedule by more than this count as late. */
+    private static final long LATE_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private final Project project;
+    private final EyeTracker eyeTracker; // may be null: map only
+    private final Path file;
+    private final double speed;
+
+    private volatile boolean cancelled;
+    private volatile long replayedLines;
+    private long lateFrames;
+    private long maxLagNanos;
+
+    public SessionReplayer(Project project, EyeTracker eyeTracker, Path file, double speed) {
+        this.project = project;
+        this.eyeTracker = eyeTracker;
+        this.file = file;
+        this.speed = speed;
+    }
+
+    /** Only for {@link #feed}: the pipeline belongs to the caller. */
+    SessionReplayer(Path file, double speed) {
+        this(null, null, file, speed);
+    }
+
+    public static boolean isPaced(double speed) {
+        return speed > 0;
+    }
+
+    public void cancel() {
+        cancelled = true;
+    }
+
+    boolean isCancelled() {
+        return cancelled;
+    }
+
+    /** Lines handed to the pipeline so far; safe to poll from another thread. */
+    public long getReplayedLines() {
+        return replayedLines;
+    }
+
+    public Result run() throws IOException {
+        GazePipeline pipeline = new GazePipeline(project, eyeTracker,
+                isPaced(speed) ? TrackingOptions.overflowPolicy() : GazeRingBuffer.OverflowPolicy.BLOCK);
+        TrackerOutputHandler handler = new TrackerOutputHandler("[AI4SE Replay] ", false);
+        handler.setPipeline(pipeline);
+
+        System.out.println("[AI4SE] Replaying " + file + " at " + describeSpeed(speed));
+        pipeline.start();
+        long startNanos = System.nanoTime();
+        try {
+            feed(handler);
+        } finally {
+            handler.setPipeline(null);
+            pipeline.stop(); // delivers what is still queued
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        GazeRingBuffer ring = pipeline.getRing();
+        Result result = new Result(file, speed, replayedLines, ring.getOfferedCount(), ring.getDroppedCount(),
+                elapsedNanos, lateFrames, maxLagNanos, cancelled);
+        System.out.println(result);
+        if (GazeMetrics.ENABLED) {
+            System.out.println(GazeMetrics.report());
+        }
+        return result;
+    }
+
+    /**
+     * Hand the file's lines to {@code handler}, paced, until the end of the file or
+     * {@link #cancel()}. Blocks the calling thread.
+     */
+    void feed(TrackerOutputHandler handler) throws IOException {
+        boolean paced = isPaced(speed);
+        GazeFrameDecoder clock = new GazeFrameDecoder(); // only to read timestamps for pacing
+        GazeSample probe = new GazeSample();
+
+        long firstTs = Long.MIN_VALUE;
+        long lastTs = Long.MIN_VALUE;
+        long shiftMillis = 0; // recorded time skipped by shortening pauses
+        long startNanos = System.nanoTime();
+
+        try (ReplaySource source = ReplaySource.open(file)) {
+            String line;
+            while (!cancelled && (line = source.next()) != null) {
+                if (paced && firstFrame(clock, line, probe)) {
+                    long ts = probe.timestamp;
+                    if (firstTs == Long.MIN_VALUE) {
+                        firstTs = ts;
+                    } else if (ts - lastTs > MAX_IDLE_MS) {
+                        shiftMillis += ts - lastTs - MAX_IDLE_MS;
+                    }
+                    lastTs = ts;
+
+                    long due = startNanos + (long) ((ts - firstTs - shiftMillis) * 1_000_000L / speed);
+                    long now = System.nanoTime();
+                    while (now < due && !cancelled) {
+                        LockSupport.parkNanos(due - now);
+                        now = System.nanoTime();
+                    }
+                    long lag = now - due;
+                    if (lag > LATE_NANOS) lateFrames++;
+                    if (lag > maxLagNanos) maxLagNanos = lag;
+                }
+
+                handler.handleLine(line);
+                replayedLines++;
+            }
+        }
+    }
+
+    /** Decode the (first) frame of a single or batched gaze line into {@code out}. */
+    private static boolean firstFrame(GazeFrameDecoder decoder, String line, GazeSample out) {
+        if (decoder.beginBatch(line)) {
+            return decoder.nextInBatch(out) == GazeFrameDecoder.GAZE; // a batch is due with its first frame
+        }
+        return decoder.decode(line, out) == GazeFrameDecoder.GAZE;
+    }
+
+    static String describeSpeed(double speed) {
+        if (!isPaced(speed)) return "maximum speed";
+        if (speed == 1.0) return "real time";
+        return speed + "x";
+    }
+
+    /** Summary of one replay run. */
+    public static final class Result {
+        public final Path file;
+        public final double speed;
+        public final long lines;
+        public final long frames;
+        public final long dropped;
+        public final long elapsedNanos;
+        /** Paced runs only: frames handed over more than 1 ms after their due time. */
+        public final long lateFrames;
+        public final long maxLagNanos;
+        public final boolean cancelled;
+
+        Result(Path file, double speed, long lines, long frames, long dropped,
+               long elapsedNanos, long lateFrames, long maxLagNanos, boolean cancelled) {
+            this.file = file;
+            this.speed = speed;
+            this.lines = lines;
+            this.frames = frames;
+            this.dropped = dropped;
+            this.elapsedNanos = elapsedNanos;
+            this.lateFrames = lateFrames;
+            this.maxLagNanos = maxLagNanos;
+            this.cancelled = cancelled;
+        }
+
+        /** Frames per second that made it through the pipeline (including the final drain). */
+        public double framesPerSecond() {
+            return (frames - dropped) / Math.max(1e-9, elapsedNanos / 1e9);
+        }
+
+        @Override
+        public String toString() {
+            String text = String.format(
+                    "[AI4SE] Replay %s: %d frames (%d lines) in %.2f s at %s -> %.0f frames/s, %d dropped",
+                    cancelled ? "cancelled" : "finished",
+                    frames, lines, elapsedNanos / 1e9, describeSpeed(speed), framesPerSecond(), dropped);
+            if (isPaced(speed)) {
+                text += String.format(", %d late (max lag %.1f ms)", lateFrames, maxLagNanos / 1e6);
+            }
+            return text;
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.source;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackerOutputHandler;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.pipeline.GazeRingBuffer;
+
+/**
+ * Where a tracking session's gaze comes from: the Docker container, a local eyetracker.py,
+ * a recording or the synthetic generator. A source only produces tracker output (JSON lines
+ * or decoded samples) into a {@link TrackerOutputHandler}; decoding, the ring, the
+ * dispatcher, mapping and recording are shared and owned by {@code GazeTrackingService}.
+ */
+public interface GazeSource {
+
+    /** Short name for logs, e.g. {@code "Docker"}. */
+    String getName();
+
+    /**
+     * Whether this source can run on this machine. May probe (start a process), so call
+     * it off the EDT; implementations cache the answer.
+     */
+    boolean isAvailable();
+
+    /**
+     * Start producing output into {@code output}. Blocking; call off the EDT.
+     *
+     * @param onEnd run once if the source ends on its own (end of a recording, tracker
+     *              process exited), on the source's thread; not run after {@link #stop()}
+     */
+    void start(TrackerOutputHandler output, Runnable onEnd) throws Exception;
+
+    /** Stop producing; returns once nothing more is handed to the output handler. */
+    void stop();
+
+    boolean isRunning();
+
+    /** False for recordings, whose timestamps are not from the current clock. */
+    default boolean isLive() {
+        return true;
+    }
+
+    /** What the session's ring does when full; a source that can wait may block instead of dropping. */
+    default GazeRingBuffer.OverflowPolicy overflowPolicy() {
+        return TrackingOptions.overflowPolicy();
+    }
+}
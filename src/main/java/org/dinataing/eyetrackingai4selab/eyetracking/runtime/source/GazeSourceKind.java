@@ -0,0 +1,15 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.source;
+
+/** Which {@link GazeSource} a tracking session uses; see {@link GazeSources#select}. */
+public enum GazeSourceKind {
+    /** The cheapest available: synthetic or replay if configured, then local Python, then Docker. */
+    AUTO,
+    /** eyetracker.py in the bundled Docker image. */
+    DOCKER,
+    /** eyetracker.py run by a local Python with {@code tobii_research} installed. */
+    LOCAL,
+    /** A recorded session, {@code -Dai4se.replay.file}. */
+    REPLAY,
+    /** Generated gaze, no tracker. */
+    SYNTHETIC
+}
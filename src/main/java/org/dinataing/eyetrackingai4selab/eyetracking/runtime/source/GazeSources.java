@@ -0,0 +1,55 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.source;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.DockerManager;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.LocalPythonGazeSource;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackingOptions;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.replay.ReplayGazeSource;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.synthetic.SyntheticGazeSource;
+
+import java.nio.file.Path;
+
+/** Picks the {@link GazeSource} for a new tracking session. */
+public final class GazeSources {
+
+    private GazeSources() {}
+
+    /**
+     * The source chosen with {@code -Dai4se.source}. {@link GazeSourceKind#AUTO} takes the
+     * cheapest one: synthetic gaze or a replay if configured, else a local Python with the
+     * Tobii SDK, else Docker. May probe the local Python; call off the EDT.
+     */
+    public static GazeSource select() {
+        GazeSourceKind kind = TrackingOptions.gazeSource();
+        if (kind == GazeSourceKind.AUTO) {
+            if (TrackingOptions.syntheticGaze()) {
+                kind = GazeSourceKind.SYNTHETIC;
+            } else if (TrackingOptions.replayFile() != null) {
+                kind = GazeSourceKind.REPLAY;
+            }
+        }
+
+        switch (kind) {
+            case SYNTHETIC:
+                return new SyntheticGazeSource(
+                        TrackingOptions.syntheticRate(),
+                        TrackingOptions.syntheticPattern(),
+                        TrackingOptions.syntheticSeed()
+                );
+            case REPLAY: {
+                Path file = TrackingOptions.replayFile();
+                if (file == null) {
+                    throw new IllegalStateException("-Dai4se.source=REPLAY needs -Dai4se.replay.file");
+                }
+                return new ReplayGazeSource(file, TrackingOptions.replaySpeed());
+            }
+            case LOCAL:
+                return new LocalPythonGazeSource(TrackingOptions.pythonExecutable());
+            case DOCKER:
+                return DockerManager.getInstance();
+            default: {
+                GazeSource local = new LocalPythonGazeSource(TrackingOptions.pythonExecutable());
+                return local.isAvailable() ? local : DockerManager.getInstance();
+            }
+        }
+    }
+}
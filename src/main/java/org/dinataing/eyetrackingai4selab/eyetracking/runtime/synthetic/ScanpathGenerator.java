@@ -0,0 +1,218 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.synthetic;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+import java.util.Random;
+
+/**
+ * Generates plausible eye movements in normalized display coordinates, one sample at a
+ * time: fixations with fixational jitter, saccades with an eased trajectory, blinks and
+ * glances off the display, depending on the {@link Pattern}.
+ *
+ * Deterministic for a given seed and sequence of sample times. Single-threaded.
+ */
+public final class ScanpathGenerator {
+
+    public enum Pattern {
+        /** Left-to-right fixations along text lines, some regressions, return sweeps. */
+        READING(true, 0.0, 0.0),
+        /** Fixations at random places on screen, connected by saccades. */
+        FIXATIONS(false, 0.0, 0.0),
+        /** {@link #FIXATIONS} with blinks and occasional single-eye dropouts. */
+        BLINKS(false, 0.15, 0.0),
+        /** {@link #FIXATIONS} with glances outside the display area. */
+        OFF_SCREEN(false, 0.0, 0.12),
+        /** {@link #READING} with blinks and off-screen glances. */
+        MIXED(true, 0.08, 0.04),
+        /** Worst case: an unrelated point every sample, some invalid. Defeats every cache. */
+        RANDOM(false, 0.0, 0.0);
+
+        final boolean reading;
+        final double blinkChance;     // per fixation
+        final double offScreenChance; // per fixation
+
+        Pattern(boolean reading, double blinkChance, double offScreenChance) {
+            this.reading = reading;
+            this.blinkChance = blinkChance;
+            this.offScreenChance = offScreenChance;
+        }
+    }
+
+    private enum Phase { FIXATION, SACCADE, BLINK, OFF_SCREEN }
+
+    private static final double JITTER = 0.002;       // fixational noise, normalized units
+    private static final double VERGENCE = 0.004;     // half the left/right eye offset
+    private static final double SINGLE_EYE_LOSS = 0.02;
+
+    // reading layout
+    private static final double LINE_LEFT = 0.12;
+    private static final double LINE_RIGHT = 0.78;
+    private static final double LINE_TOP = 0.15;
+    private static final double LINE_BOTTOM = 0.85;
+    private static final double LINE_HEIGHT = 0.035;
+
+    private final Pattern pattern;
+    private final Random random;
+
+    private Phase phase;
+    private double phaseEnd = Double.NaN; // seconds
+    private double phaseStart;
+
+    // saccade from -> to; fixations / off-screen glances sit at "to"
+    private double fromX, fromY;
+    private double toX = 0.5, toY = 0.5;
+    private boolean offScreenPending;
+    private double returnX, returnY;
+
+    private double lineY = LINE_TOP;
+    private double pupil = 3.5;
+
+    public ScanpathGenerator(Pattern pattern, long seed) {
+        this.pattern = pattern;
+        this.random = new Random(seed);
+    }
+
+    /** Fill eye coordinates, validities and pupils of {@code out} for time {@code t} (seconds). */
+    public void next(double t, GazeSample out) {
+        pupil += (3.5 - pupil) * 0.01 + random.nextGaussian() * 0.01;
+
+        if (pattern == Pattern.RANDOM) {
+            boolean valid = random.nextDouble() >= 0.05;
+            setEyes(out, random.nextDouble(), random.nextDouble(), valid, valid);
+            return;
+        }
+
+        if (Double.isNaN(phaseEnd)) {
+            if (pattern.reading) {
+                toX = LINE_LEFT;
+                toY = lineY;
+            }
+            startFixation(t);
+        }
+        while (t >= phaseEnd) {
+            advance(phaseEnd);
+        }
+
+        double x, y;
+        switch (phase) {
+            case SACCADE: {
+                double p = (t - phaseStart) / (phaseEnd - phaseStart);
+                double eased = p * p * (3 - 2 * p);
+                x = fromX + (toX - fromX) * eased;
+                y = fromY + (toY - fromY) * eased;
+                break;
+            }
+            case BLINK:
+                setEyes(out, Double.NaN, Double.NaN, false, false);
+                return;
+            default:
+                x = toX + random.nextGaussian() * JITTER;
+                y = toY + random.nextGaussian() * JITTER;
+                break;
+        }
+
+        boolean leftValid = true;
+        boolean rightValid = true;
+        if (pattern.blinkChance > 0 && random.nextDouble() < SINGLE_EYE_LOSS) {
+            if (random.nextBoolean()) leftValid = false; else rightValid = false;
+        }
+        setEyes(out, x, y, leftValid, rightValid);
+    }
+
+    private void advance(double t) {
+        switch (phase) {
+            case FIXATION:
+                if (random.nextDouble() < pattern.blinkChance) {
+                    begin(Phase.BLINK, t, uniform(0.10, 0.30));
+                } else if (random.nextDouble() < pattern.offScreenChance) {
+                    returnX = toX;
+                    returnY = toY;
+                    offScreenPending = true;
+                    double[] target = offScreenTarget();
+                    startSaccade(t, target[0], target[1]);
+                } else {
+                    nextTarget(t);
+                }
+                break;
+            case SACCADE:
+                if (offScreenPending) {
+                    offScreenPending = false;
+                    begin(Phase.OFF_SCREEN, t, uniform(0.30, 0.80));
+                } else {
+                    startFixation(t);
+                }
+                break;
+            case BLINK:
+                begin(Phase.FIXATION, t, uniform(0.08, 0.16));
+                break;
+            case OFF_SCREEN:
+                startSaccade(t, returnX, returnY);
+                break;
+        }
+    }
+
+    private void nextTarget(double t) {
+        if (!pattern.reading) {
+            startSaccade(t, uniform(0.05, 0.95), uniform(0.05, 0.95));
+            return;
+        }
+        double x = toX;
+        if (random.nextDouble() < 0.10 && x > LINE_LEFT + 0.05) {
+            x -= uniform(0.02, 0.05); // regression
+        } else {
+            x += uniform(0.03, 0.08);
+        }
+        if (x > LINE_RIGHT) {
+            // return sweep to the next line
+            x = LINE_LEFT + uniform(0.0, 0.02);
+            lineY += LINE_HEIGHT;
+            if (lineY > LINE_BOTTOM) lineY = LINE_TOP;
+        }
+        startSaccade(t, x, lineY);
+    }
+
+    private double[] offScreenTarget() {
+        switch (random.nextInt(3)) {
+            case 0:  return new double[]{uniform(0.2, 0.8), uniform(1.05, 1.3)};   // keyboard
+            case 1:  return new double[]{uniform(-0.3, -0.05), uniform(0.2, 0.8)}; // left of the screen
+            default: return new double[]{uniform(1.05, 1.3), uniform(0.2, 0.8)};   // second monitor
+        }
+    }
+
+    private void startFixation(double t) {
+        begin(Phase.FIXATION, t, pattern.reading ? uniform(0.18, 0.28) : uniform(0.15, 0.40));
+    }
+
+    private void startSaccade(double t, double x, double y) {
+        fromX = toX;
+        fromY = toY;
+        toX = x;
+        toY = y;
+        double amplitude = Math.hypot(toX - fromX, toY - fromY);
+        begin(Phase.SACCADE, t, 0.020 + 0.060 * amplitude);
+    }
+
+    private void begin(Phase next, double t, double duration) {
+        phase = next;
+        phaseStart = t;
+        phaseEnd = t + duration;
+    }
+
+    private void setEyes(GazeSample out, double x, double y, boolean leftValid, boolean rightValid) {
+        out.leftX = leftValid ? x - VERGENCE : Double.NaN;
+        out.leftY = leftValid ? y : Double.NaN;
+        out.leftValidity = leftValid ? 1 : 0;
+        out.leftPupil = leftValid ? pupil : Double.NaN;
+        out.leftPupilValidity = leftValid ? 1 : 0;
+
+        out.rightX = rightValid ? x + VERGENCE : Double.NaN;
+        out.rightY = rightValid ? y : Double.NaN;
+        out.rightValidity = rightValid ? 1 : 0;
+        out.rightPupil = rightValid ? pupil : Double.NaN;
+        out.rightPupilValidity = rightValid ? 1 : 0;
+    }
+
+    private double uniform(double min, double max) {
+        return min + random.nextDouble() * (max - min);
+    }
+}
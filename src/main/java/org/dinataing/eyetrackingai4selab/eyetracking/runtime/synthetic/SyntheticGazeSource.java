@@ -0,0 +1,145 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.synthetic;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackerOutputHandler;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.source.GazeSource;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Stand-in for eyetracker.py when there is no Tobii device (CI, load tests, development).
+ *
+ * A background thread generates frames with {@link ScanpathGenerator} at a fixed rate and
+ * prints them, exactly as eyetracker.py would, into a {@link TrackerOutputHandler}, so
+ * everything after the tracker's stdout (decode, ring, dispatcher, mapping, recording)
+ * runs unchanged.
+ *
+ * Frames are scheduled on an absolute clock; if the thread falls more than
+ * {@value #MAX_BEHIND_FRAMES} frames behind (e.g. a GC pause or a blocking ring), the
+ * missed frames are skipped and counted instead of being sent in a burst.
+ */
+public final class SyntheticGazeSource implements GazeSource {
+
+    public static final int MIN_RATE_HZ = 60;
+    public static final int MAX_RATE_HZ = 1200;
+
+    private static final int MAX_BEHIND_FRAMES = 50;
+
+    private final int rateHz;
+    private final ScanpathGenerator.Pattern pattern;
+    private final long seed;
+    private TrackerOutputHandler handler;
+    private Runnable onEnd;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    private volatile long emitted;
+    private volatile long skipped;
+
+    public SyntheticGazeSource(int rateHz, ScanpathGenerator.Pattern pattern, long seed) {
+        this.rateHz = Math.max(MIN_RATE_HZ, Math.min(MAX_RATE_HZ, rateHz));
+        this.pattern = pattern;
+        this.seed = seed;
+    }
+
+    @Override
+    public String getName() {
+        return "Synthetic";
+    }
+
+    @Override
+    public boolean isAvailable() {
+        return true;
+    }
+
+    @Override
+    public synchronized void start(TrackerOutputHandler handler, Runnable onEnd) {
+        if (thread != null) return;
+        this.handler = handler;
+        this.onEnd = onEnd;
+        running = true;
+        thread = new Thread(this::run, "AI4SE Synthetic Gaze");
+        thread.setDaemon(true);
+        thread.start();
+        System.out.println("[AI4SE] Synthetic gaze source: " + pattern + " at " + rateHz + " Hz (seed " + seed + ")");
+    }
+
+    /** Stop generating; returns once the last frame has been handed over. */
+    @Override
+    public synchronized void stop() {
+        running = false;
+        Thread t = thread;
+        thread = null;
+        if (t == null) return;
+        LockSupport.unpark(t);
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("[AI4SE] Synthetic gaze source stopped: " + emitted + " frames" +
+                (skipped > 0 ? ", " + skipped + " skipped (behind schedule)" : ""));
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    public long getEmittedCount() {
+        return emitted;
+    }
+
+    private void run() {
+        try {
+            generate();
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            System.err.println("[AI4SE] Synthetic gaze source failed: " + e.getMessage());
+            onEnd.run();
+        } finally {
+            running = false;
+        }
+    }
+
+    private void generate() {
+        ScanpathGenerator generator = new ScanpathGenerator(pattern, seed);
+        GazeSample sample = new GazeSample();
+        StringBuilder line = new StringBuilder(320);
+
+        handler.handleLine("{\"type\": \"status\", \"status\": \"device_detected\", \"model\": \"Synthetic\", " +
+                "\"deviceName\": \"AI4SE synthetic " + pattern + " " + rateHz + " Hz\"}");
+
+        long periodNanos = TimeUnit.SECONDS.toNanos(1) / rateHz;
+        long start = System.nanoTime();
+        long frame = 0;
+
+        while (running) {
+            long due = start + frame * periodNanos;
+            long now = System.nanoTime();
+            if (now < due) {
+                LockSupport.parkNanos(due - now);
+                continue;
+            }
+            if (now - due > MAX_BEHIND_FRAMES * periodNanos) {
+                long behind = (now - due) / periodNanos;
+                skipped += behind;
+                frame += behind;
+                due += behind * periodNanos;
+            }
+
+            sample.reset();
+            generator.next((due - start) / 1e9, sample);
+            sample.timestamp = System.currentTimeMillis();
+
+            line.setLength(0);
+            sample.appendJson(line);
+            handler.handleLine(line.toString());
+
+            emitted++;
+            frame++;
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Wire format of the binary gaze socket served by eyetracker.py
+ * ({@code AI4SE_TRANSPORT=tcp}). All values little-endian.
+ * <pre>
+ * connection := MAGIC frame*
+ * frame      := u32 length   (bytes that follow: kind + payload)
+ *               u8  kind
+ *               payload
+ * KIND_GAZE payload := record*   (count = (length - 1) / RECORD_BYTES)
+ * record     := i64 timestamp (ms since epoch)
+ *               f64 leftX, leftY, leftPupil, rightX, rightY, rightPupil
+ *               i8  leftValidity, leftPupilValidity, rightValidity, rightPupilValidity
+ * </pre>
+ * Must match {@code FRAME_MAGIC} / {@code GAZE_RECORD} in eyetracker.py.
+ */
+public final class GazeFrameProtocol {
+
+    public static final byte[] MAGIC = "AI4SEGZ1".getBytes(StandardCharsets.US_ASCII);
+
+    public static final byte KIND_GAZE = 1;
+
+    public static final int RECORD_BYTES = 8 + 6 * 8 + 4;
+
+    /** Upper bound for one frame; larger lengths mean a corrupt stream. */
+    public static final int MAX_FRAME_BYTES = 1 << 20;
+
+    private GazeFrameProtocol() {}
+
+    /** Read one record at the buffer's position into {@code out}, with the gaze point computed. */
+    public static void readRecord(ByteBuffer buf, GazeSample out) {
+        out.reset();
+        out.timestamp = buf.getLong();
+        out.leftX = buf.getDouble();
+        out.leftY = buf.getDouble();
+        out.leftPupil = buf.getDouble();
+        out.rightX = buf.getDouble();
+        out.rightY = buf.getDouble();
+        out.rightPupil = buf.getDouble();
+        out.leftValidity = buf.get();
+        out.leftPupilValidity = buf.get();
+        out.rightValidity = buf.get();
+        out.rightPupilValidity = buf.get();
+        out.computeGazePoint();
+    }
+}
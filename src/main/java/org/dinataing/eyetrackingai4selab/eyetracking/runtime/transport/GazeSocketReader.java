@@ -0,0 +1,173 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport;
+
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.Diagnostics;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.GazeSample;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.TrackerOutputHandler;
+import org.dinataing.eyetrackingai4selab.eyetracking.runtime.metrics.GazeMetrics;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.SocketChannel;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reads binary gaze frames ({@link GazeFrameProtocol}) from eyetracker.py's socket on the
+ * container's mapped host port and hands the decoded samples to a
+ * {@link TrackerOutputHandler}. Replaces the stdout text stream for gaze data; status and
+ * error messages still arrive on stdout.
+ *
+ * Runs on its own thread with one blocking {@link SocketChannel} and a direct buffer:
+ * no text, no JSON, no docker log plumbing. The tracker needs a moment to come up, so
+ * connecting is retried until {@link #stop()}; a dropped connection is re-established.
+ */
+public final class GazeSocketReader {
+
+    private static final long RETRY_MILLIS = 200;
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final String host;
+    private final int port;
+    private final TrackerOutputHandler handler;
+
+    private volatile boolean running;
+    private volatile SocketChannel channel;
+    private Thread thread;
+
+    private volatile long frames;
+    private volatile long records;
+
+    public GazeSocketReader(String host, int port, TrackerOutputHandler handler) {
+        this.host = host;
+        this.port = port;
+        this.handler = handler;
+    }
+
+    public synchronized void start() {
+        if (thread != null) return;
+        running = true;
+        thread = new Thread(this::run, "AI4SE Gaze Socket");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Close the socket and wait for the reader thread; returns once no more samples are handed over. */
+    public synchronized void stop() {
+        running = false;
+        closeChannel();
+        Thread t = thread;
+        thread = null;
+        if (t == null) return;
+        t.interrupt();
+        try {
+            t.join(TimeUnit.SECONDS.toMillis(2));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        System.out.println("[AI4SE] Gaze socket closed: " + records + " samples in " + frames + " frames");
+    }
+
+    private void run() {
+        ByteBuffer buf = ByteBuffer.allocateDirect(BUFFER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        GazeSample sample = new GazeSample();
+        boolean announced = false;
+
+        while (running) {
+            try (SocketChannel ch = SocketChannel.open()) {
+                channel = ch;
+                ch.connect(new InetSocketAddress(host, port));
+
+                buf.clear().limit(0);
+                buf = fill(ch, buf, GazeFrameProtocol.MAGIC.length);
+                byte[] magic = new byte[GazeFrameProtocol.MAGIC.length];
+                buf.get(magic);
+                if (!Arrays.equals(magic, GazeFrameProtocol.MAGIC)) {
+                    throw new IOException("unexpected handshake from " + host + ":" + port);
+                }
+                System.out.println("[AI4SE] Gaze socket connected: " + host + ":" + port);
+                announced = false;
+
+                while (running) {
+                    buf = fill(ch, buf, 4);
+                    int length = buf.getInt();
+                    if (length < 1 || length > GazeFrameProtocol.MAX_FRAME_BYTES) {
+                        throw new IOException("corrupt frame length " + length);
+                    }
+                    buf = fill(ch, buf, length);
+                    long readNanos = GazeMetrics.now();
+                    int end = buf.position() + length;
+                    byte kind = buf.get();
+
+                    if (kind == GazeFrameProtocol.KIND_GAZE) {
+                        int count = (length - 1) / GazeFrameProtocol.RECORD_BYTES;
+                        for (int i = 0; i < count; i++) {
+                            GazeFrameProtocol.readRecord(buf, sample);
+                            GazeMetrics.since(GazeMetrics.Stage.DECODE, readNanos);
+                            handler.handleSample(sample, readNanos);
+                        }
+                        records += count;
+                    } else if (Diagnostics.isEnabled(Diagnostics.Level.DEBUG)) {
+                        Diagnostics.log(Diagnostics.Level.DEBUG, "[AI4SE] Skipping gaze socket frame of kind " + kind);
+                    }
+                    buf.position(end);
+                    frames++;
+                }
+            } catch (ClosedChannelException | EOFException e) {
+                // stopped, or the tracker is not (yet) accepting: retry below
+            } catch (IOException e) {
+                if (running && !announced) {
+                    System.out.println("[AI4SE] Waiting for gaze socket " + host + ":" + port + " (" + e.getMessage() + ")");
+                    announced = true;
+                }
+            } finally {
+                channel = null;
+            }
+
+            if (running) {
+                try {
+                    Thread.sleep(RETRY_MILLIS);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    /** Make sure {@code needed} bytes are readable from {@code buf}, reading more from the socket. */
+    private static ByteBuffer fill(SocketChannel ch, ByteBuffer buf, int needed) throws IOException {
+        if (buf.remaining() >= needed) return buf;
+
+        if (buf.capacity() < needed) {
+            ByteBuffer grown = ByteBuffer.allocateDirect(Integer.highestOneBit(needed) << 1)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            grown.put(buf);
+            grown.flip();
+            buf = grown;
+        }
+
+        buf.compact();
+        while (buf.position() < needed) {
+            if (ch.read(buf) < 0) {
+                buf.flip();
+                throw new EOFException();
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    private void closeChannel() {
+        SocketChannel ch = channel;
+        if (ch != null) {
+            try {
+                ch.close();
+            } catch (IOException ignored) {
+                // already closed
+            }
+        }
+    }
+}
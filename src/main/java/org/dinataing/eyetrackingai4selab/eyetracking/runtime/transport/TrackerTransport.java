@@ -0,0 +1,9 @@
+package org.dinataing.eyetrackingai4selab.eyetracking.runtime.transport;
+
+/** How gaze frames travel from eyetracker.py to the plugin. */
+public enum TrackerTransport {
+    /** One JSON line per frame on the container's stdout. */
+    STDOUT,
+    /** Binary frames ({@link GazeFrameProtocol}) on the mapped TCP port; stdout keeps status / errors. */
+    TCP
+}
@@ -0,0 +1,327 @@
+package org.dinataing.eyetrackingai4selab.utils;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
+import org.w3c.dom.Node;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLOutputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamWriter;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes an XML document incrementally instead of keeping it in memory.
+ *
+ * The layout is {@code <root><header/><container>...children...</container></root>}.
+ * Children are handed over as detached DOM elements and serialized on a background
+ * thread through a buffered {@link XMLStreamWriter}, so the caller never waits on disk
+ * I/O and nothing is retained once an element has been written.
+ * The output is indented the same way as {@link XMLWriter#writeToXML}.
+ *
+ * With a {@link SegmentPolicy} the writer thread rolls over to a new, complete document
+ * ({@code name.000.xml}, {@code name.001.xml}, ...) once a segment is old or large
+ * enough, and can GZIP segments while writing them ({@code .xml.gz}). Closing is
+ * asynchronous as well: {@link #closeAsync()} only tells the writer thread to finish.
+ */
+public class StreamingXMLWriter implements AutoCloseable {
+
+    /** When to start a new segment file, and whether segments are compressed. */
+    public static final class SegmentPolicy {
+        public static final SegmentPolicy NONE = new SegmentPolicy(0, 0, false);
+
+        final long maxMillis; // 0 = no time limit
+        final long maxBytes;  // 0 = no size limit; bytes on disk (compressed), checked as they reach the file
+        final boolean gzip;
+
+        public SegmentPolicy(long maxMillis, long maxBytes, boolean gzip) {
+            this.maxMillis = Math.max(0, maxMillis);
+            this.maxBytes = Math.max(0, maxBytes);
+            this.gzip = gzip;
+        }
+
+        boolean rollsOver() {
+            return maxMillis > 0 || maxBytes > 0;
+        }
+    }
+
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String INDENT = "  ";
+
+    private final String filePath;
+    private final String rootName;
+    private final Element header; // private copy: the caller's document keeps changing
+    private final String containerName;
+    private final SegmentPolicy policy;
+
+    private final BlockingQueue<Element> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final Thread worker;
+    private final CompletableFuture<Void> finished = new CompletableFuture<>();
+
+    // current segment; writer thread only after the constructor
+    private CountingOutputStream fileOut;
+    private OutputStream out;
+    private XMLStreamWriter xml;
+    private int segment = 0;
+    private long segmentStartNanos;
+    private long segmentElements;
+
+    private volatile boolean closing = false;
+    private volatile boolean drained = false; // the writer thread no longer takes from the queue
+    private final AtomicLong dropped = new AtomicLong(); // caller thread, or the writer thread for what it left queued
+    private volatile Exception failure;
+
+    // "\n" followed by depth * INDENT, grown on demand
+    private String[] indents = {"\n", "\n" + INDENT, "\n" + INDENT + INDENT};
+
+    /**
+     * Opens {@code filePath} and writes the document prolog, the root element,
+     * the (already populated) header element and the opening container tag.
+     */
+    public StreamingXMLWriter(String filePath, String rootName, Element header, String containerName)
+            throws IOException, XMLStreamException {
+        this(filePath, rootName, header, containerName, SegmentPolicy.NONE);
+    }
+
+    /**
+     * Like {@link #StreamingXMLWriter(String, String, Element, String)}, split into segments
+     * by {@code policy}; every segment repeats the root and header. The first segment is
+     * opened here, so a path that can't be written fails right away.
+     */
+    public StreamingXMLWriter(String filePath, String rootName, Element header, String containerName,
+                              SegmentPolicy policy) throws IOException, XMLStreamException {
+        this.filePath = filePath;
+        this.rootName = rootName;
+        this.header = header != null ? copy(header) : null;
+        this.containerName = containerName;
+        this.policy = policy;
+
+        openSegment();
+
+        worker = new Thread(this::drain, "AI4SE XML Writer");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Queue one child element for the container. Blocks only if the writer thread
+     * has fallen {@value #QUEUE_CAPACITY} elements behind; once the writer is closing
+     * or has died (I/O error), elements are dropped and counted instead.
+     */
+    public void write(Element element) {
+        try {
+            while (!closing) {
+                if (queue.offer(element, 100, TimeUnit.MILLISECONDS)) {
+                    // queued just as the writer thread gave up: whoever removes it counts it
+                    if (drained && queue.remove(element)) dropped.incrementAndGet();
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        dropped.incrementAndGet();
+    }
+
+    /**
+     * Stop accepting elements; the writer thread writes everything still queued and closes
+     * the document. Returns at once; the future completes when the file is complete.
+     */
+    public CompletableFuture<Void> closeAsync() {
+        closing = true;
+        return finished;
+    }
+
+    /** Writes everything still queued, closes the document and the file. */
+    @Override
+    public void close() {
+        closeAsync().join();
+    }
+
+    private void drain() {
+        try {
+            while (!closing || !queue.isEmpty()) {
+                Element next = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (next != null) {
+                    writeElement(next, 2);
+                    segmentElements++;
+                }
+                if (segmentFull()) {
+                    finishSegment();
+                    segment++;
+                    openSegment();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (XMLStreamException | IOException e) {
+            failure = e;
+        } finally {
+            // nobody drains the queue anymore: writers must drop instead of blocking on it
+            closing = true;
+            drained = true;
+            while (queue.poll() != null) {
+                dropped.incrementAndGet();
+            }
+        }
+
+        try {
+            finishSegment();
+        } catch (XMLStreamException | IOException e) {
+            if (failure == null) failure = e;
+        }
+
+        if (failure != null) {
+            System.err.println("[AI4SE][XML] Failed to write XML: " + failure.getMessage()
+                    + (dropped.get() > 0 ? " (" + dropped.get() + " elements dropped)" : ""));
+            failure.printStackTrace();
+        } else if (segment > 0) {
+            System.out.println("[AI4SE][XML] Written " + (segment + 1) + " segments: " + segmentPath(0) + " ...");
+        } else {
+            System.out.println("[AI4SE][XML] Written to: " + segmentPath(0));
+        }
+        finished.complete(null);
+    }
+
+    /** Never rolls over an empty segment, so an idle session doesn't leave empty files behind. */
+    private boolean segmentFull() {
+        if (!policy.rollsOver() || segmentElements == 0) return false;
+        if (policy.maxBytes > 0 && fileOut.count >= policy.maxBytes) return true;
+        return policy.maxMillis > 0
+                && System.nanoTime() - segmentStartNanos >= TimeUnit.MILLISECONDS.toNanos(policy.maxMillis);
+    }
+
+    /** {@code filePath} itself, or {@code name.NNN.xml} when rolling over; {@code .gz} appended when compressing. */
+    private Path segmentPath(int index) {
+        String name = filePath;
+        if (policy.rollsOver()) {
+            String suffix = String.format(".%03d", index);
+            name = name.endsWith(".xml")
+                    ? name.substring(0, name.length() - 4) + suffix + ".xml"
+                    : name + suffix;
+        }
+        return Path.of(policy.gzip ? name + ".gz" : name);
+    }
+
+    private void openSegment() throws IOException, XMLStreamException {
+        fileOut = new CountingOutputStream(Files.newOutputStream(segmentPath(segment)));
+        out = new BufferedOutputStream(policy.gzip ? new GZIPOutputStream(fileOut, BUFFER_SIZE) : fileOut, BUFFER_SIZE);
+        xml = XMLOutputFactory.newInstance().createXMLStreamWriter(out, "UTF-8");
+        segmentStartNanos = System.nanoTime();
+        segmentElements = 0;
+
+        xml.writeStartDocument("UTF-8", "1.0");
+        newLine(0);
+        xml.writeStartElement(rootName);
+        if (header != null) {
+            writeElement(header, 1);
+        }
+        newLine(1);
+        xml.writeStartElement(containerName);
+    }
+
+    private void finishSegment() throws XMLStreamException, IOException {
+        try {
+            newLine(1);
+            xml.writeEndElement(); // container
+            newLine(0);
+            xml.writeEndElement(); // root
+            xml.writeCharacters("\n");
+            xml.writeEndDocument();
+            xml.close();
+        } finally {
+            out.close(); // also writes the GZIP trailer
+        }
+    }
+
+    private static Element copy(Element element) {
+        try {
+            Document own = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+            return (Element) own.importNode(element, true);
+        } catch (ParserConfigurationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /** Bytes that reached the file, for size based rollover. */
+    private static final class CountingOutputStream extends FilterOutputStream {
+        volatile long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+
+    private void writeElement(Element element, int depth) throws XMLStreamException {
+        newLine(depth);
+
+        boolean hasChildren = element.hasChildNodes();
+        if (hasChildren) {
+            xml.writeStartElement(element.getTagName());
+        } else {
+            xml.writeEmptyElement(element.getTagName());
+        }
+
+        NamedNodeMap attributes = element.getAttributes();
+        for (int i = 0; i < attributes.getLength(); i++) {
+            Node attr = attributes.item(i);
+            xml.writeAttribute(attr.getNodeName(), attr.getNodeValue());
+        }
+
+        if (!hasChildren) return;
+
+        // walk siblings directly: NodeList access goes through a per-document cache
+        // that is not safe to share with the thread still building new elements
+        boolean nested = false;
+        for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+            if (child instanceof Element) {
+                writeElement((Element) child, depth + 1);
+                nested = true;
+            } else if (child.getNodeType() == Node.TEXT_NODE) {
+                xml.writeCharacters(child.getNodeValue());
+            }
+        }
+        if (nested) {
+            newLine(depth);
+        }
+        xml.writeEndElement();
+    }
+
+    private void newLine(int depth) throws XMLStreamException {
+        while (indents.length <= depth) {
+            String[] grown = Arrays.copyOf(indents, indents.length * 2);
+            for (int i = indents.length; i < grown.length; i++) {
+                grown[i] = grown[i - 1] + INDENT;
+            }
+            indents = grown;
+        }
+        xml.writeCharacters(indents[depth]);
+    }
+}
@@ -1,13 +1,73 @@
 import json
+import os
+import signal
+import socket
+import struct
+import sys
+import threading
 import time
+
+# Signal handlers first, before the slow SDK import: in warm mode the plugin may signal
+# us as soon as we report "warm", and a signal to PID 1 without a handler is dropped.
+# docker stop sends SIGTERM; block on an event instead of spinning.
+stop_requested = threading.Event()
+start_requested = threading.Event()  # SIGUSR1: leave warm mode
+signal.signal(signal.SIGTERM, lambda signum, frame: stop_requested.set())
+signal.signal(signal.SIGINT, lambda signum, frame: stop_requested.set())
+if os.environ.get("AI4SE_WARM") == "1" and hasattr(signal, "SIGUSR1"):  # no SIGUSR1 on Windows
+    signal.signal(signal.SIGUSR1, lambda signum, frame: start_requested.set())
+
+
+def _stop_on_stdin_eof():
+    sys.stdin.read()
+    stop_requested.set()
+
+
+# Run locally (AI4SE_STOP_ON_EOF=1) the plugin stops us by closing our stdin: unlike
+# SIGTERM that works on Windows too, where the process can only be killed outright.
+if os.environ.get("AI4SE_STOP_ON_EOF") == "1":
+    threading.Thread(target=_stop_on_stdin_eof, daemon=True).start()
+
 import tobii_research as tr
 
+# "stdout": one JSON line per sample (default)
+# "tcp":    binary frames on AI4SE_PORT; stdout keeps status / error messages
+TRANSPORT = os.environ.get("AI4SE_TRANSPORT", "stdout").lower()
+PORT = int(os.environ.get("AI4SE_PORT", "5000"))
+# all interfaces inside the container; the plugin sets 127.0.0.1 when running us locally
+HOST = os.environ.get("AI4SE_HOST", "0.0.0.0")
+
+# Batching: collect samples for up to AI4SE_BATCH_MS (or AI4SE_BATCH_MAX samples) and
+# write them at once: one JSON array line on stdout, one multi-record frame over tcp.
+# 0 = write every sample immediately.
+BATCH_MS = float(os.environ.get("AI4SE_BATCH_MS", "0"))
+BATCH_MAX = max(1, int(os.environ.get("AI4SE_BATCH_MAX", "32")))
+
+# Must match GazeFrameProtocol.java
+FRAME_MAGIC = b"AI4SEGZ1"
+KIND_GAZE = 1
+FRAME_HEADER = struct.Struct("<IB")       # length (kind + payload), kind
+GAZE_RECORD = struct.Struct("<q6d4b")     # timestamp, leftX/Y/Pupil, rightX/Y/Pupil, 4 validities
+
 
 
 ##---------------------Helper Function-----------------------------------##
 def gaze_data_callback(gaze_data):
     timestamp = round(time.time() * 1000)
 
+    if TRANSPORT == "tcp":
+        left = gaze_data["left_gaze_point_on_display_area"]
+        right = gaze_data["right_gaze_point_on_display_area"]
+        record = GAZE_RECORD.pack(
+            timestamp,
+            left[0], left[1], gaze_data["left_pupil_diameter"],
+            right[0], right[1], gaze_data["right_pupil_diameter"],
+            gaze_data["left_gaze_point_validity"], gaze_data["left_pupil_validity"],
+            gaze_data["right_gaze_point_validity"], gaze_data["right_pupil_validity"],
+        )
+        emit(record)
+        return
+
     data = {
         "type": "gaze",
         "timestamp": timestamp,
@@ -27,15 +87,123 @@ def gaze_data_callback(gaze_data):
         "rightPupilValidity": gaze_data["right_pupil_validity"],
     }
 
-    send(data)
+    emit(data)
+
+
+def emit(sample):
+    """Send one gaze sample (dict for stdout, packed record for tcp), batched if enabled."""
+    if batcher is not None:
+        batcher.add(sample)
+    else:
+        write_gaze([sample])
+
+
+def write_gaze(samples):
+    if TRANSPORT == "tcp":
+        gaze_server.send_frame(KIND_GAZE, b"".join(samples))
+    elif len(samples) == 1:
+        send(samples[0])
+    else:
+        send(samples)  # JSON array line: [{...}, {...}]
 
 
+# The SDK callback, the batcher and the accept thread all write lines; one at a time.
+stdout_lock = threading.Lock()
+
 
 def send(obj):
-    print(json.dumps(obj), flush=True)
+    line = json.dumps(obj)
+    with stdout_lock:
+        print(line, flush=True)
+
+
+class Batcher:
+    """Collects samples and writes them from a background thread every interval or when full."""
+
+    def __init__(self, interval_ms, max_count):
+        self.interval = interval_ms / 1000.0
+        self.max_count = max_count
+        self.cond = threading.Condition()
+        self.samples = []
+        self.closing = False
+        self.thread = threading.Thread(target=self._loop, daemon=True)
+        self.thread.start()
+
+    def add(self, sample):
+        with self.cond:
+            self.samples.append(sample)
+            if len(self.samples) >= self.max_count:
+                self.cond.notify()
+
+    def close(self):
+        """Wait for the background thread to write the last samples and exit; no add() after this."""
+        with self.cond:
+            self.closing = True
+            self.cond.notify()
+        self.thread.join()
+
+    def flush(self):
+        with self.cond:
+            samples, self.samples = self.samples, []
+        if samples:
+            write_gaze(samples)
+
+    def _loop(self):
+        # the only thread that flushes, so batches are written in order
+        while True:
+            with self.cond:
+                if len(self.samples) < self.max_count and not self.closing:
+                    self.cond.wait(self.interval)
+                closing = self.closing
+            self.flush()
+            if closing:
+                return
+
+
+class GazeServer:
+    """Serves binary gaze frames to one client (the plugin) at a time."""
+
+    def __init__(self, port):
+        self.lock = threading.Lock()
+        self.client = None
+        self.server = socket.socket(socket.AF_INET, socket.SOCK_STREAM)
+        self.server.setsockopt(socket.SOL_SOCKET, socket.SO_REUSEADDR, 1)
+        self.server.bind((HOST, port))
+        self.server.listen(1)
+        threading.Thread(target=self._accept_loop, daemon=True).start()
+
+    def _accept_loop(self):
+        while True:
+            conn, addr = self.server.accept()
+            conn.setsockopt(socket.IPPROTO_TCP, socket.TCP_NODELAY, 1)
+            conn.sendall(FRAME_MAGIC)
+            with self.lock:
+                if self.client is not None:
+                    self.client.close()
+                self.client = conn
+            send({"type": "status", "status": "client_connected", "address": str(addr[0])})
+
+    def send_frame(self, kind, payload):
+        with self.lock:
+            if self.client is None:
+                return  # nobody listening yet: drop
+            try:
+                self.client.sendall(FRAME_HEADER.pack(len(payload) + 1, kind) + payload)
+            except OSError:
+                self.client.close()
+                self.client = None
+                send({"type": "status", "status": "client_disconnected"})
 ##---------------------End of Helper Function-----------------------------------##
 
 
+# Warm start (AI4SE_WARM=1): interpreter and tobii_research are loaded, the container is
+# paused by the plugin once it has read "warm"; SIGUSR1 starts the actual session.
+if os.environ.get("AI4SE_WARM") == "1":
+    send({"type": "status", "status": "warm"})
+    while not start_requested.wait(1.0):
+        if stop_requested.is_set():
+            exit()
+
 # Detect devices
 eyetrackers = tr.find_all_eyetrackers()
 
@@ -49,6 +217,9 @@ if len(eyetrackers) == 0:
 
 my_eyetracker = eyetrackers[0]
 
+gaze_server = GazeServer(PORT) if TRANSPORT == "tcp" else None
+batcher = Batcher(BATCH_MS, BATCH_MAX) if BATCH_MS > 0 else None
+
 send({
     "type": "status",
     "status": "device_detected",
@@ -58,9 +229,11 @@ send({
 
 my_eyetracker.subscribe_to(tr.EYETRACKER_GAZE_DATA, gaze_data_callback, as_dictionary=True)
 
-try:
-    while True:
-        time.sleep(0.000001)
-except KeyboardInterrupt:
-    my_eyetracker.unsubscribe_from(tr.EYETRACKER_GAZE_DATA)
-    print("Stopped.")
+while not stop_requested.wait(1.0):
+    pass
+
+my_eyetracker.unsubscribe_from(tr.EYETRACKER_GAZE_DATA)
+if batcher is not None:
+    batcher.close()
+with stdout_lock:
+    print("Stopped.", flush=True)